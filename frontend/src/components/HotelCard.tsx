@@ -12,6 +12,7 @@ interface Listing {
   pricePerNight?: number;
   maxGuests?: number;
   imageUrls?: string[];
+  thumbnailUrl?: string | null;
   amenities?: string[];
 }
 
@@ -41,6 +42,8 @@ const HotelCard: React.FC<HotelCardProps> = ({ hotel }) => {
   const image = isListing(hotel) 
     ? (hotel.imageUrls && hotel.imageUrls.length > 0 ? hotel.imageUrls[0] : null) 
     : hotel.image;
+  // Small copy for the card when the API has one; falls back to the original if it fails to load
+  const thumbnail = isListing(hotel) ? hotel.thumbnailUrl : null;
   const amenities = (isListing(hotel) ? hotel.amenities : hotel.amenities) || [];
   const rating = isListing(hotel) ? null : hotel.rating;
 
@@ -51,8 +54,14 @@ const HotelCard: React.FC<HotelCardProps> = ({ hotel }) => {
         <div className="relative h-56 overflow-hidden bg-gray-200">
           {image ? (
             <img
-              src={image}
+              src={thumbnail || image}
               alt={title}
+              loading="lazy"
+              onError={(e) => {
+                if (thumbnail && e.currentTarget.src !== image) {
+                  e.currentTarget.src = image;
+                }
+              }}
               className="w-full h-full object-cover transition-transform duration-300 hover:scale-110"
             />
           ) : (
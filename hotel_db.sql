@@ -67,7 +67,8 @@ CREATE TABLE `listings` (
   `beds` int(11) DEFAULT 1,
   `bathrooms` int(11) DEFAULT 1,
   `status` enum('pending','approved','rejected') DEFAULT 'approved',
-  `created_at` timestamp NOT NULL DEFAULT current_timestamp()
+  `created_at` timestamp NOT NULL DEFAULT current_timestamp(),
+  `version` int(11) NOT NULL DEFAULT 0
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci;
 
 --
@@ -99,7 +100,8 @@ INSERT INTO `listings` (`id`, `user_id`, `title`, `description`, `address`, `cit
 CREATE TABLE `listing_images` (
   `id` int(11) NOT NULL,
   `listing_id` int(11) NOT NULL,
-  `image_url` varchar(255) NOT NULL
+  `image_url` varchar(255) NOT NULL,
+  `content_hash` char(64) DEFAULT NULL
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci;
 
 --
@@ -222,7 +224,8 @@ CREATE TABLE `users` (
   `email` varchar(150) NOT NULL,
   `password` varchar(255) NOT NULL,
   `role` enum('guest','host','admin','banned') DEFAULT 'guest',
-  `created_at` timestamp NOT NULL DEFAULT current_timestamp()
+  `created_at` timestamp NOT NULL DEFAULT current_timestamp(),
+  `version` int(11) NOT NULL DEFAULT 0
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci;
 
 --
@@ -258,14 +261,18 @@ ALTER TABLE `host_applications`
 --
 ALTER TABLE `listings`
   ADD PRIMARY KEY (`id`),
-  ADD KEY `user_id` (`user_id`);
+  ADD KEY `user_id` (`user_id`),
+  ADD KEY `idx_created_id` (`created_at`,`id`),
+  ADD KEY `idx_status_city_price` (`status`,`city`,`price_per_night`),
+  ADD KEY `idx_status_price` (`status`,`price_per_night`);
 
 --
 -- Indexes for table `listing_images`
 --
 ALTER TABLE `listing_images`
   ADD PRIMARY KEY (`id`),
-  ADD KEY `listing_id` (`listing_id`);
+  ADD KEY `listing_id` (`listing_id`),
+  ADD KEY `idx_content_hash` (`content_hash`);
 
 --
 -- Indexes for table `reservations`
@@ -273,7 +280,10 @@ ALTER TABLE `listing_images`
 ALTER TABLE `reservations`
   ADD PRIMARY KEY (`id`),
   ADD KEY `listing_id` (`listing_id`),
-  ADD KEY `user_id` (`user_id`);
+  ADD KEY `user_id` (`user_id`),
+  ADD KEY `idx_listing_status_dates` (`listing_id`,`status`,`check_in`,`check_out`),
+  ADD KEY `idx_user_created` (`user_id`,`created_at`),
+  ADD KEY `idx_created_id` (`created_at`,`id`);
 
 --
 -- Indexes for table `rooms`
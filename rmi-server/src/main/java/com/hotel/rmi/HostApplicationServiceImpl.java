@@ -1,5 +1,6 @@
 package com.hotel.rmi;
 
+import com.hotel.rmi.cache.SingleFlight;
 import com.hotel.rmi.dao.HostApplicationDAO;
 import com.hotel.rmi.dao.UserDAO;
 import com.hotel.shared.model.HostApplication;
@@ -7,20 +8,20 @@ import com.hotel.shared.model.User;
 import com.hotel.shared.service.HostApplicationService;
 
 import java.rmi.RemoteException;
-import java.rmi.server.UnicastRemoteObject;
 import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
-public class HostApplicationServiceImpl extends UnicastRemoteObject implements HostApplicationService {
+public class HostApplicationServiceImpl implements HostApplicationService {
     private static final Logger logger = Logger.getLogger(HostApplicationServiceImpl.class.getName());
     private final HostApplicationDAO applicationDAO;
     private final UserDAO userDAO;
+    private final SingleFlight<Integer, User> userLoads;
     
-    public HostApplicationServiceImpl() throws RemoteException {
-        super();
+    public HostApplicationServiceImpl(SingleFlight<Integer, User> userLoads) throws RemoteException {
         this.applicationDAO = new HostApplicationDAO();
         this.userDAO = new UserDAO();
+        this.userLoads = userLoads;
     }
     
     @Override
@@ -110,6 +111,7 @@ public class HostApplicationServiceImpl extends UnicastRemoteObject implements H
             
             // Update user role to host
             boolean roleUpdated = userDAO.updateRole(application.getUserId(), "host");
+            userLoads.forget(application.getUserId());
             if (!roleUpdated) {
                 throw new RemoteException("Failed to update user role");
             }
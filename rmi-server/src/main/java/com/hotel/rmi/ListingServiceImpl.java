@@ -1,26 +1,42 @@
 package com.hotel.rmi;
 
+import com.hotel.rmi.cache.LruCache;
 import com.hotel.rmi.dao.ListingDAO;
+import com.hotel.rmi.search.ListingSearchIndex;
+import com.hotel.rmi.util.KeysetCursor;
+import com.hotel.rmi.stats.DashboardAggregates;
 import com.hotel.shared.exception.AuthorizationException;
 import com.hotel.shared.exception.NotFoundException;
+import com.hotel.shared.exception.ValidationException;
 import com.hotel.shared.model.Listing;
+import com.hotel.shared.model.ListingPage;
+import com.hotel.shared.model.ListingSearchCriteria;
 import com.hotel.shared.service.ListingService;
 
 import java.rmi.RemoteException;
-import java.rmi.server.UnicastRemoteObject;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
-public class ListingServiceImpl extends UnicastRemoteObject implements ListingService {
-    private static final long serialVersionUID = 1L;
+public class ListingServiceImpl implements ListingService {
     private static final Logger logger = Logger.getLogger(ListingServiceImpl.class.getName());
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int MAX_SEARCH_RESULTS = 200;
+    private static final int STATUS_UPDATE_ATTEMPTS = 3;
     private final ListingDAO listingDAO;
+    private final ListingSearchIndex searchIndex;
+    private final LruCache<Integer, Listing> listingCache;
+    private final DashboardAggregates aggregates;
     
-    public ListingServiceImpl() throws RemoteException {
-        super();
+    public ListingServiceImpl(ListingSearchIndex searchIndex, LruCache<Integer, Listing> listingCache,
+                              DashboardAggregates aggregates) throws RemoteException {
         this.listingDAO = new ListingDAO();
+        this.searchIndex = searchIndex;
+        this.listingCache = listingCache;
+        this.aggregates = aggregates;
     }
     
     @Override
@@ -32,7 +48,16 @@ public class ListingServiceImpl extends UnicastRemoteObject implements ListingSe
                 throw new AuthorizationException("User ID is required to create a listing");
             }
             
-            return listingDAO.create(listing);
+            Listing created;
+            aggregates.beginWrite();
+            try {
+                created = listingDAO.create(listing);
+                aggregates.listingAdded(created.getStatus() != null ? created.getStatus() : "pending");
+            } finally {
+                aggregates.endWrite();
+            }
+            searchIndex.put(created);
+            return created;
             
         } catch (SQLException e) {
             logger.log(Level.SEVERE, "Database error creating listing", e);
@@ -61,11 +86,16 @@ public class ListingServiceImpl extends UnicastRemoteObject implements ListingSe
             
             // Perform update
             boolean updated = listingDAO.update(listing, currentUserId);
+            listingCache.invalidate(listing.getId());
             if (!updated) {
                 throw new RemoteException("Failed to update listing");
             }
             
-            return listingDAO.findById(listing.getId());
+            Listing refreshed = listingDAO.findById(listing.getId());
+            if (refreshed != null) {
+                searchIndex.put(refreshed);
+            }
+            return refreshed;
             
         } catch (SQLException e) {
             logger.log(Level.SEVERE, "Database error updating listing", e);
@@ -93,9 +123,14 @@ public class ListingServiceImpl extends UnicastRemoteObject implements ListingSe
             
             // Perform delete
             boolean deleted = listingDAO.delete(listingId, currentUserId);
+            listingCache.invalidate(listingId);
             if (!deleted) {
                 throw new RemoteException("Failed to delete listing");
             }
+            searchIndex.remove(listingId);
+            
+            // Deleting a listing also purges its cancelled reservations, so recount
+            aggregates.rebuild();
             
         } catch (SQLException e) {
             logger.log(Level.SEVERE, "Database error deleting listing", e);
@@ -118,8 +153,11 @@ public class ListingServiceImpl extends UnicastRemoteObject implements ListingSe
     @Override
     public Listing getListingById(int listingId) throws RemoteException, NotFoundException {
         try {
-            logger.info("Fetching listing: " + listingId);
-            Listing listing = listingDAO.findById(listingId);
+            // Concurrent misses on a hot listing share one query
+            Listing listing = listingCache.getOrLoad(listingId, () -> {
+                logger.info("Fetching listing: " + listingId);
+                return listingDAO.findById(listingId);
+            });
             
             if (listing == null) {
                 throw new NotFoundException("Listing not found with ID: " + listingId);
@@ -145,6 +183,94 @@ public class ListingServiceImpl extends UnicastRemoteObject implements ListingSe
         }
     }
     
+    @Override
+    public ListingPage getListingsPage(String cursor, int limit) throws RemoteException, ValidationException {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        KeysetCursor after = KeysetCursor.decodeTimestamped(cursor);
+        
+        try {
+            // Fetch one extra row to know whether another page exists
+            List<Listing> listings = listingDAO.findPage(after != null ? after.getCreatedAt() : null,
+                    after != null ? after.getId() : 0, pageSize + 1);
+            
+            String nextCursor = null;
+            if (listings.size() > pageSize) {
+                listings = new ArrayList<>(listings.subList(0, pageSize));
+                Listing last = listings.get(pageSize - 1);
+                nextCursor = KeysetCursor.encode(last.getCreatedAt(), last.getId());
+            }
+            
+            return new ListingPage(listings, nextCursor);
+            
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Database error fetching listing page", e);
+            throw new RemoteException("Failed to fetch listings: " + e.getMessage(), e);
+        }
+    }
+    
+    @Override
+    public List<Listing> searchListings(ListingSearchCriteria criteria) throws RemoteException {
+        try {
+            criteria.setLimit(Math.max(1, Math.min(criteria.getLimit(), MAX_SEARCH_RESULTS)));
+            return listingDAO.search(criteria);
+            
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Database error searching listings", e);
+            throw new RemoteException("Failed to search listings: " + e.getMessage(), e);
+        }
+    }
+    
+    @Override
+    public List<Listing> searchText(String query, int limit) throws RemoteException {
+        try {
+            int max = Math.max(1, Math.min(limit, MAX_SEARCH_RESULTS));
+            List<Integer> rankedIds = searchIndex.search(query, max);
+            // The index may lag writes made through other instances; the database has the final say
+            return listingDAO.findApprovedByIds(rankedIds);
+            
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Database error loading text search results", e);
+            throw new RemoteException("Failed to search listings: " + e.getMessage(), e);
+        }
+    }
+    
+    @Override
+    public long getCatalogVersion() throws RemoteException {
+        try {
+            return listingDAO.catalogVersion();
+            
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Database error fetching catalog version", e);
+            throw new RemoteException("Failed to fetch catalog version: " + e.getMessage(), e);
+        }
+    }
+    
+    @Override
+    public long getListingVersion(int listingId) throws RemoteException, NotFoundException {
+        try {
+            Long version = listingDAO.listingVersion(listingId);
+            if (version == null) {
+                throw new NotFoundException("Listing not found with ID: " + listingId);
+            }
+            return version;
+            
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Database error fetching listing version", e);
+            throw new RemoteException("Failed to fetch listing version: " + e.getMessage(), e);
+        }
+    }
+    
+    @Override
+    public long getHostVersion(int hostId) throws RemoteException {
+        try {
+            return listingDAO.hostVersion(hostId);
+            
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Database error fetching host version", e);
+            throw new RemoteException("Failed to fetch host version: " + e.getMessage(), e);
+        }
+    }
+    
     @Override
     public void addListingImage(int listingId, String imageUrl, int currentUserId) 
             throws RemoteException, AuthorizationException, NotFoundException {
@@ -163,6 +289,7 @@ public class ListingServiceImpl extends UnicastRemoteObject implements ListingSe
             }
             
             listingDAO.addImage(listingId, imageUrl);
+            listingCache.invalidate(listingId);
             
         } catch (SQLException e) {
             logger.log(Level.SEVERE, "Database error adding image", e);
@@ -170,6 +297,16 @@ public class ListingServiceImpl extends UnicastRemoteObject implements ListingSe
         }
     }
     
+    @Override
+    public Map<String, Integer> getImageReferenceCounts(List<String> contentHashes) throws RemoteException {
+        try {
+            return listingDAO.countImageReferences(contentHashes);
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Database error counting image references", e);
+            throw new RemoteException("Failed to count image references: " + e.getMessage(), e);
+        }
+    }
+    
     @Override
     public boolean updateListingStatus(int listingId, String status) 
             throws RemoteException, NotFoundException {
@@ -182,10 +319,30 @@ public class ListingServiceImpl extends UnicastRemoteObject implements ListingSe
                 throw new NotFoundException("Listing not found with ID: " + listingId);
             }
             
-            // Update status
-            boolean updated = listingDAO.updateStatus(listingId, status);
+            // Update status only from the one just read, so the dashboard delta matches what changed;
+            // if a concurrent write got there first, read it again and retry
+            boolean updated;
+            aggregates.beginWrite();
+            try {
+                updated = listingDAO.updateStatus(listingId, existing.getStatus(), status);
+                for (int attempt = 1; !updated && attempt < STATUS_UPDATE_ATTEMPTS; attempt++) {
+                    existing = listingDAO.findById(listingId);
+                    if (existing == null) {
+                        throw new NotFoundException("Listing not found with ID: " + listingId);
+                    }
+                    updated = listingDAO.updateStatus(listingId, existing.getStatus(), status);
+                }
+                if (updated) {
+                    aggregates.listingStatusChanged(existing.getStatus(), status);
+                }
+            } finally {
+                aggregates.endWrite();
+            }
+            listingCache.invalidate(listingId);
             
-            if (!updated) {
+            if (updated) {
+                searchIndex.updateStatus(listingId, status);
+            } else {
                 logger.warning("Failed to update status for listing: " + listingId);
             }
             
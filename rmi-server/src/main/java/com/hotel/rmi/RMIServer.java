@@ -1,45 +1,194 @@
 package com.hotel.rmi;
 
+import com.hotel.rmi.cache.LruCache;
+import com.hotel.rmi.cache.SingleFlight;
+import com.hotel.rmi.calendar.OccupancyCalendar;
+import com.hotel.rmi.dao.ReservationDAO;
+import com.hotel.rmi.database.DBConnection;
+import com.hotel.rmi.dispatch.PinningMonitor;
+import com.hotel.rmi.dispatch.RequestScheduler;
+import com.hotel.rmi.dispatch.ScheduledDispatch;
+import com.hotel.rmi.search.ListingIndexRefresher;
+import com.hotel.rmi.search.ListingSearchIndex;
+import com.hotel.rmi.stats.DashboardAggregates;
+import com.hotel.shared.model.Listing;
+import com.hotel.shared.model.User;
+import com.hotel.shared.net.CompressingClientSocketFactory;
+import com.hotel.shared.net.CompressingServerSocketFactory;
+import com.hotel.shared.util.VirtualThreads;
+
 import java.rmi.Naming;
+import java.rmi.Remote;
+import java.rmi.RemoteException;
 import java.rmi.registry.LocateRegistry;
+import java.rmi.server.RMIClientSocketFactory;
+import java.rmi.server.RMIServerSocketFactory;
+import java.rmi.server.UnicastRemoteObject;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 public class RMIServer {
+    private static final Logger logger = Logger.getLogger(RMIServer.class.getName());
+    
+    // Strong references to exported services so they stay reachable for the life of the server
+    private static final List<Remote> exported = new ArrayList<>();
+    
     public static void main(String[] args) throws Exception {
         String host = "127.0.0.1";
         if (args.length > 0) host = args[0];
+        
+        // Several instances can run side by side, each with its own registry port
+        int registryPort = args.length > 1 ? Integer.parseInt(args[1]) : Integer.getInteger("rmi.registryPort", 1099);
+        String instanceId = System.getProperty("rmi.instanceId", host + ":" + registryPort);
+        // How many instances write the database; above one, state built from this instance's writes goes stale
+        boolean sharedDatabase = Integer.getInteger("rmi.instances", 1) > 1;
         System.setProperty("java.rmi.server.hostname", host);
-        LocateRegistry.createRegistry(1099);
+        LocateRegistry.createRegistry(registryPort);
+        
+        // Service sockets: TCP_NODELAY, keepalive, sized buffers, deflate for payloads >= threshold (-1 disables)
+        int servicePort = Integer.getInteger("rmi.servicePort", 0);
+        int compressionThreshold = Integer.getInteger("rmi.compressionThreshold", 4096);
+        int socketBufferSize = Integer.getInteger("rmi.socketBufferSize", 65536);
+        RMIClientSocketFactory csf = new CompressingClientSocketFactory(compressionThreshold, socketBufferSize,
+                Integer.getInteger("rmi.connectTimeoutMs", 5000));
+        RMIServerSocketFactory ssf = new CompressingServerSocketFactory(compressionThreshold, socketBufferSize);
+        
+        // Workers may run on virtual threads (Java 21+); RMI's own connection threads stay platform threads
+        boolean virtualWorkers = Boolean.getBoolean("threads.virtual.enabled");
+        if (virtualWorkers && !VirtualThreads.isSupported()) {
+            logger.warning("threads.virtual.enabled is set but Java " + System.getProperty("java.version") +
+                           " has no virtual threads; using platform workers");
+            virtualWorkers = false;
+        }
+        long pinnedThresholdMs = Long.getLong("threads.virtual.pinnedThresholdMs", 20L);
+        PinningMonitor pinning = virtualWorkers && pinnedThresholdMs > 0 ? PinningMonitor.start(pinnedThresholdMs) : null;
+        
+        // Every remote call runs on a bounded worker pool, bookings first, admin reports last.
+        // Keep scheduler.workers at or below db.pool.maxSize so workers never wait for a connection.
+        RequestScheduler scheduler = new RequestScheduler(
+                Integer.getInteger("scheduler.workers", 8),
+                Integer.getInteger("scheduler.booking.queueLimit", 200),
+                Integer.getInteger("scheduler.guest.queueLimit", 500),
+                Integer.getInteger("scheduler.admin.queueLimit", 20),
+                Integer.getInteger("scheduler.admin.maxConcurrent", 2),
+                Long.getLong("scheduler.maxQueueWaitMs", 10000L),
+                virtualWorkers);
+        
+        // Release pooled database connections on shutdown
+        Runtime.getRuntime().addShutdownHook(new Thread(DBConnection::shutdown, "db-pool-shutdown"));
+        
+        // Load booked date ranges of every listing
+        OccupancyCalendar calendar = new OccupancyCalendar();
+        calendar.rebuild(new ReservationDAO().findActive());
+        
+        // Seed the admin dashboard totals
+        DashboardAggregates aggregates = new DashboardAggregates();
+        aggregates.rebuild();
+        
+        // Read-through cache for single-listing lookups, shared by the services that write listings
+        // (with a shared database it expires immediately by default and only coalesces concurrent loads)
+        LruCache<Integer, Listing> listingCache = new LruCache<>(
+                Integer.getInteger("listing.cache.maxSize", 1000),
+                Long.getLong("listing.cache.ttlMs", sharedDatabase ? 0L : 60000L));
+        
+        // Build the in-memory listing search index
+        ListingSearchIndex searchIndex = new ListingSearchIndex();
+        ListingIndexRefresher indexRefresher = new ListingIndexRefresher(searchIndex, listingCache);
+        indexRefresher.rebuild();
+        
+        // Profile lookups are not cached, but concurrent ones for the same user share a query
+        SingleFlight<Integer, User> userLoads = new SingleFlight<>();
+        
+        long statsInterval = Long.getLong("listing.cache.statsLogIntervalMs", 60000L);
+        if (statsInterval > 0) {
+            ScheduledExecutorService statsLogger = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "stats-logger");
+                t.setDaemon(true);
+                return t;
+            });
+            statsLogger.scheduleAtFixedRate(() -> {
+                logger.info("Listing cache: " + listingCache.getStats());
+                logger.info("User lookups: " + userLoads);
+                logger.info("Request scheduler: " + scheduler.getStats());
+                if (pinning != null) {
+                    logger.info("Pinned virtual threads: " + pinning);
+                }
+                logger.info("RMI payload bytes: written=" + CompressingClientSocketFactory.getBytesWritten() +
+                            ", onWire=" + CompressingClientSocketFactory.getBytesOnWire());
+            }, statsInterval, statsInterval, TimeUnit.MILLISECONDS);
+        }
+        
+        // Other instances write to the same database, so periodically pick up their listing writes.
+        // Booked ranges and dashboard totals are read from the database then; the search index has no
+        // such fallback, so a shared database refreshes by default. Each refresh costs one aggregate
+        // query when nothing changed and reloads only changed listings otherwise.
+        long refreshInterval = Long.getLong("state.refreshIntervalMs", sharedDatabase ? 60000L : 0L);
+        if (sharedDatabase && refreshInterval <= 0) {
+            logger.warning("rmi.instances > 1 without state.refreshIntervalMs: text search misses other instances' listings");
+        }
+        if (refreshInterval > 0) {
+            ScheduledExecutorService refresher = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "state-refresh");
+                t.setDaemon(true);
+                return t;
+            });
+            refresher.scheduleWithFixedDelay(() -> {
+                try {
+                    indexRefresher.refresh();
+                    if (!sharedDatabase) {
+                        calendar.rebuild(new ReservationDAO().findActive());
+                        aggregates.rebuild();
+                    }
+                } catch (SQLException | RuntimeException e) {
+                    logger.log(Level.WARNING, "Failed to refresh in-memory state", e);
+                }
+            }, refreshInterval, refreshInterval, TimeUnit.MILLISECONDS);
+        }
         
         // Register Room Service
         RoomServiceImpl roomService = new RoomServiceImpl();
-        String roomUrl = String.format("rmi://%s:1099/RoomService", host);
-        Naming.rebind(roomUrl, roomService);
+        String roomUrl = String.format("rmi://%s:%d/RoomService", host, registryPort);
+        Naming.rebind(roomUrl, export(roomService, scheduler, servicePort, csf, ssf));
         System.out.println("RoomService bound at " + roomUrl);
         
         // Register Listing Service
-        ListingServiceImpl listingService = new ListingServiceImpl();
-        String listingUrl = String.format("rmi://%s:1099/ListingService", host);
-        Naming.rebind(listingUrl, listingService);
+        ListingServiceImpl listingService = new ListingServiceImpl(searchIndex, listingCache, aggregates);
+        String listingUrl = String.format("rmi://%s:%d/ListingService", host, registryPort);
+        Naming.rebind(listingUrl, export(listingService, scheduler, servicePort, csf, ssf));
         System.out.println("ListingService bound at " + listingUrl);
         
         // Register Reservation Service
-        ReservationServiceImpl reservationService = new ReservationServiceImpl();
-        String reservationUrl = String.format("rmi://%s:1099/ReservationService", host);
-        Naming.rebind(reservationUrl, reservationService);
+        ReservationServiceImpl reservationService = new ReservationServiceImpl(calendar, aggregates, sharedDatabase);
+        String reservationUrl = String.format("rmi://%s:%d/ReservationService", host, registryPort);
+        Naming.rebind(reservationUrl, export(reservationService, scheduler, servicePort, csf, ssf));
         System.out.println("ReservationService bound at " + reservationUrl);
         
         // Register User Service
-        UserServiceImpl userService = new UserServiceImpl();
-        String userUrl = String.format("rmi://%s:1099/UserService", host);
-        Naming.rebind(userUrl, userService);
+        UserServiceImpl userService = new UserServiceImpl(searchIndex, listingCache, calendar, aggregates, userLoads);
+        String userUrl = String.format("rmi://%s:%d/UserService", host, registryPort);
+        Naming.rebind(userUrl, export(userService, scheduler, servicePort, csf, ssf));
         System.out.println("UserService bound at " + userUrl);
         
         // Register Host Application Service
-        HostApplicationServiceImpl hostApplicationService = new HostApplicationServiceImpl();
-        String hostAppUrl = String.format("rmi://%s:1099/HostApplicationService", host);
-        Naming.rebind(hostAppUrl, hostApplicationService);
+        HostApplicationServiceImpl hostApplicationService = new HostApplicationServiceImpl(userLoads);
+        String hostAppUrl = String.format("rmi://%s:%d/HostApplicationService", host, registryPort);
+        Naming.rebind(hostAppUrl, export(hostApplicationService, scheduler, servicePort, csf, ssf));
         System.out.println("HostApplicationService bound at " + hostAppUrl);
         
-        System.out.println("\nRMI Server started successfully!");
+        System.out.println("Database pool: " + DBConnection.getPoolStats());
+        System.out.println("\nRMI Server " + instanceId + " started successfully!");
+    }
+    
+    private static Remote export(Remote service, RequestScheduler scheduler, int port,
+                                 RMIClientSocketFactory csf, RMIServerSocketFactory ssf) throws RemoteException {
+        Remote dispatched = ScheduledDispatch.wrap(service, scheduler);
+        exported.add(dispatched);
+        return UnicastRemoteObject.exportObject(dispatched, port, csf, ssf);
     }
 }
@@ -1,30 +1,57 @@
 package com.hotel.rmi;
 
+import com.hotel.rmi.calendar.OccupancyCalendar;
 import com.hotel.rmi.dao.ListingDAO;
 import com.hotel.rmi.dao.ReservationDAO;
+import com.hotel.rmi.stats.DashboardAggregates;
+import com.hotel.rmi.util.KeysetCursor;
+import com.hotel.rmi.util.StripedLocks;
 import com.hotel.shared.exception.AuthorizationException;
+import com.hotel.shared.exception.ConflictException;
 import com.hotel.shared.exception.NotFoundException;
+import com.hotel.shared.exception.ValidationException;
+import com.hotel.shared.model.BookedRange;
+import com.hotel.shared.model.DashboardStats;
 import com.hotel.shared.model.Listing;
 import com.hotel.shared.model.Reservation;
+import com.hotel.shared.model.ReservationPage;
 import com.hotel.shared.service.ReservationService;
 
 import java.rmi.RemoteException;
-import java.rmi.server.UnicastRemoteObject;
+import java.sql.Date;
 import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
-public class ReservationServiceImpl extends UnicastRemoteObject implements ReservationService {
-    private static final long serialVersionUID = 1L;
+public class ReservationServiceImpl implements ReservationService {
     private static final Logger logger = Logger.getLogger(ReservationServiceImpl.class.getName());
+    private static final int MAX_PAGE_SIZE = 500;
     private final ReservationDAO reservationDAO;
     private final ListingDAO listingDAO;
+    private final OccupancyCalendar calendar;
+    private final DashboardAggregates aggregates;
     
-    public ReservationServiceImpl() throws RemoteException {
-        super();
+    // Other instances write the same database, so the calendar and totals here would miss their writes
+    private final boolean sharedDatabase;
+    
+    // Serializes bookings per listing in-process so only one request per listing waits on the MySQL row lock
+    private final StripedLocks bookingLocks = new StripedLocks(Integer.getInteger("reservation.lockStripes", 64));
+    
+    /**
+     * @param sharedDatabase Other rmi-server instances write the same database; booked ranges and
+     *                       dashboard totals are then read from it instead of the in-memory state
+     */
+    public ReservationServiceImpl(OccupancyCalendar calendar, DashboardAggregates aggregates,
+                                  boolean sharedDatabase) throws RemoteException {
         this.reservationDAO = new ReservationDAO();
         this.listingDAO = new ListingDAO();
+        this.calendar = calendar;
+        this.aggregates = aggregates;
+        this.sharedDatabase = sharedDatabase;
     }
     
     @Override
@@ -39,6 +66,18 @@ public class ReservationServiceImpl extends UnicastRemoteObject implements Reser
         }
     }
     
+    @Override
+    public List<Reservation> getReservationsByGuest(int userId) throws RemoteException {
+        try {
+            logger.info("Fetching reservations for guest: " + userId);
+            return reservationDAO.findByGuestId(userId);
+            
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Database error fetching reservations by guest", e);
+            throw new RemoteException("Failed to fetch reservations: " + e.getMessage(), e);
+        }
+    }
+    
     @Override
     public List<Reservation> getAllReservations() throws RemoteException {
         try {
@@ -51,6 +90,31 @@ public class ReservationServiceImpl extends UnicastRemoteObject implements Reser
         }
     }
     
+    @Override
+    public ReservationPage getReservationsPage(String cursor, int limit) throws RemoteException, ValidationException {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        KeysetCursor after = KeysetCursor.decodeTimestamped(cursor);
+        
+        try {
+            // Fetch one extra row to know whether another page exists
+            List<Reservation> reservations = reservationDAO.findPage(after != null ? after.getCreatedAt() : null,
+                    after != null ? after.getId() : 0, pageSize + 1);
+            
+            String nextCursor = null;
+            if (reservations.size() > pageSize) {
+                reservations = new ArrayList<>(reservations.subList(0, pageSize));
+                Reservation last = reservations.get(pageSize - 1);
+                nextCursor = KeysetCursor.encode(last.getCreatedAt(), last.getId());
+            }
+            
+            return new ReservationPage(reservations, nextCursor);
+            
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Database error fetching reservation page", e);
+            throw new RemoteException("Failed to fetch reservations: " + e.getMessage(), e);
+        }
+    }
+    
     @Override
     public List<Reservation> getReservationsByListing(int listingId, int currentUserId) 
             throws RemoteException, AuthorizationException {
@@ -95,16 +159,44 @@ public class ReservationServiceImpl extends UnicastRemoteObject implements Reser
     }
     
     @Override
-    public Reservation createReservation(Reservation reservation) throws RemoteException {
+    public Reservation createReservation(Reservation reservation) throws RemoteException, ValidationException, ConflictException {
         try {
             logger.info("Creating reservation for listing: " + reservation.getListingId());
             
+            if (reservation.getCheckIn() == null || reservation.getCheckOut() == null) {
+                throw new ValidationException("Check-in and check-out dates are required");
+            }
+            if (!reservation.getCheckOut().after(reservation.getCheckIn())) {
+                throw new ValidationException("Check-out date must be after check-in date");
+            }
+            
             // Set default status if not set
             if (reservation.getStatus() == null || reservation.getStatus().isEmpty()) {
                 reservation.setStatus("pending");
             }
             
-            return reservationDAO.create(reservation);
+            // Overlap check and insert run in one transaction holding the listing row lock
+            Reservation created;
+            ReentrantLock lock = bookingLocks.get(reservation.getListingId());
+            lock.lock();
+            aggregates.beginWrite();
+            try {
+                created = reservationDAO.createIfAvailable(reservation);
+                if (created != null) {
+                    if (!"cancelled".equals(created.getStatus())) {
+                        calendar.put(created);
+                    }
+                    aggregates.reservationAdded(created.getStatus(), created.getTotalPrice());
+                }
+            } finally {
+                aggregates.endWrite();
+                lock.unlock();
+            }
+            
+            if (created == null) {
+                throw new ConflictException("These dates are already booked. Please select different dates.");
+            }
+            return created;
             
         } catch (SQLException e) {
             logger.log(Level.SEVERE, "Database error creating reservation", e);
@@ -112,15 +204,76 @@ public class ReservationServiceImpl extends UnicastRemoteObject implements Reser
         }
     }
     
+    @Override
+    public boolean isAvailable(int listingId, Date checkIn, Date checkOut) throws RemoteException, ValidationException {
+        if (checkIn == null || checkOut == null) {
+            throw new ValidationException("Check-in and check-out dates are required");
+        }
+        if (!checkOut.after(checkIn)) {
+            throw new ValidationException("Check-out date must be after check-in date");
+        }
+        
+        try {
+            return !reservationDAO.hasOverlap(listingId, checkIn, checkOut);
+            
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Database error checking availability", e);
+            throw new RemoteException("Failed to check availability: " + e.getMessage(), e);
+        }
+    }
+    
+    @Override
+    public List<BookedRange> getBookedRanges(int listingId, Date from, Date to) throws RemoteException, ValidationException {
+        int fromDay = from != null ? OccupancyCalendar.toEpochDay(from) : Integer.MIN_VALUE;
+        int toDay = to != null ? OccupancyCalendar.toEpochDay(to) : Integer.MAX_VALUE;
+        if (fromDay >= toDay) {
+            throw new ValidationException("End date must be after start date");
+        }
+        
+        OccupancyCalendar source = calendar;
+        if (sharedDatabase) {
+            // Merge this listing's reservations in the window the same way the shared calendar would
+            try {
+                source = new OccupancyCalendar();
+                for (Reservation r : reservationDAO.findActiveByListing(listingId,
+                        from != null ? from : Date.valueOf(LocalDate.of(1970, 1, 1)),
+                        to != null ? to : Date.valueOf(LocalDate.of(9999, 12, 31)))) {
+                    source.put(r);
+                }
+            } catch (SQLException e) {
+                logger.log(Level.SEVERE, "Database error fetching booked ranges", e);
+                throw new RemoteException("Failed to fetch booked ranges: " + e.getMessage(), e);
+            }
+        }
+        
+        List<BookedRange> ranges = new ArrayList<>();
+        source.forEachRange(listingId, fromDay, toDay, (startDay, endDay) ->
+                ranges.add(new BookedRange(OccupancyCalendar.fromEpochDay(startDay), OccupancyCalendar.fromEpochDay(endDay))));
+        return ranges;
+    }
+    
+    @Override
+    public DashboardStats getDashboardStats() throws RemoteException {
+        if (!sharedDatabase) {
+            return aggregates.snapshot();
+        }
+        try {
+            return aggregates.load();
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Database error fetching dashboard stats", e);
+            throw new RemoteException("Failed to fetch dashboard stats: " + e.getMessage(), e);
+        }
+    }
+    
     @Override
     public boolean updateReservationStatus(int reservationId, String newStatus, int currentUserId) 
-            throws RemoteException, AuthorizationException, NotFoundException {
+            throws RemoteException, AuthorizationException, NotFoundException, ValidationException {
         try {
             logger.info("Updating reservation " + reservationId + " status to: " + newStatus + " by user: " + currentUserId);
             
             // Validate status
             if (!newStatus.equals("confirmed") && !newStatus.equals("cancelled") && !newStatus.equals("pending")) {
-                throw new RemoteException("Invalid status. Must be: pending, confirmed, or cancelled");
+                throw new ValidationException("Invalid status. Must be: pending, confirmed, or cancelled");
             }
             
             // Check if reservation exists
@@ -136,8 +289,27 @@ public class ReservationServiceImpl extends UnicastRemoteObject implements Reser
                 throw new AuthorizationException("You do not have permission to update this reservation");
             }
             
-            // Update status
-            boolean updated = reservationDAO.updateStatus(reservationId, newStatus);
+            // Update status; the booking lock keeps the calendar in the same order as the database
+            boolean updated;
+            ReentrantLock lock = bookingLocks.get(reservation.getListingId());
+            lock.lock();
+            aggregates.beginWrite();
+            try {
+                // Re-read under the lock; the update only applies if no other instance changed it since
+                Reservation current = reservationDAO.findById(reservationId);
+                updated = current != null && reservationDAO.updateStatus(reservationId, current.getStatus(), newStatus);
+                if (updated) {
+                    if ("cancelled".equals(newStatus)) {
+                        calendar.remove(reservationId);
+                    } else {
+                        calendar.put(current);
+                    }
+                    aggregates.reservationStatusChanged(current.getStatus(), newStatus, current.getTotalPrice());
+                }
+            } finally {
+                aggregates.endWrite();
+                lock.unlock();
+            }
             if (!updated) {
                 throw new RemoteException("Failed to update reservation status");
             }
@@ -169,8 +341,22 @@ public class ReservationServiceImpl extends UnicastRemoteObject implements Reser
                 throw new AuthorizationException("You do not have permission to cancel this reservation");
             }
             
-            // Delete reservation
-            boolean deleted = reservationDAO.delete(reservationId);
+            // Delete reservation; the booking lock keeps the calendar in the same order as the database
+            boolean deleted;
+            ReentrantLock lock = bookingLocks.get(reservation.getListingId());
+            lock.lock();
+            aggregates.beginWrite();
+            try {
+                Reservation current = reservationDAO.findById(reservationId);
+                deleted = current != null && reservationDAO.delete(reservationId, current.getStatus());
+                if (deleted) {
+                    calendar.remove(reservationId);
+                    aggregates.reservationRemoved(current.getStatus(), current.getTotalPrice());
+                }
+            } finally {
+                aggregates.endWrite();
+                lock.unlock();
+            }
             if (!deleted) {
                 throw new RemoteException("Failed to cancel reservation");
             }
@@ -202,7 +388,21 @@ public class ReservationServiceImpl extends UnicastRemoteObject implements Reser
             }
             
             // Update status to cancelled instead of deleting
-            boolean updated = reservationDAO.updateStatus(reservationId, "cancelled");
+            boolean updated;
+            ReentrantLock lock = bookingLocks.get(reservation.getListingId());
+            lock.lock();
+            aggregates.beginWrite();
+            try {
+                Reservation current = reservationDAO.findById(reservationId);
+                updated = current != null && reservationDAO.updateStatus(reservationId, current.getStatus(), "cancelled");
+                if (updated) {
+                    calendar.remove(reservationId);
+                    aggregates.reservationStatusChanged(current.getStatus(), "cancelled", current.getTotalPrice());
+                }
+            } finally {
+                aggregates.endWrite();
+                lock.unlock();
+            }
             if (!updated) {
                 throw new RemoteException("Failed to cancel reservation");
             }
@@ -220,7 +420,26 @@ public class ReservationServiceImpl extends UnicastRemoteObject implements Reser
         try {
             logger.info("Deleting reservation: " + reservationId);
             
-            boolean deleted = reservationDAO.delete(reservationId);
+            Reservation existing = reservationDAO.findById(reservationId);
+            if (existing == null) {
+                throw new RemoteException("Failed to delete reservation");
+            }
+            
+            boolean deleted;
+            ReentrantLock lock = bookingLocks.get(existing.getListingId());
+            lock.lock();
+            aggregates.beginWrite();
+            try {
+                Reservation current = reservationDAO.findById(reservationId);
+                deleted = current != null && reservationDAO.delete(reservationId, current.getStatus());
+                if (deleted) {
+                    calendar.remove(reservationId);
+                    aggregates.reservationRemoved(current.getStatus(), current.getTotalPrice());
+                }
+            } finally {
+                aggregates.endWrite();
+                lock.unlock();
+            }
             if (!deleted) {
                 throw new RemoteException("Failed to delete reservation");
             }
@@ -4,7 +4,6 @@ import com.hotel.shared.model.Room;
 import com.hotel.shared.service.RoomService;
 import com.hotel.rmi.dao.RoomDAO;
 
-import java.rmi.server.UnicastRemoteObject;
 import java.rmi.RemoteException;
 import java.util.List;
 import java.util.logging.Level;
@@ -14,13 +13,12 @@ import java.util.logging.Logger;
  * RoomServiceImpl - RMI-exposed service implementation.
  * This class delegates JDBC work to RoomDAO so database access is contained and testable.
  */
-public class RoomServiceImpl extends UnicastRemoteObject implements RoomService {
+public class RoomServiceImpl implements RoomService {
 
     private static final Logger LOGGER = Logger.getLogger(RoomServiceImpl.class.getName());
     private final RoomDAO roomDAO;
 
     public RoomServiceImpl() throws RemoteException {
-        super();
         this.roomDAO = new RoomDAO();
     }
 
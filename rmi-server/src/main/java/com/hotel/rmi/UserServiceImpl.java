@@ -1,32 +1,57 @@
 package com.hotel.rmi;
 
+import com.hotel.rmi.cache.LruCache;
+import com.hotel.rmi.cache.SingleFlight;
+import com.hotel.rmi.calendar.OccupancyCalendar;
 import com.hotel.rmi.dao.UserDAO;
 import com.hotel.rmi.dao.ListingDAO;
 import com.hotel.rmi.dao.ReservationDAO;
+import com.hotel.rmi.search.ListingSearchIndex;
+import com.hotel.rmi.stats.DashboardAggregates;
+import com.hotel.rmi.util.KeysetCursor;
 import com.hotel.shared.exception.AuthorizationException;
 import com.hotel.shared.exception.NotFoundException;
+import com.hotel.shared.exception.ValidationException;
+import com.hotel.shared.model.Listing;
 import com.hotel.shared.model.User;
+import com.hotel.shared.model.UserPage;
 import com.hotel.shared.service.UserService;
 
 import java.rmi.RemoteException;
-import java.rmi.server.UnicastRemoteObject;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
-public class UserServiceImpl extends UnicastRemoteObject implements UserService {
-    private static final long serialVersionUID = 1L;
+public class UserServiceImpl implements UserService {
     private static final Logger logger = Logger.getLogger(UserServiceImpl.class.getName());
+    private static final int MAX_PAGE_SIZE = 500;
     private final UserDAO userDAO;
     private final ListingDAO listingDAO;
     private final ReservationDAO reservationDAO;
+    private final ListingSearchIndex searchIndex;
+    private final LruCache<Integer, Listing> listingCache;
+    private final OccupancyCalendar calendar;
+    private final DashboardAggregates aggregates;
+    private final SingleFlight<Integer, User> userLoads;
     
-    public UserServiceImpl() throws RemoteException {
-        super();
+    public UserServiceImpl(ListingSearchIndex searchIndex, LruCache<Integer, Listing> listingCache,
+                           OccupancyCalendar calendar, DashboardAggregates aggregates,
+                           SingleFlight<Integer, User> userLoads) throws RemoteException {
         this.userDAO = new UserDAO();
         this.listingDAO = new ListingDAO();
         this.reservationDAO = new ReservationDAO();
+        this.searchIndex = searchIndex;
+        this.listingCache = listingCache;
+        this.calendar = calendar;
+        this.aggregates = aggregates;
+        this.userLoads = userLoads;
     }
     
     @Override
@@ -81,13 +106,19 @@ public class UserServiceImpl extends UnicastRemoteObject implements UserService
         try {
             logger.info("Getting user: " + userId);
             
-            User user = userDAO.findById(userId);
+            // Concurrent lookups of one user share the query and the returned object
+            User user = userLoads.get(userId, () -> {
+                User loaded = userDAO.findById(userId);
+                if (loaded != null) {
+                    // Don't return password in response
+                    loaded.setPassword(null);
+                }
+                return loaded;
+            });
             if (user == null) {
                 throw new NotFoundException("User not found with ID: " + userId);
             }
             
-            // Don't return password in response
-            user.setPassword(null);
             return user;
             
         } catch (SQLException e) {
@@ -98,6 +129,23 @@ public class UserServiceImpl extends UnicastRemoteObject implements UserService
         }
     }
     
+    @Override
+    public Map<Integer, User> getUsersByIds(Collection<Integer> userIds) throws RemoteException {
+        try {
+            // Deduplicated; the DAO splits the IN list into bounded batches
+            Set<Integer> ids = new LinkedHashSet<>(userIds);
+            Map<Integer, User> users = new HashMap<>();
+            for (User user : userDAO.findByIds(ids)) {
+                users.put(user.getId(), user);
+            }
+            return users;
+            
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Database error getting users", e);
+            throw new RemoteException("Failed to get users: " + e.getMessage(), e);
+        }
+    }
+    
     @Override
     public User updateUserRole(int userId, String role) throws RemoteException {
         try {
@@ -109,6 +157,7 @@ public class UserServiceImpl extends UnicastRemoteObject implements UserService
             }
             
             boolean updated = userDAO.updateRole(userId, role);
+            userLoads.forget(userId);
             if (!updated) {
                 throw new NotFoundException("User not found with ID: " + userId);
             }
@@ -142,6 +191,29 @@ public class UserServiceImpl extends UnicastRemoteObject implements UserService
         }
     }
     
+    @Override
+    public UserPage getUsersPage(String cursor, int limit) throws RemoteException, ValidationException {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        KeysetCursor after = KeysetCursor.decodeId(cursor);
+        
+        try {
+            // Fetch one extra row to know whether another page exists; passwords are not selected
+            List<User> users = userDAO.findPage(after != null ? after.getId() : 0, pageSize + 1);
+            
+            String nextCursor = null;
+            if (users.size() > pageSize) {
+                users = new ArrayList<>(users.subList(0, pageSize));
+                nextCursor = KeysetCursor.encode(users.get(pageSize - 1).getId());
+            }
+            
+            return new UserPage(users, nextCursor);
+            
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Database error getting user page", e);
+            throw new RemoteException("Failed to get users: " + e.getMessage(), e);
+        }
+    }
+    
     @Override
     public boolean banUser(int userId) throws RemoteException {
         try {
@@ -152,9 +224,16 @@ public class UserServiceImpl extends UnicastRemoteObject implements UserService
             
             // Delete all user's listings
             listingDAO.deleteByUserId(userId);
+            searchIndex.removeByOwner(userId);
+            listingCache.invalidateIf(listing -> listing.getUserId() == userId);
+            
+            // Bulk deletes touch many listings, so reload the calendar and totals rather than patch them
+            calendar.rebuild(reservationDAO.findActive());
+            aggregates.rebuild();
             
             // Ban the user
             boolean banned = userDAO.ban(userId);
+            userLoads.forget(userId);
             
             if (banned) {
                 logger.info("User banned and all their data removed: " + userId);
@@ -180,6 +259,7 @@ public class UserServiceImpl extends UnicastRemoteObject implements UserService
             }
             
             boolean updated = userDAO.updateProfile(userId, name, email);
+            userLoads.forget(userId);
             if (!updated) {
                 throw new NotFoundException("User not found with ID: " + userId);
             }
@@ -200,6 +280,7 @@ public class UserServiceImpl extends UnicastRemoteObject implements UserService
             logger.info("Changing password for user: " + userId);
             
             boolean changed = userDAO.changePassword(userId, currentPassword, newPassword);
+            userLoads.forget(userId);
             if (!changed) {
                 throw new RemoteException("Current password is incorrect");
             }
@@ -0,0 +1,48 @@
+package com.hotel.rmi.cache;
+
+/**
+ * Point-in-time snapshot of cache counters
+ */
+public class CacheStats {
+    private final int size;
+    private final int maxSize;
+    private final long hits;
+    private final long misses;
+    private final long evictions;
+    private final long expirations;
+    private final long invalidations;
+    private final long coalesced;
+    
+    public CacheStats(int size, int maxSize, long hits, long misses,
+                      long evictions, long expirations, long invalidations, long coalesced) {
+        this.size = size;
+        this.maxSize = maxSize;
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.expirations = expirations;
+        this.invalidations = invalidations;
+        this.coalesced = coalesced;
+    }
+    
+    public int getSize() { return size; }
+    public int getMaxSize() { return maxSize; }
+    public long getHits() { return hits; }
+    public long getMisses() { return misses; }
+    public long getEvictions() { return evictions; }
+    public long getExpirations() { return expirations; }
+    public long getInvalidations() { return invalidations; }
+    public long getCoalesced() { return coalesced; }
+    
+    public double getHitRate() {
+        long total = hits + misses;
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+    
+    @Override
+    public String toString() {
+        return "CacheStats{size=" + size + "/" + maxSize + ", hits=" + hits + ", misses=" + misses +
+               ", hitRate=" + String.format("%.2f", getHitRate()) + ", evictions=" + evictions +
+               ", expirations=" + expirations + ", invalidations=" + invalidations + ", coalesced=" + coalesced + "}";
+    }
+}
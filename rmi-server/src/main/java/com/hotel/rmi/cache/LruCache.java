@@ -0,0 +1,167 @@
+package com.hotel.rmi.cache;
+
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+
+/**
+ * Bounded in-process cache with LRU eviction and a time-to-live per entry.
+ *
+ * Read-through callers should take {@link #generation()} before loading from
+ * the database and hand it back to {@link #put(Object, Object, long)}: if any
+ * invalidation happened in between, the loaded value may already be stale and
+ * is not cached. {@link #getOrLoad(Object, SingleFlight.Loader)} does both and
+ * also lets concurrent misses on one key share a single load. Values are
+ * stored as-is, so callers must not mutate them.
+ */
+public class LruCache<K, V> {
+    private final int maxSize;
+    private final long ttlNanos;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<K, Entry<V>> entries;
+    private final SingleFlight<K, V> loads = new SingleFlight<>();
+    
+    private long generation;
+    
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong expirations = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+    
+    public LruCache(int maxSize, long ttlMillis) {
+        this.maxSize = Math.max(1, maxSize);
+        this.ttlNanos = ttlMillis * 1_000_000L;
+        // Access order, so iteration starts at the least recently used entry
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+    }
+    
+    /**
+     * Cached value, or null on a miss or expired entry
+     */
+    public V get(K key) {
+        lock.lock();
+        try {
+            Entry<V> entry = entries.get(key);
+            if (entry == null) {
+                misses.incrementAndGet();
+                return null;
+            }
+            if (System.nanoTime() - entry.loadedAt > ttlNanos) {
+                entries.remove(key);
+                expirations.incrementAndGet();
+                misses.incrementAndGet();
+                return null;
+            }
+            hits.incrementAndGet();
+            return entry.value;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Cached value, or the result of the loader on a miss. Concurrent misses on
+     * the same key wait for one load; null results are returned but not cached.
+     */
+    public V getOrLoad(K key, SingleFlight.Loader<V> loader) throws SQLException {
+        V cached = get(key);
+        if (cached != null) {
+            return cached;
+        }
+        return loads.get(key, () -> {
+            long loadedAtGeneration = generation();
+            V value = loader.load();
+            if (value != null) {
+                put(key, value, loadedAtGeneration);
+            }
+            return value;
+        });
+    }
+    
+    /**
+     * Current invalidation generation, to be taken before a read-through load
+     */
+    public long generation() {
+        lock.lock();
+        try {
+            return generation;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Cache a value loaded at the given generation, unless an invalidation happened since
+     */
+    public void put(K key, V value, long loadedAtGeneration) {
+        lock.lock();
+        try {
+            if (loadedAtGeneration != generation) {
+                return;
+            }
+            entries.put(key, new Entry<>(value, System.nanoTime()));
+            if (entries.size() > maxSize) {
+                Iterator<K> eldest = entries.keySet().iterator();
+                eldest.next();
+                eldest.remove();
+                evictions.incrementAndGet();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    public void invalidate(K key) {
+        lock.lock();
+        try {
+            generation++;
+            entries.remove(key);
+            invalidations.incrementAndGet();
+        } finally {
+            lock.unlock();
+        }
+        loads.forget(key);
+    }
+    
+    /**
+     * Drop every entry whose value matches (e.g. all listings of a banned host)
+     */
+    public void invalidateIf(Predicate<V> predicate) {
+        lock.lock();
+        try {
+            generation++;
+            entries.values().removeIf(entry -> predicate.test(entry.value));
+            invalidations.incrementAndGet();
+        } finally {
+            lock.unlock();
+        }
+        loads.forgetAll();
+    }
+    
+    public CacheStats getStats() {
+        int size;
+        lock.lock();
+        try {
+            size = entries.size();
+        } finally {
+            lock.unlock();
+        }
+        return new CacheStats(size, maxSize, hits.get(), misses.get(),
+                evictions.get(), expirations.get(), invalidations.get(), loads.getCoalesced());
+    }
+    
+    private static final class Entry<V> {
+        private final V value;
+        private final long loadedAt;
+        
+        Entry(V value, long loadedAt) {
+            this.value = value;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.hotel.rmi.cache;
+
+import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Collapses concurrent loads of the same key into one.
+ *
+ * The first caller for a key runs the loader; callers arriving while that load
+ * is in flight wait for it and share its result (or its exception) instead of
+ * issuing the same query again. Nothing is kept once the load finishes, so this
+ * only absorbs bursts, it is not a cache. Writers call {@link #forget(Object)}
+ * so that readers arriving after a write start a fresh load rather than join
+ * one that may have read the old row.
+ */
+public class SingleFlight<K, V> {
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    
+    private final AtomicLong loads = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    
+    public interface Loader<V> {
+        V load() throws SQLException;
+    }
+    
+    /**
+     * Result of the in-flight load for this key, starting one if there is none
+     */
+    public V get(K key, Loader<V> loader) throws SQLException {
+        CompletableFuture<V> mine = new CompletableFuture<>();
+        CompletableFuture<V> running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            coalesced.incrementAndGet();
+            return await(running);
+        }
+        
+        loads.incrementAndGet();
+        try {
+            V value = loader.load();
+            mine.complete(value);
+            return value;
+        } catch (SQLException | RuntimeException | Error e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+    
+    /**
+     * Let later callers for this key start their own load
+     */
+    public void forget(K key) {
+        inFlight.remove(key);
+    }
+    
+    public void forgetAll() {
+        inFlight.clear();
+    }
+    
+    public long getLoads() {
+        return loads.get();
+    }
+    
+    public long getCoalesced() {
+        return coalesced.get();
+    }
+    
+    private static <V> V await(CompletableFuture<V> running) throws SQLException {
+        try {
+            return running.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a concurrent load", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof SQLException) {
+                throw (SQLException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new SQLException(cause);
+        }
+    }
+    
+    @Override
+    public String toString() {
+        return "SingleFlight{loads=" + loads.get() + ", coalesced=" + coalesced.get() + "}";
+    }
+}
@@ -0,0 +1,233 @@
+package com.hotel.rmi.calendar;
+
+import com.hotel.shared.model.Reservation;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+/**
+ * In-memory booked-date calendar for every listing.
+ *
+ * Holds the pending and confirmed reservations of each listing as epoch-day
+ * intervals [checkIn, checkOut). Every listing has an immutable snapshot with
+ * its raw reservations plus the same intervals merged (overlapping and
+ * adjacent ranges joined) and sorted, so a window query is a binary search
+ * followed by a scan over only the ranges that intersect the window.
+ *
+ * Writes copy the listing's snapshot under a lock and publish the new one;
+ * reads never lock. ReservationServiceImpl keeps it current on every
+ * reservation write; bulk deletes call {@link #rebuild(Collection)}.
+ */
+public class OccupancyCalendar {
+    private static final Logger logger = Logger.getLogger(OccupancyCalendar.class.getName());
+    
+    private final Map<Integer, Occupancy> byListing = new ConcurrentHashMap<>();
+    private final Map<Integer, Integer> listingByReservation = new ConcurrentHashMap<>();
+    private final Object writeLock = new Object();
+    
+    /**
+     * Callback for {@link #forEachRange}; days are epoch days, end exclusive
+     */
+    public interface RangeConsumer {
+        void accept(int startDay, int endDay);
+    }
+    
+    public static int toEpochDay(Date date) {
+        return (int) date.toLocalDate().toEpochDay();
+    }
+    
+    public static Date fromEpochDay(int day) {
+        return Date.valueOf(LocalDate.ofEpochDay(day));
+    }
+    
+    /**
+     * Replace the whole calendar with the given pending/confirmed reservations
+     */
+    public void rebuild(Collection<Reservation> reservations) {
+        synchronized (writeLock) {
+            // Accumulate raw arrays per listing first so each snapshot is merged once
+            Map<Integer, int[][]> raw = new HashMap<>();
+            Map<Integer, Integer> counts = new HashMap<>();
+            for (Reservation r : reservations) {
+                counts.merge(r.getListingId(), 1, Integer::sum);
+            }
+            for (Map.Entry<Integer, Integer> entry : counts.entrySet()) {
+                int n = entry.getValue();
+                raw.put(entry.getKey(), new int[][] { new int[n], new int[n], new int[n], new int[1] });
+            }
+            
+            listingByReservation.clear();
+            for (Reservation r : reservations) {
+                int[][] arrays = raw.get(r.getListingId());
+                int i = arrays[3][0]++;
+                arrays[0][i] = r.getId();
+                arrays[1][i] = toEpochDay(r.getCheckIn());
+                arrays[2][i] = toEpochDay(r.getCheckOut());
+                listingByReservation.put(r.getId(), r.getListingId());
+            }
+            
+            byListing.keySet().retainAll(raw.keySet());
+            for (Map.Entry<Integer, int[][]> entry : raw.entrySet()) {
+                int[][] arrays = entry.getValue();
+                byListing.put(entry.getKey(), new Occupancy(arrays[0], arrays[1], arrays[2]));
+            }
+        }
+        logger.info("Occupancy calendar built: " + reservations.size() + " reservations over " + byListing.size() + " listings");
+    }
+    
+    /**
+     * Record a reservation that blocks its dates (replaces any earlier entry for the same reservation)
+     */
+    public void put(Reservation reservation) {
+        int listingId = reservation.getListingId();
+        int startDay = toEpochDay(reservation.getCheckIn());
+        int endDay = toEpochDay(reservation.getCheckOut());
+        synchronized (writeLock) {
+            removeLocked(reservation.getId());
+            Occupancy current = byListing.getOrDefault(listingId, Occupancy.EMPTY);
+            byListing.put(listingId, current.with(reservation.getId(), startDay, endDay));
+            listingByReservation.put(reservation.getId(), listingId);
+        }
+    }
+    
+    /**
+     * Stop blocking a reservation's dates (cancelled or deleted)
+     */
+    public void remove(int reservationId) {
+        synchronized (writeLock) {
+            removeLocked(reservationId);
+        }
+    }
+    
+    public void removeListing(int listingId) {
+        synchronized (writeLock) {
+            Occupancy removed = byListing.remove(listingId);
+            if (removed != null) {
+                for (int i = 0; i < removed.ids.length; i++) {
+                    listingByReservation.remove(removed.ids[i]);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Visit the merged booked ranges of a listing that intersect [fromDay, toDay)
+     */
+    public void forEachRange(int listingId, int fromDay, int toDay, RangeConsumer consumer) {
+        Occupancy occupancy = byListing.get(listingId);
+        if (occupancy == null) {
+            return;
+        }
+        int[] starts = occupancy.mergedStarts;
+        int[] ends = occupancy.mergedEnds;
+        
+        // Merged ranges are disjoint and sorted, so ends are sorted too: find the first end after fromDay
+        int low = 0;
+        int high = ends.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (ends[mid] <= fromDay) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        for (int i = low; i < starts.length && starts[i] < toDay; i++) {
+            consumer.accept(starts[i], ends[i]);
+        }
+    }
+    
+    private void removeLocked(int reservationId) {
+        Integer listingId = listingByReservation.remove(reservationId);
+        if (listingId == null) {
+            return;
+        }
+        Occupancy current = byListing.get(listingId);
+        if (current == null) {
+            return;
+        }
+        Occupancy updated = current.without(reservationId);
+        if (updated.ids.length == 0) {
+            byListing.remove(listingId);
+        } else {
+            byListing.put(listingId, updated);
+        }
+    }
+    
+    /**
+     * Immutable per-listing snapshot: raw reservations plus merged ranges
+     */
+    private static final class Occupancy {
+        static final Occupancy EMPTY = new Occupancy(new int[0], new int[0], new int[0]);
+        
+        final int[] ids;
+        final int[] starts;
+        final int[] ends;
+        final int[] mergedStarts;
+        final int[] mergedEnds;
+        
+        Occupancy(int[] ids, int[] starts, int[] ends) {
+            this.ids = ids;
+            this.starts = starts;
+            this.ends = ends;
+            
+            // Merge a start-sorted copy; overlapping and touching ranges collapse into one
+            long[] sorted = new long[ids.length];
+            for (int i = 0; i < ids.length; i++) {
+                sorted[i] = ((long) starts[i] << 32) | (ends[i] & 0xFFFFFFFFL);
+            }
+            Arrays.sort(sorted);
+            int[] ms = new int[sorted.length];
+            int[] me = new int[sorted.length];
+            int count = 0;
+            for (long packed : sorted) {
+                int start = (int) (packed >> 32);
+                int end = (int) packed;
+                if (count > 0 && start <= me[count - 1]) {
+                    me[count - 1] = Math.max(me[count - 1], end);
+                } else {
+                    ms[count] = start;
+                    me[count] = end;
+                    count++;
+                }
+            }
+            this.mergedStarts = Arrays.copyOf(ms, count);
+            this.mergedEnds = Arrays.copyOf(me, count);
+        }
+        
+        Occupancy with(int reservationId, int startDay, int endDay) {
+            int n = ids.length;
+            int[] newIds = Arrays.copyOf(ids, n + 1);
+            int[] newStarts = Arrays.copyOf(starts, n + 1);
+            int[] newEnds = Arrays.copyOf(ends, n + 1);
+            newIds[n] = reservationId;
+            newStarts[n] = startDay;
+            newEnds[n] = endDay;
+            return new Occupancy(newIds, newStarts, newEnds);
+        }
+        
+        Occupancy without(int reservationId) {
+            for (int i = 0; i < ids.length; i++) {
+                if (ids[i] == reservationId) {
+                    int n = ids.length - 1;
+                    int[] newIds = Arrays.copyOf(ids, n);
+                    int[] newStarts = Arrays.copyOf(starts, n);
+                    int[] newEnds = Arrays.copyOf(ends, n);
+                    if (i < n) {
+                        newIds[i] = ids[n];
+                        newStarts[i] = starts[n];
+                        newEnds[i] = ends[n];
+                    }
+                    return new Occupancy(newIds, newStarts, newEnds);
+                }
+            }
+            return this;
+        }
+    }
+}
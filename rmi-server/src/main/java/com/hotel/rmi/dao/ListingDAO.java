@@ -2,16 +2,29 @@ package com.hotel.rmi.dao;
 
 import com.hotel.rmi.database.DBConnection;
 import com.hotel.shared.model.Listing;
+import com.hotel.shared.model.ListingSearchCriteria;
 import java.math.BigDecimal;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 public class ListingDAO {
     private static final Logger logger = Logger.getLogger(ListingDAO.class.getName());
     
+    // Upper bound on bind parameters per IN (...) when bulk-loading listings or images
+    private static final int IMAGE_BATCH_SIZE = 500;
+    
+    // Uploads stored by content end in /uploads/images/ab/cd/{sha256}.{ext}
+    private static final Pattern CONTENT_ADDRESSED_IMAGE = Pattern.compile(
+            "/uploads/images/[0-9a-f]{2}/[0-9a-f]{2}/([0-9a-f]{64})\\.[A-Za-z]+$");
+    
     /**
      * Create a new listing
      */
@@ -56,7 +69,8 @@ public class ListingDAO {
      */
     public boolean update(Listing listing, int currentUserId) throws SQLException {
         String sql = "UPDATE listings SET title = ?, description = ?, address = ?, city = ?, " +
-                     "price_per_night = ?, max_guests = ?, beds = ?, bathrooms = ? WHERE id = ? AND user_id = ?";
+                     "price_per_night = ?, max_guests = ?, beds = ?, bathrooms = ?, version = version + 1 " +
+                     "WHERE id = ? AND user_id = ?";
         
         try (Connection conn = DBConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
@@ -85,16 +99,17 @@ public class ListingDAO {
     }
     
     /**
-     * Update listing status (admin only - no ownership check)
+     * Update listing status (admin only - no ownership check), only if it is still oldStatus
      */
-    public boolean updateStatus(int listingId, String status) throws SQLException {
-        String sql = "UPDATE listings SET status = ? WHERE id = ?";
+    public boolean updateStatus(int listingId, String oldStatus, String status) throws SQLException {
+        String sql = "UPDATE listings SET status = ?, version = version + 1 WHERE id = ? AND status = ?";
         
         try (Connection conn = DBConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
             stmt.setString(1, status);
             stmt.setInt(2, listingId);
+            stmt.setString(3, oldStatus);
             
             int affectedRows = stmt.executeUpdate();
             
@@ -193,21 +208,25 @@ public class ListingDAO {
     public Listing findById(int listingId) throws SQLException {
         String sql = "SELECT * FROM listings WHERE id = ?";
         
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
-            stmt.setInt(1, listingId);
+        try (Connection conn = DBConnection.getConnection()) {
+            Listing listing = null;
             
-            try (ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) {
-                    Listing listing = mapResultSetToListing(rs);
-                    // Load images
-                    listing.setImageUrls(findImagesByListingId(listingId));
-                    return listing;
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setInt(1, listingId);
+                
+                try (ResultSet rs = stmt.executeQuery()) {
+                    if (rs.next()) {
+                        listing = mapResultSetToListing(rs);
+                    }
                 }
             }
+            
+            // Load images on the same connection
+            if (listing != null) {
+                loadImages(conn, Collections.singletonList(listing));
+            }
+            return listing;
         }
-        return null;
     }
     
     /**
@@ -224,11 +243,11 @@ public class ListingDAO {
             
             try (ResultSet rs = stmt.executeQuery()) {
                 while (rs.next()) {
-                    Listing listing = mapResultSetToListing(rs);
-                    listing.setImageUrls(findImagesByListingId(listing.getId()));
-                    listings.add(listing);
+                    listings.add(mapResultSetToListing(rs));
                 }
             }
+            
+            loadImages(conn, listings);
         }
         
         logger.info("Found " + listings.size() + " listings for host: " + hostId);
@@ -242,36 +261,319 @@ public class ListingDAO {
         String sql = "SELECT * FROM listings ORDER BY created_at DESC";
         List<Listing> listings = new ArrayList<>();
         
+        try (Connection conn = DBConnection.getConnection()) {
+            try (PreparedStatement stmt = conn.prepareStatement(sql);
+                 ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    listings.add(mapResultSetToListing(rs));
+                }
+            }
+            
+            loadImages(conn, listings);
+        }
+        
+        logger.info("Found " + listings.size() + " total listings");
+        return listings;
+    }
+    
+    /**
+     * Version of the whole catalog. Inserts raise MAX(id), deletes lower COUNT(*) and every
+     * other listing write increments a version column, so any change moves at least one part.
+     */
+    public long catalogVersion() throws SQLException {
+        String sql = "SELECT COUNT(*), COALESCE(MAX(id), 0), COALESCE(SUM(version), 0) FROM listings";
+        
         try (Connection conn = DBConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql);
              ResultSet rs = stmt.executeQuery()) {
+            rs.next();
+            return versionOf(rs.getLong(1), rs.getLong(2), rs.getLong(3));
+        }
+    }
+    
+    /**
+     * Version of one listing and its host's profile, or null if the listing does not exist
+     */
+    public Long listingVersion(int listingId) throws SQLException {
+        String sql = "SELECT l.version, u.version FROM listings l JOIN users u ON u.id = l.user_id WHERE l.id = ?";
+        
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            stmt.setInt(1, listingId);
             
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? versionOf(rs.getLong(1), rs.getLong(2)) : null;
+            }
+        }
+    }
+    
+    /**
+     * Version of a host's profile and the set of their listings (0 for an unknown host)
+     */
+    public long hostVersion(int hostId) throws SQLException {
+        String sql = "SELECT u.version, COUNT(l.id), COALESCE(MAX(l.id), 0), COALESCE(SUM(l.version), 0) " +
+                     "FROM users u LEFT JOIN listings l ON l.user_id = u.id " +
+                     "WHERE u.id = ? GROUP BY u.id, u.version";
+        
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            stmt.setInt(1, hostId);
+            
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? versionOf(rs.getLong(1), rs.getLong(2), rs.getLong(3), rs.getLong(4)) : 0L;
+            }
+        }
+    }
+    
+    /**
+     * Fold version parts into one opaque value (SplitMix64 finalizer steps)
+     */
+    private static long versionOf(long... parts) {
+        long h = 0x9E3779B97F4A7C15L;
+        for (long part : parts) {
+            h = (h ^ part) * 0xBF58476D1CE4E5B9L;
+            h ^= h >>> 31;
+        }
+        return h;
+    }
+    
+    /**
+     * Version column of every listing, keyed by ID; narrow enough to diff against what was last loaded
+     */
+    public Map<Integer, Integer> findVersions() throws SQLException {
+        String sql = "SELECT id, version FROM listings";
+        Map<Integer, Integer> versions = new HashMap<>();
+        
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
             while (rs.next()) {
-                Listing listing = mapResultSetToListing(rs);
-                listing.setImageUrls(findImagesByListingId(listing.getId()));
-                listings.add(listing);
+                versions.put(rs.getInt(1), rs.getInt(2));
             }
         }
         
-        logger.info("Found " + listings.size() + " total listings");
+        return versions;
+    }
+    
+    /**
+     * Find listings of any status by ID, in no particular order (missing IDs are skipped)
+     */
+    public List<Listing> findByIds(List<Integer> listingIds) throws SQLException {
+        List<Listing> listings = new ArrayList<>();
+        if (listingIds.isEmpty()) {
+            return listings;
+        }
+        
+        try (Connection conn = DBConnection.getConnection()) {
+            for (int from = 0; from < listingIds.size(); from += IMAGE_BATCH_SIZE) {
+                List<Integer> batch = listingIds.subList(from, Math.min(from + IMAGE_BATCH_SIZE, listingIds.size()));
+                StringBuilder sql = new StringBuilder("SELECT * FROM listings WHERE id IN (");
+                for (int i = 0; i < batch.size(); i++) {
+                    sql.append(i == 0 ? "?" : ", ?");
+                }
+                sql.append(")");
+                
+                try (PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+                    for (int i = 0; i < batch.size(); i++) {
+                        stmt.setInt(i + 1, batch.get(i));
+                    }
+                    
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            listings.add(mapResultSetToListing(rs));
+                        }
+                    }
+                }
+            }
+            
+            loadImages(conn, listings);
+        }
+        
         return listings;
     }
     
+    /**
+     * Find approved listings by ID, returned in the order of the given IDs (missing or unapproved IDs are skipped)
+     */
+    public List<Listing> findApprovedByIds(List<Integer> listingIds) throws SQLException {
+        List<Listing> listings = new ArrayList<>();
+        if (listingIds.isEmpty()) {
+            return listings;
+        }
+        
+        StringBuilder sql = new StringBuilder("SELECT * FROM listings WHERE id IN (");
+        for (int i = 0; i < listingIds.size(); i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+        }
+        sql.append(") AND status = 'approved'");
+        
+        Map<Integer, Listing> byId = new HashMap<>();
+        
+        try (Connection conn = DBConnection.getConnection()) {
+            try (PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+                for (int i = 0; i < listingIds.size(); i++) {
+                    stmt.setInt(i + 1, listingIds.get(i));
+                }
+                
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        Listing listing = mapResultSetToListing(rs);
+                        byId.put(listing.getId(), listing);
+                    }
+                }
+            }
+            
+            for (Integer id : listingIds) {
+                Listing listing = byId.get(id);
+                if (listing != null) {
+                    listings.add(listing);
+                }
+            }
+            loadImages(conn, listings);
+        }
+        
+        return listings;
+    }
+    
+    /**
+     * Find one page of listings, newest first, using a keyset cursor on (created_at, id).
+     * Pass a null cursor for the first page. Served by idx_created_id.
+     */
+    public List<Listing> findPage(Timestamp afterCreatedAt, int afterId, int limit) throws SQLException {
+        String sql = afterCreatedAt == null
+                ? "SELECT * FROM listings ORDER BY created_at DESC, id DESC LIMIT ?"
+                : "SELECT * FROM listings WHERE created_at < ? OR (created_at = ? AND id < ?) " +
+                  "ORDER BY created_at DESC, id DESC LIMIT ?";
+        List<Listing> listings = new ArrayList<>();
+        
+        try (Connection conn = DBConnection.getConnection()) {
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                int i = 1;
+                if (afterCreatedAt != null) {
+                    stmt.setTimestamp(i++, afterCreatedAt);
+                    stmt.setTimestamp(i++, afterCreatedAt);
+                    stmt.setInt(i++, afterId);
+                }
+                stmt.setInt(i, limit);
+                
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        listings.add(mapResultSetToListing(rs));
+                    }
+                }
+            }
+            
+            loadImages(conn, listings);
+        }
+        
+        return listings;
+    }
+    
+    /**
+     * Search listings with all filters applied in SQL.
+     * Backed by idx_status_city_price / idx_status_price.
+     */
+    public List<Listing> search(ListingSearchCriteria criteria) throws SQLException {
+        StringBuilder sql = new StringBuilder("SELECT * FROM listings WHERE 1 = 1");
+        List<Object> params = new ArrayList<>();
+        
+        if (criteria.getStatus() != null) {
+            sql.append(" AND status = ?");
+            params.add(criteria.getStatus());
+        }
+        if (criteria.getCity() != null && !criteria.getCity().trim().isEmpty()) {
+            sql.append(" AND city LIKE ? ESCAPE '!'");
+            params.add(escapeLike(criteria.getCity().trim()) + "%");
+        }
+        if (criteria.getMinPrice() != null) {
+            sql.append(" AND price_per_night >= ?");
+            params.add(criteria.getMinPrice());
+        }
+        if (criteria.getMaxPrice() != null) {
+            sql.append(" AND price_per_night <= ?");
+            params.add(criteria.getMaxPrice());
+        }
+        if (criteria.getGuests() != null) {
+            sql.append(" AND max_guests >= ?");
+            params.add(criteria.getGuests());
+        }
+        if (criteria.getBeds() != null) {
+            sql.append(" AND beds >= ?");
+            params.add(criteria.getBeds());
+        }
+        if (criteria.getBathrooms() != null) {
+            sql.append(" AND bathrooms >= ?");
+            params.add(criteria.getBathrooms());
+        }
+        
+        // Sort columns are whitelisted, never taken from the request
+        if (ListingSearchCriteria.SORT_PRICE_ASC.equals(criteria.getSort())) {
+            sql.append(" ORDER BY price_per_night ASC, id ASC");
+        } else if (ListingSearchCriteria.SORT_PRICE_DESC.equals(criteria.getSort())) {
+            sql.append(" ORDER BY price_per_night DESC, id DESC");
+        } else {
+            sql.append(" ORDER BY created_at DESC, id DESC");
+        }
+        sql.append(" LIMIT ?");
+        params.add(criteria.getLimit());
+        
+        List<Listing> listings = new ArrayList<>();
+        
+        try (Connection conn = DBConnection.getConnection()) {
+            try (PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+                for (int i = 0; i < params.size(); i++) {
+                    stmt.setObject(i + 1, params.get(i));
+                }
+                
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        listings.add(mapResultSetToListing(rs));
+                    }
+                }
+            }
+            
+            loadImages(conn, listings);
+        }
+        
+        logger.info("Search " + criteria + " matched " + listings.size() + " listings");
+        return listings;
+    }
+    
+    private static String escapeLike(String value) {
+        return value.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+    }
+    
     /**
      * Add an image to a listing
      */
     public void addImage(int listingId, String imageUrl) throws SQLException {
-        String sql = "INSERT INTO listing_images (listing_id, image_url) VALUES (?, ?)";
+        String sql = "INSERT INTO listing_images (listing_id, image_url, content_hash) VALUES (?, ?, ?)";
         
         try (Connection conn = DBConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
             stmt.setInt(1, listingId);
             stmt.setString(2, imageUrl);
+            // Kept in its own indexed column so uploads can be reference-counted without scanning URLs
+            Matcher m = CONTENT_ADDRESSED_IMAGE.matcher(imageUrl);
+            if (m.find()) {
+                stmt.setString(3, m.group(1));
+            } else {
+                stmt.setNull(3, Types.CHAR);
+            }
             stmt.executeUpdate();
             
             logger.info("Added image to listing: " + listingId);
         }
+        
+        // After the insert, so a version read in between can only be older than the images
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement("UPDATE listings SET version = version + 1 WHERE id = ?")) {
+            stmt.setInt(1, listingId);
+            stmt.executeUpdate();
+        }
     }
     
     /**
@@ -296,6 +598,88 @@ public class ListingDAO {
         return images;
     }
     
+    /**
+     * Load images for a list of listings with one IN (...) query per batch
+     * instead of one query per listing
+     */
+    private void loadImages(Connection conn, List<Listing> listings) throws SQLException {
+        if (listings.isEmpty()) {
+            return;
+        }
+        
+        Map<Integer, Listing> byId = new HashMap<>();
+        for (Listing listing : listings) {
+            listing.setImageUrls(new ArrayList<>());
+            byId.put(listing.getId(), listing);
+        }
+        
+        List<Integer> ids = new ArrayList<>(byId.keySet());
+        for (int from = 0; from < ids.size(); from += IMAGE_BATCH_SIZE) {
+            List<Integer> batch = ids.subList(from, Math.min(from + IMAGE_BATCH_SIZE, ids.size()));
+            
+            StringBuilder sql = new StringBuilder("SELECT listing_id, image_url FROM listing_images WHERE listing_id IN (");
+            for (int i = 0; i < batch.size(); i++) {
+                sql.append(i == 0 ? "?" : ", ?");
+            }
+            sql.append(") ORDER BY listing_id, id");
+            
+            try (PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+                for (int i = 0; i < batch.size(); i++) {
+                    stmt.setInt(i + 1, batch.get(i));
+                }
+                
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        Listing listing = byId.get(rs.getInt("listing_id"));
+                        if (listing != null) {
+                            listing.getImageUrls().add(rs.getString("image_url"));
+                        }
+                    }
+                }
+            }
+        }
+    }
+    
+    /**
+     * Count listing images per content hash; hashes with no images are returned with 0
+     */
+    public Map<String, Integer> countImageReferences(List<String> contentHashes) throws SQLException {
+        Map<String, Integer> counts = new HashMap<>();
+        for (String hash : contentHashes) {
+            counts.put(hash, 0);
+        }
+        if (counts.isEmpty()) {
+            return counts;
+        }
+        
+        List<String> hashes = new ArrayList<>(counts.keySet());
+        try (Connection conn = DBConnection.getConnection()) {
+            for (int from = 0; from < hashes.size(); from += IMAGE_BATCH_SIZE) {
+                List<String> batch = hashes.subList(from, Math.min(from + IMAGE_BATCH_SIZE, hashes.size()));
+                
+                StringBuilder sql = new StringBuilder(
+                        "SELECT content_hash, COUNT(*) AS refs FROM listing_images WHERE content_hash IN (");
+                for (int i = 0; i < batch.size(); i++) {
+                    sql.append(i == 0 ? "?" : ", ?");
+                }
+                sql.append(") GROUP BY content_hash");
+                
+                try (PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+                    for (int i = 0; i < batch.size(); i++) {
+                        stmt.setString(i + 1, batch.get(i));
+                    }
+                    
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            counts.put(rs.getString("content_hash"), rs.getInt("refs"));
+                        }
+                    }
+                }
+            }
+        }
+        return counts;
+    }
+    
     /**
      * Delete all listings for a user (for banning)
      */
@@ -372,7 +756,7 @@ public class ListingDAO {
         try {
             int bedsValue = rs.getInt("beds");
             listing.setBeds(bedsValue);
-            logger.info("Read from DB - listing " + rs.getInt("id") + ": beds=" + bedsValue);
+            logger.fine("Read from DB - listing " + rs.getInt("id") + ": beds=" + bedsValue);
         } catch (SQLException e) {
             logger.warning("beds column not found, using default: " + e.getMessage());
             listing.setBeds(1); // Default value
@@ -381,7 +765,7 @@ public class ListingDAO {
         try {
             int bathroomsValue = rs.getInt("bathrooms");
             listing.setBathrooms(bathroomsValue);
-            logger.info("Read from DB - listing " + rs.getInt("id") + ": bathrooms=" + bathroomsValue);
+            logger.fine("Read from DB - listing " + rs.getInt("id") + ": bathrooms=" + bathroomsValue);
         } catch (SQLException e) {
             logger.warning("bathrooms column not found, using default: " + e.getMessage());
             listing.setBathrooms(1); // Default value
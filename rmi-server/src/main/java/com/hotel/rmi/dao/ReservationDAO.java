@@ -6,6 +6,7 @@ import java.math.BigDecimal;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 public class ReservationDAO {
@@ -15,11 +16,18 @@ public class ReservationDAO {
      * Create a new reservation
      */
     public Reservation create(Reservation reservation) throws SQLException {
+        try (Connection conn = DBConnection.getConnection()) {
+            insert(conn, reservation);
+            logger.info("Created reservation: " + reservation);
+            return reservation;
+        }
+    }
+    
+    private void insert(Connection conn, Reservation reservation) throws SQLException {
         String sql = "INSERT INTO reservations (listing_id, user_id, guest_phone, check_in, check_out, total_price, status, guest_notes) " +
                      "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
         
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+        try (PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             
             stmt.setInt(1, reservation.getListingId());
             stmt.setInt(2, reservation.getUserId());
@@ -42,9 +50,67 @@ public class ReservationDAO {
                     throw new SQLException("Creating reservation failed, no ID obtained.");
                 }
             }
+        }
+    }
+    
+    /**
+     * Create a reservation only if the dates are still free.
+     * 
+     * The listing row is locked (SELECT ... FOR UPDATE) for the duration of the
+     * transaction, so concurrent bookings of the same listing are serialized in
+     * MySQL and the overlap check and insert happen atomically.
+     * 
+     * @return the created reservation, or null if the dates overlap an active reservation
+     */
+    public Reservation createIfAvailable(Reservation reservation) throws SQLException {
+        Connection conn = null;
+        try {
+            conn = DBConnection.getConnection();
+            conn.setAutoCommit(false); // Start transaction
+            
+            // Lock the listing so overlapping bookings for it queue up behind this one
+            String lockSql = "SELECT id FROM listings WHERE id = ? FOR UPDATE";
+            try (PreparedStatement lockStmt = conn.prepareStatement(lockSql)) {
+                lockStmt.setInt(1, reservation.getListingId());
+                
+                try (ResultSet rs = lockStmt.executeQuery()) {
+                    if (!rs.next()) {
+                        conn.rollback();
+                        throw new SQLException("Listing not found with ID: " + reservation.getListingId());
+                    }
+                }
+            }
+            
+            if (hasOverlap(conn, reservation.getListingId(), reservation.getCheckIn(), reservation.getCheckOut())) {
+                conn.rollback();
+                logger.info("Rejected overlapping reservation for listing: " + reservation.getListingId());
+                return null;
+            }
+            
+            insert(conn, reservation);
+            conn.commit();
             
             logger.info("Created reservation: " + reservation);
             return reservation;
+            
+        } catch (SQLException e) {
+            if (conn != null) {
+                try {
+                    conn.rollback();
+                } catch (SQLException rollbackEx) {
+                    logger.log(Level.SEVERE, "Error rolling back transaction", rollbackEx);
+                }
+            }
+            throw e;
+        } finally {
+            if (conn != null) {
+                try {
+                    conn.setAutoCommit(true);
+                    conn.close();
+                } catch (SQLException closeEx) {
+                    logger.log(Level.SEVERE, "Error closing connection", closeEx);
+                }
+            }
         }
     }
     
@@ -104,6 +170,84 @@ public class ReservationDAO {
         return reservations;
     }
     
+    /**
+     * Find all reservations made by a guest, with the listing's title, city and address
+     */
+    public List<Reservation> findByGuestId(int userId) throws SQLException {
+        String sql = "SELECT r.id, r.listing_id, r.user_id, r.guest_phone, r.check_in, r.check_out, " +
+                     "r.total_price, r.status, r.guest_notes, r.created_at, " +
+                     "l.title as listing_title, l.city as listing_city, l.address as listing_address " +
+                     "FROM reservations r " +
+                     "LEFT JOIN listings l ON r.listing_id = l.id " +
+                     "WHERE r.user_id = ? " +
+                     "ORDER BY r.created_at DESC";
+        
+        List<Reservation> reservations = new ArrayList<>();
+        
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            stmt.setInt(1, userId);
+            
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    Reservation reservation = mapResultSetToReservation(rs);
+                    reservation.setListingCity(rs.getString("listing_city"));
+                    reservation.setListingAddress(rs.getString("listing_address"));
+                    reservations.add(reservation);
+                }
+            }
+        }
+        
+        return reservations;
+    }
+    
+    /**
+     * Find every pending or confirmed reservation (dates only, no joins) to seed the occupancy calendar
+     */
+    public List<Reservation> findActive() throws SQLException {
+        String sql = "SELECT id, listing_id, user_id, check_in, check_out, total_price, status, created_at " +
+                     "FROM reservations WHERE status IN ('pending', 'confirmed')";
+        List<Reservation> reservations = new ArrayList<>();
+        
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+            
+            while (rs.next()) {
+                reservations.add(mapResultSetToReservation(rs));
+            }
+        }
+        
+        return reservations;
+    }
+    
+    /**
+     * Find the pending or confirmed reservations of one listing (dates only) that overlap [from, to)
+     */
+    public List<Reservation> findActiveByListing(int listingId, Date from, Date to) throws SQLException {
+        String sql = "SELECT id, listing_id, user_id, check_in, check_out, total_price, status, created_at " +
+                     "FROM reservations WHERE listing_id = ? AND status IN ('pending', 'confirmed') " +
+                     "AND check_in < ? AND check_out > ?";
+        List<Reservation> reservations = new ArrayList<>();
+        
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            stmt.setInt(1, listingId);
+            stmt.setDate(2, to);
+            stmt.setDate(3, from);
+            
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    reservations.add(mapResultSetToReservation(rs));
+                }
+            }
+        }
+        
+        return reservations;
+    }
+    
     /**
      * Find all reservations for listings owned by a host
      */
@@ -136,16 +280,45 @@ public class ReservationDAO {
     }
     
     /**
-     * Update reservation status (host can confirm/cancel)
+     * Check whether any active (pending or confirmed) reservation for a listing
+     * overlaps the given stay. Served by idx_listing_status_dates.
+     */
+    public boolean hasOverlap(int listingId, Date checkIn, Date checkOut) throws SQLException {
+        try (Connection conn = DBConnection.getConnection()) {
+            return hasOverlap(conn, listingId, checkIn, checkOut);
+        }
+    }
+    
+    private boolean hasOverlap(Connection conn, int listingId, Date checkIn, Date checkOut) throws SQLException {
+        String sql = "SELECT 1 FROM reservations " +
+                     "WHERE listing_id = ? AND status IN ('pending', 'confirmed') " +
+                     "AND check_in < ? AND check_out > ? " +
+                     "LIMIT 1";
+        
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            stmt.setInt(1, listingId);
+            stmt.setDate(2, checkOut);
+            stmt.setDate(3, checkIn);
+            
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+    
+    /**
+     * Update reservation status (host can confirm/cancel), only if it is still oldStatus
      */
-    public boolean updateStatus(int reservationId, String newStatus) throws SQLException {
-        String sql = "UPDATE reservations SET status = ? WHERE id = ?";
+    public boolean updateStatus(int reservationId, String oldStatus, String newStatus) throws SQLException {
+        String sql = "UPDATE reservations SET status = ? WHERE id = ? AND status = ?";
         
         try (Connection conn = DBConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
             stmt.setString(1, newStatus);
             stmt.setInt(2, reservationId);
+            stmt.setString(3, oldStatus);
             
             int affectedRows = stmt.executeUpdate();
             
@@ -184,15 +357,51 @@ public class ReservationDAO {
     }
     
     /**
-     * Delete a reservation
+     * One page of all reservations (admin), newest first, after the given (created_at, id) key
+     */
+    public List<Reservation> findPage(Timestamp afterCreatedAt, int afterId, int limit) throws SQLException {
+        String sql = "SELECT r.id, r.listing_id, r.user_id, r.guest_phone, r.check_in, r.check_out, " +
+                     "r.total_price, r.status, r.guest_notes, r.created_at, " +
+                     "l.title as listing_title, u.name as guest_name, u.email as guest_email " +
+                     "FROM reservations r " +
+                     "JOIN listings l ON r.listing_id = l.id " +
+                     "JOIN users u ON r.user_id = u.id " +
+                     (afterCreatedAt == null ? "" : "WHERE r.created_at < ? OR (r.created_at = ? AND r.id < ?) ") +
+                     "ORDER BY r.created_at DESC, r.id DESC LIMIT ?";
+        List<Reservation> reservations = new ArrayList<>();
+        
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            int i = 1;
+            if (afterCreatedAt != null) {
+                stmt.setTimestamp(i++, afterCreatedAt);
+                stmt.setTimestamp(i++, afterCreatedAt);
+                stmt.setInt(i++, afterId);
+            }
+            stmt.setInt(i, limit);
+            
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    reservations.add(mapResultSetToReservation(rs));
+                }
+            }
+        }
+        
+        return reservations;
+    }
+    
+    /**
+     * Delete a reservation, only if its status is still the one given
      */
-    public boolean delete(int reservationId) throws SQLException {
-        String sql = "DELETE FROM reservations WHERE id = ?";
+    public boolean delete(int reservationId, String status) throws SQLException {
+        String sql = "DELETE FROM reservations WHERE id = ? AND status = ?";
         
         try (Connection conn = DBConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
             stmt.setInt(1, reservationId);
+            stmt.setString(2, status);
             
             int affectedRows = stmt.executeUpdate();
             
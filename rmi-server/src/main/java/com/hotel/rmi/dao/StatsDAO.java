@@ -0,0 +1,56 @@
+package com.hotel.rmi.dao;
+
+import com.hotel.rmi.database.DBConnection;
+import java.math.BigDecimal;
+import java.sql.*;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Grouped counts used to seed the dashboard aggregates
+ */
+public class StatsDAO {
+    
+    /**
+     * Number of listings per status
+     */
+    public Map<String, Integer> countListingsByStatus() throws SQLException {
+        return countByStatus("SELECT status, COUNT(*) FROM listings GROUP BY status");
+    }
+    
+    /**
+     * Number of reservations per status
+     */
+    public Map<String, Integer> countReservationsByStatus() throws SQLException {
+        return countByStatus("SELECT status, COUNT(*) FROM reservations GROUP BY status");
+    }
+    
+    /**
+     * Sum of total_price over confirmed reservations
+     */
+    public BigDecimal sumConfirmedRevenue() throws SQLException {
+        String sql = "SELECT COALESCE(SUM(total_price), 0) FROM reservations WHERE status = 'confirmed'";
+        
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+            
+            return rs.next() ? rs.getBigDecimal(1) : BigDecimal.ZERO;
+        }
+    }
+    
+    private Map<String, Integer> countByStatus(String sql) throws SQLException {
+        Map<String, Integer> counts = new HashMap<>();
+        
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+            
+            while (rs.next()) {
+                counts.put(rs.getString(1), rs.getInt(2));
+            }
+        }
+        
+        return counts;
+    }
+}
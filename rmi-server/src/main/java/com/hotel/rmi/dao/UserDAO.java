@@ -8,6 +8,9 @@ import java.util.logging.Logger;
 public class UserDAO {
     private static final Logger logger = Logger.getLogger(UserDAO.class.getName());
     
+    // Upper bound on bind parameters per IN (...) when bulk-loading users
+    private static final int ID_BATCH_SIZE = 500;
+    
     /**
      * Create a new user (registration)
      */
@@ -122,6 +125,48 @@ public class UserDAO {
         return null;
     }
     
+    /**
+     * Find users by ID, ID_BATCH_SIZE per query on one connection (passwords are not loaded)
+     */
+    public java.util.List<User> findByIds(java.util.Collection<Integer> userIds) throws SQLException {
+        java.util.List<User> users = new java.util.ArrayList<>();
+        if (userIds.isEmpty()) {
+            return users;
+        }
+        
+        java.util.List<Integer> ids = new java.util.ArrayList<>(userIds);
+        try (Connection conn = DBConnection.getConnection()) {
+            for (int from = 0; from < ids.size(); from += ID_BATCH_SIZE) {
+                java.util.List<Integer> batch = ids.subList(from, Math.min(from + ID_BATCH_SIZE, ids.size()));
+                StringBuilder sql = new StringBuilder("SELECT id, name, email, role, created_at FROM users WHERE id IN (");
+                for (int i = 0; i < batch.size(); i++) {
+                    sql.append(i == 0 ? "?" : ", ?");
+                }
+                sql.append(")");
+                
+                try (PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+                    for (int i = 0; i < batch.size(); i++) {
+                        stmt.setInt(i + 1, batch.get(i));
+                    }
+                    
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            User user = new User();
+                            user.setId(rs.getInt("id"));
+                            user.setName(rs.getString("name"));
+                            user.setEmail(rs.getString("email"));
+                            user.setRole(rs.getString("role"));
+                            user.setCreatedAt(rs.getTimestamp("created_at"));
+                            users.add(user);
+                        }
+                    }
+                }
+            }
+        }
+        
+        return users;
+    }
+    
     /**
      * Update user role (for become host feature)
      */
@@ -169,11 +214,40 @@ public class UserDAO {
         return users;
     }
     
+    /**
+     * One page of all users (admin only), in id order, after the given id
+     */
+    public java.util.List<User> findPage(int afterId, int limit) throws SQLException {
+        String sql = "SELECT id, name, email, role, created_at FROM users WHERE id > ? ORDER BY id LIMIT ?";
+        java.util.List<User> users = new java.util.ArrayList<>();
+        
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            stmt.setInt(1, afterId);
+            stmt.setInt(2, limit);
+            
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    User user = new User();
+                    user.setId(rs.getInt("id"));
+                    user.setName(rs.getString("name"));
+                    user.setEmail(rs.getString("email"));
+                    user.setRole(rs.getString("role"));
+                    user.setCreatedAt(rs.getTimestamp("created_at"));
+                    users.add(user);
+                }
+            }
+        }
+        
+        return users;
+    }
+    
     /**
      * Ban a user by setting banned flag or deleting
      */
     public boolean ban(int userId) throws SQLException {
-        String sql = "UPDATE users SET role = 'banned' WHERE id = ?";
+        String sql = "UPDATE users SET role = 'banned', version = version + 1 WHERE id = ?";
         
         try (Connection conn = DBConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
@@ -193,7 +267,7 @@ public class UserDAO {
      * Update user profile (name and email)
      */
     public boolean updateProfile(int userId, String name, String email) throws SQLException {
-        String sql = "UPDATE users SET name = ?, email = ? WHERE id = ?";
+        String sql = "UPDATE users SET name = ?, email = ?, version = version + 1 WHERE id = ?";
         
         try (Connection conn = DBConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
@@ -0,0 +1,440 @@
+package com.hotel.rmi.database;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Bounded JDBC connection pool.
+ *
+ * Connections handed out are proxies whose close() returns the physical
+ * connection to the pool, so DAOs keep using try-with-resources unchanged.
+ * Idle connections are validated on borrow, evicted after idleTimeout down to
+ * minIdle, and connections held longer than leakDetectionThreshold are logged
+ * together with the stack trace of the borrower.
+ */
+public class ConnectionPool {
+    private static final Logger logger = Logger.getLogger(ConnectionPool.class.getName());
+
+    // Connections returned this recently are trusted without a validation round-trip
+    private static final long VALIDATION_BYPASS_MS = 500;
+
+    private final String url;
+    private final String user;
+    private final String password;
+    private final int minIdle;
+    private final int maxSize;
+    private final long borrowTimeoutMs;
+    private final long idleTimeoutMs;
+    private final long leakDetectionThresholdMs;
+    private final int validationTimeoutSeconds;
+
+    private final ReentrantLock lock = new ReentrantLock(true);
+    private final Condition available = lock.newCondition();
+    private final Deque<PooledConnection> idle = new ArrayDeque<>();
+    private final Set<PooledConnection> borrowed = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final ScheduledExecutorService maintenance;
+
+    // Guarded by lock
+    private int total;
+    private int waiters;
+    private boolean closed;
+    private long borrows;
+    private long borrowTimeouts;
+    private long borrowNanosTotal;
+    private long borrowNanosMax;
+    private long created;
+    private long destroyed;
+    private long validationFailures;
+    private long leaksDetected;
+
+    public ConnectionPool(String url, String user, String password, int minIdle, int maxSize,
+                          long borrowTimeoutMs, long idleTimeoutMs, long leakDetectionThresholdMs,
+                          int validationTimeoutSeconds, long maintenanceIntervalMs, long statsLogIntervalMs) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize must be positive");
+        }
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.minIdle = Math.max(0, Math.min(minIdle, maxSize));
+        this.maxSize = maxSize;
+        this.borrowTimeoutMs = borrowTimeoutMs;
+        this.idleTimeoutMs = idleTimeoutMs;
+        this.leakDetectionThresholdMs = leakDetectionThresholdMs;
+        this.validationTimeoutSeconds = validationTimeoutSeconds;
+
+        this.maintenance = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "db-pool-maintenance");
+            t.setDaemon(true);
+            return t;
+        });
+        maintenance.scheduleWithFixedDelay(this::runMaintenance,
+                maintenanceIntervalMs, maintenanceIntervalMs, TimeUnit.MILLISECONDS);
+        if (statsLogIntervalMs > 0) {
+            maintenance.scheduleAtFixedRate(() -> logger.info("Connection pool: " + getStats()),
+                    statsLogIntervalMs, statsLogIntervalMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Borrow a connection, waiting up to borrowTimeoutMs when the pool is exhausted
+     */
+    public Connection getConnection() throws SQLException {
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(borrowTimeoutMs);
+
+        while (true) {
+            PooledConnection candidate = null;
+            boolean createNew = false;
+
+            lock.lock();
+            try {
+                while (true) {
+                    if (closed) {
+                        throw new SQLException("Connection pool is closed");
+                    }
+                    candidate = idle.pollFirst();
+                    if (candidate != null) {
+                        break;
+                    }
+                    if (total < maxSize) {
+                        total++; // reserve the slot, connect outside the lock
+                        createNew = true;
+                        break;
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        borrowTimeouts++;
+                        throw new SQLTimeoutException("Timed out after " + borrowTimeoutMs +
+                                "ms waiting for a database connection (active=" + borrowed.size() +
+                                ", max=" + maxSize + ", waiters=" + waiters + ")");
+                    }
+                    waiters++;
+                    try {
+                        available.awaitNanos(remaining);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new SQLException("Interrupted while waiting for a database connection", e);
+                    } finally {
+                        waiters--;
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+
+            if (createNew) {
+                try {
+                    candidate = new PooledConnection(DriverManager.getConnection(url, user, password));
+                } catch (SQLException e) {
+                    lock.lock();
+                    try {
+                        total--;
+                        available.signal();
+                    } finally {
+                        lock.unlock();
+                    }
+                    throw e;
+                }
+                lock.lock();
+                try {
+                    created++;
+                } finally {
+                    lock.unlock();
+                }
+            } else if (!isUsable(candidate)) {
+                destroy(candidate, "failed validation");
+                lock.lock();
+                try {
+                    validationFailures++;
+                } finally {
+                    lock.unlock();
+                }
+                continue;
+            }
+
+            return checkOut(candidate, start);
+        }
+    }
+
+    private Connection checkOut(PooledConnection pooled, long startNanos) {
+        long elapsed = System.nanoTime() - startNanos;
+        pooled.borrowedAt = System.currentTimeMillis();
+        pooled.leakReported = false;
+        pooled.borrowTrace = leakDetectionThresholdMs > 0 ? new Throwable("Connection borrowed here") : null;
+
+        lock.lock();
+        try {
+            borrowed.add(pooled);
+            borrows++;
+            borrowNanosTotal += elapsed;
+            borrowNanosMax = Math.max(borrowNanosMax, elapsed);
+        } finally {
+            lock.unlock();
+        }
+        return pooled.newHandle();
+    }
+
+    private boolean isUsable(PooledConnection pooled) {
+        if (System.currentTimeMillis() - pooled.lastReturned < VALIDATION_BYPASS_MS) {
+            return true;
+        }
+        try {
+            return pooled.physical.isValid(validationTimeoutSeconds);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Return a connection to the pool, resetting any per-session state the borrower changed
+     */
+    private void release(PooledConnection pooled) {
+        boolean healthy = true;
+        try {
+            Connection conn = pooled.physical;
+            if (conn.isClosed()) {
+                healthy = false;
+            } else {
+                if (!conn.getAutoCommit()) {
+                    conn.rollback();
+                    conn.setAutoCommit(true);
+                }
+                if (conn.getTransactionIsolation() != pooled.defaultIsolation) {
+                    conn.setTransactionIsolation(pooled.defaultIsolation);
+                }
+                conn.clearWarnings();
+            }
+        } catch (SQLException e) {
+            logger.log(Level.WARNING, "Discarding connection that could not be reset", e);
+            healthy = false;
+        }
+
+        lock.lock();
+        try {
+            borrowed.remove(pooled);
+            pooled.borrowTrace = null;
+            if (healthy && !closed) {
+                pooled.lastReturned = System.currentTimeMillis();
+                idle.addFirst(pooled);
+                available.signal();
+                return;
+            }
+        } finally {
+            lock.unlock();
+        }
+        destroy(pooled, healthy ? "pool closed" : "broken");
+    }
+
+    private void destroy(PooledConnection pooled, String reason) {
+        try {
+            pooled.physical.close();
+        } catch (SQLException e) {
+            logger.log(Level.FINE, "Error closing pooled connection", e);
+        }
+        lock.lock();
+        try {
+            total--;
+            destroyed++;
+            available.signal();
+        } finally {
+            lock.unlock();
+        }
+        logger.fine("Closed pooled connection (" + reason + ")");
+    }
+
+    /**
+     * Evict idle connections, top up to minIdle and report suspected leaks
+     */
+    private void runMaintenance() {
+        try {
+            long now = System.currentTimeMillis();
+            List<PooledConnection> evicted = new ArrayList<>();
+            int missing;
+
+            lock.lock();
+            try {
+                if (closed) {
+                    return;
+                }
+                Iterator<PooledConnection> it = idle.descendingIterator();
+                while (it.hasNext() && total - evicted.size() > minIdle) {
+                    PooledConnection pooled = it.next();
+                    if (now - pooled.lastReturned > idleTimeoutMs) {
+                        it.remove();
+                        evicted.add(pooled);
+                    }
+                }
+
+                if (leakDetectionThresholdMs > 0) {
+                    for (PooledConnection pooled : borrowed) {
+                        if (!pooled.leakReported && now - pooled.borrowedAt > leakDetectionThresholdMs) {
+                            pooled.leakReported = true;
+                            leaksDetected++;
+                            logger.log(Level.WARNING, "Possible connection leak: connection held for " +
+                                    (now - pooled.borrowedAt) + "ms", pooled.borrowTrace);
+                        }
+                    }
+                }
+
+                missing = Math.max(0, minIdle - (total - evicted.size()));
+                total += missing; // reserve
+            } finally {
+                lock.unlock();
+            }
+
+            for (PooledConnection pooled : evicted) {
+                destroy(pooled, "idle timeout");
+            }
+
+            for (int i = 0; i < missing; i++) {
+                try {
+                    PooledConnection pooled = new PooledConnection(DriverManager.getConnection(url, user, password));
+                    lock.lock();
+                    try {
+                        created++;
+                        pooled.lastReturned = System.currentTimeMillis();
+                        idle.addLast(pooled);
+                        available.signal();
+                    } finally {
+                        lock.unlock();
+                    }
+                } catch (SQLException e) {
+                    lock.lock();
+                    try {
+                        total -= missing - i;
+                    } finally {
+                        lock.unlock();
+                    }
+                    logger.log(Level.WARNING, "Could not pre-fill connection pool", e);
+                    break;
+                }
+            }
+        } catch (RuntimeException e) {
+            logger.log(Level.SEVERE, "Connection pool maintenance failed", e);
+        }
+    }
+
+    public PoolStats getStats() {
+        lock.lock();
+        try {
+            long avgMicros = borrows == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(borrowNanosTotal / borrows);
+            return new PoolStats(borrowed.size(), idle.size(), total, maxSize, waiters,
+                    borrows, borrowTimeouts, avgMicros, TimeUnit.NANOSECONDS.toMicros(borrowNanosMax),
+                    created, destroyed, validationFailures, leaksDetected);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Close idle connections and stop accepting borrows; borrowed connections are closed on return
+     */
+    public void shutdown() {
+        List<PooledConnection> toClose;
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            toClose = new ArrayList<>(idle);
+            idle.clear();
+            available.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        maintenance.shutdownNow();
+        for (PooledConnection pooled : toClose) {
+            destroy(pooled, "pool closed");
+        }
+        logger.info("Connection pool shut down: " + getStats());
+    }
+
+    /**
+     * A physical connection plus its bookkeeping
+     */
+    private final class PooledConnection {
+        private final Connection physical;
+        private final int defaultIsolation;
+        private volatile long lastReturned;
+        private volatile long borrowedAt;
+        private volatile boolean leakReported;
+        private volatile Throwable borrowTrace;
+
+        PooledConnection(Connection physical) throws SQLException {
+            this.physical = physical;
+            this.defaultIsolation = physical.getTransactionIsolation();
+            this.lastReturned = System.currentTimeMillis();
+        }
+
+        Connection newHandle() {
+            return (Connection) Proxy.newProxyInstance(
+                    Connection.class.getClassLoader(),
+                    new Class<?>[] { Connection.class },
+                    new Handle(this));
+        }
+    }
+
+    /**
+     * Logical connection handed to callers; close() releases instead of closing
+     */
+    private final class Handle implements InvocationHandler {
+        private final PooledConnection pooled;
+        private boolean released;
+
+        Handle(PooledConnection pooled) {
+            this.pooled = pooled;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!released) {
+                        released = true;
+                        release(pooled);
+                    }
+                    return null;
+                case "isClosed":
+                    return released || pooled.physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + pooled.physical + "]";
+                default:
+                    if (released) {
+                        throw new SQLException("Connection has already been returned to the pool");
+                    }
+                    try {
+                        return method.invoke(pooled.physical, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+            }
+        }
+    }
+}
@@ -1,21 +1,75 @@
 package com.hotel.rmi.database;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
 
+/**
+ * Entry point for all DAO database access.
+ *
+ * Connections come from a shared bounded pool. Pool settings can be overridden
+ * with system properties, e.g. -Ddb.pool.maxSize=20:
+ *   db.url, db.user, db.password,
+ *   db.pool.minIdle, db.pool.maxSize, db.pool.borrowTimeoutMs, db.pool.idleTimeoutMs,
+ *   db.pool.leakDetectionMs (0 disables), db.pool.validationTimeoutSec,
+ *   db.pool.maintenanceIntervalMs, db.pool.statsLogIntervalMs (0 disables)
+ */
 public class DBConnection {
 
     private static final String URL = "jdbc:mysql://localhost:3306/hotel_db";
     private static final String USER = "root";        // your MySQL user
     private static final String PASS = "";            // your MySQL password
 
+    private static volatile ConnectionPool pool;
+
     public static Connection getConnection() throws SQLException {
+        return getPool().getConnection();
+    }
+
+    /**
+     * Current pool counters (active, idle, waiters, borrow latency, ...)
+     */
+    public static PoolStats getPoolStats() {
+        return getPool().getStats();
+    }
+
+    public static void shutdown() {
+        ConnectionPool current = pool;
+        if (current != null) {
+            current.shutdown();
+        }
+    }
+
+    private static ConnectionPool getPool() {
+        ConnectionPool current = pool;
+        if (current == null) {
+            synchronized (DBConnection.class) {
+                current = pool;
+                if (current == null) {
+                    current = createPool();
+                    pool = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    private static ConnectionPool createPool() {
         try {
             Class.forName("com.mysql.cj.jdbc.Driver");
         } catch (ClassNotFoundException e) {
-            throw new SQLException("MySQL JDBC driver not found", e);
+            throw new IllegalStateException("MySQL JDBC driver not found", e);
         }
-        return DriverManager.getConnection(URL, USER, PASS);
+        return new ConnectionPool(
+                System.getProperty("db.url", URL),
+                System.getProperty("db.user", USER),
+                System.getProperty("db.password", PASS),
+                Integer.getInteger("db.pool.minIdle", 2),
+                Integer.getInteger("db.pool.maxSize", 10),
+                Long.getLong("db.pool.borrowTimeoutMs", 5000L),
+                Long.getLong("db.pool.idleTimeoutMs", 300000L),
+                Long.getLong("db.pool.leakDetectionMs", 30000L),
+                Integer.getInteger("db.pool.validationTimeoutSec", 2),
+                Long.getLong("db.pool.maintenanceIntervalMs", 10000L),
+                Long.getLong("db.pool.statsLogIntervalMs", 60000L));
     }
 }
@@ -0,0 +1,61 @@
+package com.hotel.rmi.database;
+
+/**
+ * Point-in-time snapshot of the connection pool counters
+ */
+public class PoolStats {
+    private final int active;
+    private final int idle;
+    private final int total;
+    private final int maxSize;
+    private final int waiters;
+    private final long borrows;
+    private final long borrowTimeouts;
+    private final long avgBorrowMicros;
+    private final long maxBorrowMicros;
+    private final long created;
+    private final long destroyed;
+    private final long validationFailures;
+    private final long leaksDetected;
+
+    public PoolStats(int active, int idle, int total, int maxSize, int waiters,
+                     long borrows, long borrowTimeouts, long avgBorrowMicros, long maxBorrowMicros,
+                     long created, long destroyed, long validationFailures, long leaksDetected) {
+        this.active = active;
+        this.idle = idle;
+        this.total = total;
+        this.maxSize = maxSize;
+        this.waiters = waiters;
+        this.borrows = borrows;
+        this.borrowTimeouts = borrowTimeouts;
+        this.avgBorrowMicros = avgBorrowMicros;
+        this.maxBorrowMicros = maxBorrowMicros;
+        this.created = created;
+        this.destroyed = destroyed;
+        this.validationFailures = validationFailures;
+        this.leaksDetected = leaksDetected;
+    }
+
+    public int getActive() { return active; }
+    public int getIdle() { return idle; }
+    public int getTotal() { return total; }
+    public int getMaxSize() { return maxSize; }
+    public int getWaiters() { return waiters; }
+    public long getBorrows() { return borrows; }
+    public long getBorrowTimeouts() { return borrowTimeouts; }
+    public long getAvgBorrowMicros() { return avgBorrowMicros; }
+    public long getMaxBorrowMicros() { return maxBorrowMicros; }
+    public long getCreated() { return created; }
+    public long getDestroyed() { return destroyed; }
+    public long getValidationFailures() { return validationFailures; }
+    public long getLeaksDetected() { return leaksDetected; }
+
+    @Override
+    public String toString() {
+        return "PoolStats{active=" + active + ", idle=" + idle + ", total=" + total + "/" + maxSize +
+               ", waiters=" + waiters + ", borrows=" + borrows + ", timeouts=" + borrowTimeouts +
+               ", avgBorrowUs=" + avgBorrowMicros + ", maxBorrowUs=" + maxBorrowMicros +
+               ", created=" + created + ", destroyed=" + destroyed +
+               ", validationFailures=" + validationFailures + ", leaks=" + leaksDetected + "}";
+    }
+}
@@ -0,0 +1,36 @@
+package com.hotel.rmi.dispatch;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Priority lanes of the request scheduler, highest priority first
+ */
+public enum Lane {
+    /** Reservation writes: a guest is waiting to book or a host to confirm */
+    BOOKING,
+    /** Everything else a guest or host does */
+    GUEST,
+    /** Admin screens, whole-table reads and moderation */
+    ADMIN;
+    
+    private static final Set<String> BOOKING_METHODS = new HashSet<>(Arrays.asList(
+            "createReservation", "updateReservationStatus", "cancelReservation", "cancelGuestReservation"));
+    
+    // getAllListings is not here: the public hotels page loads it
+    private static final Set<String> ADMIN_METHODS = new HashSet<>(Arrays.asList(
+            "getAllReservations", "getAllUsers", "getReservationsPage", "getUsersPage", "getDashboardStats", "deleteReservation",
+            "getAllApplications", "getApplicationsByStatus", "approveApplication", "rejectApplication",
+            "banUser", "updateUserRole", "updateListingStatus", "getImageReferenceCounts"));
+    
+    public static Lane forMethod(String methodName) {
+        if (BOOKING_METHODS.contains(methodName)) {
+            return BOOKING;
+        }
+        if (ADMIN_METHODS.contains(methodName)) {
+            return ADMIN;
+        }
+        return GUEST;
+    }
+}
@@ -0,0 +1,50 @@
+package com.hotel.rmi.dispatch;
+
+/**
+ * Point-in-time snapshot of one scheduler lane
+ */
+public class LaneStats {
+    private final Lane lane;
+    private final int queued;
+    private final int running;
+    private final long submitted;
+    private final long rejected;
+    private final long completed;
+    private final long avgQueueMicros;
+    private final long maxQueueMicros;
+    private final long avgExecMicros;
+    private final long maxExecMicros;
+    
+    public LaneStats(Lane lane, int queued, int running, long submitted, long rejected, long completed,
+                     long avgQueueMicros, long maxQueueMicros, long avgExecMicros, long maxExecMicros) {
+        this.lane = lane;
+        this.queued = queued;
+        this.running = running;
+        this.submitted = submitted;
+        this.rejected = rejected;
+        this.completed = completed;
+        this.avgQueueMicros = avgQueueMicros;
+        this.maxQueueMicros = maxQueueMicros;
+        this.avgExecMicros = avgExecMicros;
+        this.maxExecMicros = maxExecMicros;
+    }
+    
+    public Lane getLane() { return lane; }
+    public int getQueued() { return queued; }
+    public int getRunning() { return running; }
+    public long getSubmitted() { return submitted; }
+    public long getRejected() { return rejected; }
+    public long getCompleted() { return completed; }
+    public long getAvgQueueMicros() { return avgQueueMicros; }
+    public long getMaxQueueMicros() { return maxQueueMicros; }
+    public long getAvgExecMicros() { return avgExecMicros; }
+    public long getMaxExecMicros() { return maxExecMicros; }
+    
+    @Override
+    public String toString() {
+        return lane + "{queued=" + queued + ", running=" + running + ", submitted=" + submitted +
+               ", rejected=" + rejected + ", completed=" + completed +
+               ", queueUs(avg/max)=" + avgQueueMicros + "/" + maxQueueMicros +
+               ", execUs(avg/max)=" + avgExecMicros + "/" + maxExecMicros + "}";
+    }
+}
@@ -0,0 +1,104 @@
+package com.hotel.rmi.dispatch;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Counts virtual threads pinned to their carrier, by the frame they blocked in.
+ *
+ * A virtual worker that blocks inside a synchronized block cannot unmount,
+ * so it holds a carrier thread for the whole wait. MySQL Connector/J 8.0
+ * guards statement execution with synchronized, so every query on a virtual
+ * worker pins. This listens for the JDK's jdk.VirtualThreadPinned JFR event
+ * (recorded for pins longer than the threshold) and keeps a count per frame
+ * for the stats log. JFR streaming needs Java 14+, so it is reached through
+ * reflection like {@link com.hotel.shared.util.VirtualThreads}.
+ */
+public class PinningMonitor {
+    private static final Logger logger = Logger.getLogger(PinningMonitor.class.getName());
+    
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final int TOP_FRAMES = 5;
+    
+    private final Map<String, Long> pins = new ConcurrentHashMap<>();
+    private final AutoCloseable stream;
+    
+    private PinningMonitor(long thresholdMs) throws ReflectiveOperationException {
+        Class<?> streamType = Class.forName("jdk.jfr.consumer.RecordingStream");
+        Class<?> settingsType = Class.forName("jdk.jfr.EventSettings");
+        Object recording = streamType.getConstructor().newInstance();
+        Object settings = streamType.getMethod("enable", String.class).invoke(recording, PINNED_EVENT);
+        settingsType.getMethod("withThreshold", Duration.class).invoke(settings, Duration.ofMillis(thresholdMs));
+        settingsType.getMethod("withStackTrace").invoke(settings);
+        Consumer<RecordedEvent> onPinned = this::record;
+        streamType.getMethod("onEvent", String.class, Consumer.class).invoke(recording, PINNED_EVENT, onPinned);
+        streamType.getMethod("startAsync").invoke(recording);
+        this.stream = (AutoCloseable) recording;
+    }
+    
+    /**
+     * Start counting pins longer than thresholdMs
+     * @return null when the runtime cannot stream JFR events (logged)
+     */
+    public static PinningMonitor start(long thresholdMs) {
+        try {
+            PinningMonitor monitor = new PinningMonitor(thresholdMs);
+            logger.info("Counting virtual thread pins longer than " + thresholdMs + " ms");
+            return monitor;
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            logger.log(Level.WARNING, "Could not watch for pinned virtual threads", e);
+            return null;
+        }
+    }
+    
+    public void close() {
+        try {
+            stream.close();
+        } catch (Exception e) {
+            logger.log(Level.WARNING, "Failed to stop the pinning monitor", e);
+        }
+    }
+    
+    /**
+     * Pin counts of the most frequent frames, highest first
+     */
+    @Override
+    public String toString() {
+        List<Map.Entry<String, Long>> entries = new ArrayList<>(pins.entrySet());
+        entries.sort((a, b) -> Long.compare(b.getValue(), a.getValue()));
+        Map<String, Long> top = new LinkedHashMap<>();
+        for (int i = 0; i < Math.min(TOP_FRAMES, entries.size()); i++) {
+            top.put(entries.get(i).getKey(), entries.get(i).getValue());
+        }
+        return top.toString();
+    }
+    
+    /**
+     * Count the pin against the innermost frame outside the JDK, e.g. the driver's socket read
+     */
+    private void record(RecordedEvent event) {
+        String frame = "unknown";
+        RecordedStackTrace stack = event.getStackTrace();
+        if (stack != null) {
+            for (RecordedFrame f : stack.getFrames()) {
+                String type = f.getMethod().getType().getName();
+                if (!type.startsWith("java.") && !type.startsWith("jdk.") && !type.startsWith("sun.")) {
+                    frame = type + "." + f.getMethod().getName();
+                    break;
+                }
+            }
+        }
+        pins.merge(frame, 1L, Long::sum);
+    }
+}
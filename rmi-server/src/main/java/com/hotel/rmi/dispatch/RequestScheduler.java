@@ -0,0 +1,235 @@
+package com.hotel.rmi.dispatch;
+
+import com.hotel.shared.util.VirtualThreads;
+
+import java.rmi.RemoteException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Logger;
+
+/**
+ * Bounded worker pool that runs every remote call, in priority lanes.
+ *
+ * RMI starts a thread per connection and runs each call as soon as it
+ * arrives, so a few admin reports can hold every database connection while
+ * guests wait to book. Here the RMI thread only enqueues the call and waits
+ * for its result. A fixed set of workers runs the calls, always taking
+ * BOOKING before GUEST before ADMIN. Each lane has its own queue limit and a
+ * cap on the workers it may occupy, and GUEST and ADMIN together never occupy
+ * more than all workers but one, so one is always free for bookings. A call that finds its lane's queue
+ * full, or that waited longer than maxQueueWaitMs before a worker got to it,
+ * fails at once with "Server busy" instead of piling up.
+ */
+public class RequestScheduler {
+    private static final Logger logger = Logger.getLogger(RequestScheduler.class.getName());
+    
+    /**
+     * A service method invocation, rethrowing whatever the method threw
+     */
+    public interface Call {
+        Object run() throws Throwable;
+    }
+    
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition workAvailable = lock.newCondition();
+    private final LaneState[] lanes = new LaneState[Lane.values().length];
+    private final int nonBookingMaxConcurrent;
+    private int nonBookingRunning;
+    private final long maxQueueWaitNanos;
+    
+    /**
+     * @param virtualWorkers run the workers on virtual threads (needs Java 21+, see {@link VirtualThreads})
+     */
+    public RequestScheduler(int workers, int bookingQueueLimit, int guestQueueLimit, int adminQueueLimit,
+                            int adminMaxConcurrent, long maxQueueWaitMs, boolean virtualWorkers) {
+        if (workers <= 0) {
+            throw new IllegalArgumentException("workers must be positive");
+        }
+        this.maxQueueWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxQueueWaitMs);
+        this.nonBookingMaxConcurrent = Math.max(1, workers - 1);
+        lanes[Lane.BOOKING.ordinal()] = new LaneState(Lane.BOOKING, bookingQueueLimit, workers);
+        lanes[Lane.GUEST.ordinal()] = new LaneState(Lane.GUEST, guestQueueLimit, Math.max(1, workers - 1));
+        lanes[Lane.ADMIN.ordinal()] = new LaneState(Lane.ADMIN, adminQueueLimit,
+                Math.max(1, Math.min(adminMaxConcurrent, workers - 1)));
+        
+        // Virtual workers are still a fixed set; the database pool bounds them either way
+        ThreadFactory virtualFactory = virtualWorkers ? VirtualThreads.factory("rmi-worker-vt-") : null;
+        for (int i = 0; i < workers; i++) {
+            Thread worker = virtualFactory != null
+                    ? virtualFactory.newThread(this::work)
+                    : new Thread(this::work, "rmi-worker-" + (i + 1));
+            worker.setDaemon(true);
+            worker.start();
+        }
+        logger.info("Request scheduler started with " + workers + (virtualWorkers ? " virtual" : "") + " workers");
+    }
+    
+    /**
+     * Run a call on a worker and wait for its result
+     */
+    public Object execute(Lane lane, Call call) throws Throwable {
+        LaneState state = lanes[lane.ordinal()];
+        Task task = new Task(call);
+        
+        lock.lock();
+        try {
+            state.submitted++;
+            if (state.queue.size() >= state.queueLimit) {
+                state.rejected++;
+                throw busy(lane);
+            }
+            state.queue.add(task);
+            workAvailable.signal();
+        } finally {
+            lock.unlock();
+        }
+        
+        try {
+            return task.result.get();
+        } catch (ExecutionException e) {
+            throw e.getCause();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RemoteException("Interrupted while waiting for the request to run");
+        }
+    }
+    
+    public List<LaneStats> getStats() {
+        List<LaneStats> stats = new ArrayList<>(lanes.length);
+        lock.lock();
+        try {
+            for (LaneState state : lanes) {
+                stats.add(state.snapshot());
+            }
+        } finally {
+            lock.unlock();
+        }
+        return stats;
+    }
+    
+    private void work() {
+        while (true) {
+            LaneState state;
+            Task task;
+            lock.lock();
+            try {
+                while ((state = nextLane()) == null) {
+                    workAvailable.awaitUninterruptibly();
+                }
+                task = state.queue.poll();
+                state.running++;
+                if (state.lane != Lane.BOOKING) {
+                    nonBookingRunning++;
+                }
+            } finally {
+                lock.unlock();
+            }
+            
+            long started = System.nanoTime();
+            long queued = started - task.enqueuedAt;
+            boolean expired = queued > maxQueueWaitNanos;
+            try {
+                if (expired) {
+                    // The caller has most likely given up already
+                    task.result.completeExceptionally(busy(state.lane));
+                } else {
+                    task.result.complete(task.call.run());
+                }
+            } catch (Throwable t) {
+                task.result.completeExceptionally(t);
+            } finally {
+                long executed = System.nanoTime() - started;
+                lock.lock();
+                try {
+                    state.running--;
+                    if (state.lane != Lane.BOOKING) {
+                        nonBookingRunning--;
+                    }
+                    state.record(queued, executed, expired);
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+    }
+    
+    /**
+     * Highest-priority lane with queued work and a free worker slot (caller holds the lock)
+     */
+    private LaneState nextLane() {
+        for (LaneState state : lanes) {
+            if (state.queue.isEmpty() || state.running >= state.maxConcurrent) {
+                continue;
+            }
+            if (state.lane != Lane.BOOKING && nonBookingRunning >= nonBookingMaxConcurrent) {
+                continue;
+            }
+            return state;
+        }
+        return null;
+    }
+    
+    private static RemoteException busy(Lane lane) {
+        return new RemoteException("Server busy, please try again (" + lane.name().toLowerCase() + " queue full)");
+    }
+    
+    private static final class Task {
+        private final Call call;
+        private final long enqueuedAt = System.nanoTime();
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+        
+        Task(Call call) {
+            this.call = call;
+        }
+    }
+    
+    /**
+     * Queue and counters of one lane, guarded by the scheduler lock
+     */
+    private static final class LaneState {
+        private final Lane lane;
+        private final int queueLimit;
+        private final int maxConcurrent;
+        private final ArrayDeque<Task> queue = new ArrayDeque<>();
+        private int running;
+        private long submitted;
+        private long rejected;
+        private long completed;
+        private long queueNanosTotal;
+        private long queueNanosMax;
+        private long execNanosTotal;
+        private long execNanosMax;
+        
+        LaneState(Lane lane, int queueLimit, int maxConcurrent) {
+            this.lane = lane;
+            this.queueLimit = queueLimit;
+            this.maxConcurrent = maxConcurrent;
+        }
+        
+        void record(long queuedNanos, long execNanos, boolean expired) {
+            if (expired) {
+                rejected++;
+            } else {
+                completed++;
+                execNanosTotal += execNanos;
+                execNanosMax = Math.max(execNanosMax, execNanos);
+            }
+            queueNanosTotal += queuedNanos;
+            queueNanosMax = Math.max(queueNanosMax, queuedNanos);
+        }
+        
+        LaneStats snapshot() {
+            long dequeued = completed + rejected;
+            return new LaneStats(lane, queue.size(), running, submitted, rejected, completed,
+                    dequeued == 0 ? 0 : queueNanosTotal / dequeued / 1000, queueNanosMax / 1000,
+                    completed == 0 ? 0 : execNanosTotal / completed / 1000, execNanosMax / 1000);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.hotel.rmi.dispatch;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.rmi.Remote;
+
+/**
+ * Exported in place of a service implementation, so every remote call goes
+ * through the {@link RequestScheduler} lane of its method
+ */
+public final class ScheduledDispatch implements InvocationHandler {
+    
+    private final Remote target;
+    private final RequestScheduler scheduler;
+    
+    private ScheduledDispatch(Remote target, RequestScheduler scheduler) {
+        this.target = target;
+        this.scheduler = scheduler;
+    }
+    
+    public static Remote wrap(Remote service, RequestScheduler scheduler) {
+        Class<?> type = service.getClass();
+        return (Remote) Proxy.newProxyInstance(type.getClassLoader(), type.getInterfaces(),
+                new ScheduledDispatch(service, scheduler));
+    }
+    
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        if (method.getDeclaringClass() == Object.class) {
+            switch (method.getName()) {
+                case "equals": return proxy == args[0];
+                case "hashCode": return System.identityHashCode(proxy);
+                default: return "ScheduledDispatch[" + target.getClass().getSimpleName() + "]";
+            }
+        }
+        
+        return scheduler.execute(Lane.forMethod(method.getName()), () -> {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        });
+    }
+}
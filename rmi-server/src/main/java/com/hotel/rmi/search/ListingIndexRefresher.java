@@ -0,0 +1,109 @@
+package com.hotel.rmi.search;
+
+import com.hotel.rmi.cache.LruCache;
+import com.hotel.rmi.dao.ListingDAO;
+import com.hotel.shared.model.Listing;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Logger;
+
+/**
+ * Keeps the search index and listing cache in step with listing writes made
+ * by other instances sharing the database.
+ *
+ * Every listing write bumps that row's version column, so a refresh first
+ * compares {@link ListingDAO#catalogVersion()} with the value it last saw and
+ * stops there if nothing moved. Otherwise it diffs the (id, version) pairs
+ * against the ones it loaded, reloads only the rows that changed and drops
+ * only their cache entries. Refreshes run one at a time, under a lock rather
+ * than a monitor so a virtual thread waiting on the database is not pinned.
+ */
+public class ListingIndexRefresher {
+    private static final Logger logger = Logger.getLogger(ListingIndexRefresher.class.getName());
+    
+    private final ListingDAO listingDAO = new ListingDAO();
+    private final ListingSearchIndex searchIndex;
+    private final LruCache<Integer, Listing> listingCache;
+    
+    private final ReentrantLock lock = new ReentrantLock();
+    private long catalogVersion;
+    private Map<Integer, Integer> versions = new HashMap<>();
+    
+    public ListingIndexRefresher(ListingSearchIndex searchIndex, LruCache<Integer, Listing> listingCache) {
+        this.searchIndex = searchIndex;
+        this.listingCache = listingCache;
+    }
+    
+    /**
+     * Load every listing into the index; versions are read first, so a row written in between is only reloaded again
+     */
+    public void rebuild() throws SQLException {
+        lock.lock();
+        try {
+            long catalog = listingDAO.catalogVersion();
+            Map<Integer, Integer> current = listingDAO.findVersions();
+            searchIndex.rebuild(listingDAO.findAll());
+            catalogVersion = catalog;
+            versions = current;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Reindex listings added, changed or deleted since the last rebuild or refresh
+     * @return number of listings reindexed or removed
+     */
+    public int refresh() throws SQLException {
+        lock.lock();
+        try {
+            long catalog = listingDAO.catalogVersion();
+            if (catalog == catalogVersion) {
+                return 0;
+            }
+            Map<Integer, Integer> current = listingDAO.findVersions();
+            
+            List<Integer> changed = new ArrayList<>();
+            for (Map.Entry<Integer, Integer> entry : current.entrySet()) {
+                if (!entry.getValue().equals(versions.get(entry.getKey()))) {
+                    changed.add(entry.getKey());
+                }
+            }
+            Set<Integer> removed = new HashSet<>(versions.keySet());
+            removed.removeAll(current.keySet());
+            
+            // A changed row deleted before it could be reloaded counts as removed
+            Set<Integer> missing = new HashSet<>(changed);
+            for (Listing listing : listingDAO.findByIds(changed)) {
+                searchIndex.put(listing);
+                missing.remove(listing.getId());
+            }
+            removed.addAll(missing);
+            for (int listingId : removed) {
+                searchIndex.remove(listingId);
+            }
+            
+            for (int listingId : changed) {
+                listingCache.invalidate(listingId);
+            }
+            for (int listingId : removed) {
+                listingCache.invalidate(listingId);
+            }
+            
+            catalogVersion = catalog;
+            versions = current;
+            logger.info("Search index refreshed: " + (changed.size() - missing.size()) + " reindexed, " +
+                        removed.size() + " removed");
+            return changed.size() - missing.size() + removed.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
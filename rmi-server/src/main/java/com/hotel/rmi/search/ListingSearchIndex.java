@@ -0,0 +1,351 @@
+package com.hotel.rmi.search;
+
+import com.hotel.shared.model.Listing;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory inverted index over listing title, city and description.
+ *
+ * Built once from the database at startup and kept current by
+ * ListingServiceImpl on every listing write, and by ListingIndexRefresher for
+ * writes from other instances. Queries are tokenized the same
+ * way as documents; every query term also matches indexed terms it is a
+ * prefix of, and results are ranked with BM25 over field-weighted term
+ * frequencies (title > city > description).
+ *
+ * Documents live in dense slots so scoring accumulates into a flat array
+ * instead of a map. Reads take a shared lock; writes are exclusive.
+ */
+public class ListingSearchIndex {
+    private static final Logger logger = Logger.getLogger(ListingSearchIndex.class.getName());
+
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+
+    private static final float TITLE_WEIGHT = 3.0f;
+    private static final float CITY_WEIGHT = 2.0f;
+    private static final float DESCRIPTION_WEIGHT = 1.0f;
+
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+
+    // Prefix expansions score slightly below exact matches and are capped per query term
+    private static final float PREFIX_WEIGHT = 0.7f;
+    private static final int MAX_PREFIX_EXPANSIONS = 64;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // term -> postings, sorted so prefix lookups are a sub-map
+    private final NavigableMap<String, Postings> terms = new TreeMap<>();
+
+    // listing id -> slot, and per-slot document data
+    private final Map<Integer, Integer> slotByListingId = new HashMap<>();
+    private int[] listingIds = new int[1024];
+    private int[] ownerIds = new int[1024];
+    private boolean[] approved = new boolean[1024];
+    private float[] lengths = new float[1024];
+    private String[][] docTerms = new String[1024][];
+    private final List<Integer> freeSlots = new ArrayList<>();
+    private int slotCount;
+    private int liveDocs;
+    private double totalLength;
+
+    private final ThreadLocal<float[]> scratch = ThreadLocal.withInitial(() -> new float[0]);
+
+    /**
+     * Replace the whole index with the given listings
+     */
+    public void rebuild(Collection<Listing> listings) {
+        lock.writeLock().lock();
+        try {
+            terms.clear();
+            slotByListingId.clear();
+            freeSlots.clear();
+            slotCount = 0;
+            liveDocs = 0;
+            totalLength = 0;
+            for (Listing listing : listings) {
+                addLocked(listing);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("Search index built: " + size() + " listings, " + termCount() + " terms");
+    }
+
+    /**
+     * Add or replace a listing
+     */
+    public void put(Listing listing) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(listing.getId());
+            addLocked(listing);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(int listingId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(listingId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove every listing owned by a user (used when a user is banned)
+     */
+    public void removeByOwner(int userId) {
+        lock.writeLock().lock();
+        try {
+            List<Integer> owned = new ArrayList<>();
+            for (Map.Entry<Integer, Integer> entry : slotByListingId.entrySet()) {
+                if (ownerIds[entry.getValue()] == userId) {
+                    owned.add(entry.getKey());
+                }
+            }
+            for (int listingId : owned) {
+                removeLocked(listingId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void updateStatus(int listingId, String status) {
+        lock.writeLock().lock();
+        try {
+            Integer slot = slotByListingId.get(listingId);
+            if (slot != null) {
+                approved[slot] = "approved".equalsIgnoreCase(status);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Rank approved listings against a free-text query
+     * @return listing ids, best match first
+     */
+    public List<Integer> search(String query, int limit) {
+        String[] queryTerms = tokenize(query);
+        if (queryTerms.length == 0 || limit <= 0) {
+            return new ArrayList<>();
+        }
+
+        lock.readLock().lock();
+        try {
+            if (liveDocs == 0) {
+                return new ArrayList<>();
+            }
+            float[] scores = scratch.get();
+            if (scores.length < slotCount) {
+                scores = new float[listingIds.length];
+                scratch.set(scores);
+            }
+
+            float avgLength = (float) (totalLength / liveDocs);
+            int[] touched = new int[16];
+            int touchedCount = 0;
+
+            for (String queryTerm : queryTerms) {
+                int expansions = 0;
+                for (Map.Entry<String, Postings> entry : terms.tailMap(queryTerm, true).entrySet()) {
+                    String term = entry.getKey();
+                    if (!term.startsWith(queryTerm) || expansions >= MAX_PREFIX_EXPANSIONS) {
+                        break;
+                    }
+                    expansions++;
+
+                    Postings postings = entry.getValue();
+                    float idf = (float) Math.log(1 + (liveDocs - postings.size + 0.5) / (postings.size + 0.5));
+                    float boost = term.length() == queryTerm.length() ? 1.0f : PREFIX_WEIGHT;
+
+                    for (int i = 0; i < postings.size; i++) {
+                        int slot = postings.slots[i];
+                        if (!approved[slot]) {
+                            continue;
+                        }
+                        float tf = postings.weights[i];
+                        float norm = K1 * (1 - B + B * lengths[slot] / avgLength);
+                        if (scores[slot] == 0) {
+                            if (touchedCount == touched.length) {
+                                touched = Arrays.copyOf(touched, touchedCount * 2);
+                            }
+                            touched[touchedCount++] = slot;
+                        }
+                        scores[slot] += boost * idf * tf * (K1 + 1) / (tf + norm);
+                    }
+                }
+            }
+
+            // Keep the best `limit` slots, lowest score at the head
+            final float[] s = scores;
+            PriorityQueue<Integer> top = new PriorityQueue<>(limit + 1, (a, b) -> Float.compare(s[a], s[b]));
+            for (int i = 0; i < touchedCount; i++) {
+                top.offer(touched[i]);
+                if (top.size() > limit) {
+                    top.poll();
+                }
+            }
+
+            Integer[] ranked = new Integer[top.size()];
+            for (int i = ranked.length - 1; i >= 0; i--) {
+                ranked[i] = listingIds[top.poll()];
+            }
+            for (int i = 0; i < touchedCount; i++) {
+                scores[touched[i]] = 0;
+            }
+            return new ArrayList<>(Arrays.asList(ranked));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return liveDocs;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int termCount() {
+        lock.readLock().lock();
+        try {
+            return terms.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Lowercase, strip accents and split on anything that is not a letter or digit
+     */
+    static String[] tokenize(String text) {
+        if (text == null || text.isEmpty()) {
+            return new String[0];
+        }
+        String normalized = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        List<String> tokens = new ArrayList<>();
+        for (String token : NON_WORD.split(normalized)) {
+            if (token.length() >= 2 || (token.length() == 1 && Character.isDigit(token.charAt(0)))) {
+                tokens.add(token);
+            }
+        }
+        return tokens.toArray(new String[0]);
+    }
+
+    private void addLocked(Listing listing) {
+        Map<String, Float> weights = new HashMap<>();
+        float length = 0;
+        length += addField(weights, listing.getTitle(), TITLE_WEIGHT);
+        length += addField(weights, listing.getCity(), CITY_WEIGHT);
+        length += addField(weights, listing.getDescription(), DESCRIPTION_WEIGHT);
+
+        int slot = freeSlots.isEmpty() ? slotCount++ : freeSlots.remove(freeSlots.size() - 1);
+        ensureCapacity(slot + 1);
+        listingIds[slot] = listing.getId();
+        ownerIds[slot] = listing.getUserId();
+        approved[slot] = "approved".equalsIgnoreCase(listing.getStatus());
+        lengths[slot] = length;
+        docTerms[slot] = weights.keySet().toArray(new String[0]);
+        slotByListingId.put(listing.getId(), slot);
+        liveDocs++;
+        totalLength += length;
+
+        for (Map.Entry<String, Float> entry : weights.entrySet()) {
+            terms.computeIfAbsent(entry.getKey(), t -> new Postings()).add(slot, entry.getValue());
+        }
+    }
+
+    private void removeLocked(int listingId) {
+        Integer slot = slotByListingId.remove(listingId);
+        if (slot == null) {
+            return;
+        }
+        for (String term : docTerms[slot]) {
+            Postings postings = terms.get(term);
+            if (postings != null && postings.remove(slot) && postings.size == 0) {
+                terms.remove(term);
+            }
+        }
+        liveDocs--;
+        totalLength -= lengths[slot];
+        docTerms[slot] = null;
+        approved[slot] = false;
+        freeSlots.add(slot);
+    }
+
+    private static float addField(Map<String, Float> weights, String text, float weight) {
+        String[] tokens = tokenize(text);
+        for (String token : tokens) {
+            weights.merge(token, weight, Float::sum);
+        }
+        return tokens.length * weight;
+    }
+
+    private void ensureCapacity(int needed) {
+        if (needed <= listingIds.length) {
+            return;
+        }
+        int capacity = Math.max(needed, listingIds.length * 2);
+        listingIds = Arrays.copyOf(listingIds, capacity);
+        ownerIds = Arrays.copyOf(ownerIds, capacity);
+        approved = Arrays.copyOf(approved, capacity);
+        lengths = Arrays.copyOf(lengths, capacity);
+        docTerms = Arrays.copyOf(docTerms, capacity);
+    }
+
+    /**
+     * Growable parallel arrays of (slot, weighted term frequency)
+     */
+    private static final class Postings {
+        private int[] slots = new int[4];
+        private float[] weights = new float[4];
+        private int size;
+
+        void add(int slot, float weight) {
+            if (size == slots.length) {
+                slots = Arrays.copyOf(slots, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+            }
+            slots[size] = slot;
+            weights[size] = weight;
+            size++;
+        }
+
+        boolean remove(int slot) {
+            for (int i = 0; i < size; i++) {
+                if (slots[i] == slot) {
+                    // Order within a posting list does not matter, so swap in the last entry
+                    size--;
+                    slots[i] = slots[size];
+                    weights[i] = weights[size];
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.hotel.rmi.stats;
+
+import com.hotel.rmi.dao.StatsDAO;
+import com.hotel.shared.model.DashboardStats;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.logging.Logger;
+
+/**
+ * Running totals behind the admin dashboard.
+ *
+ * Seeded from grouped SQL counts at startup, then adjusted by the services
+ * on every listing and reservation write, so a snapshot costs the same no
+ * matter how many rows the tables hold. Revenue is kept in cents as a long
+ * to avoid BigDecimal arithmetic on the write path. Bulk deletes (user bans)
+ * call {@link #rebuild()} instead of computing deltas.
+ *
+ * A writer brackets its database write and its delta with {@link #beginWrite()}
+ * and {@link #endWrite()}. A rebuild excludes them while its queries run, so
+ * every write is either seen by the queries or applied as a delta afterwards,
+ * never both and never neither.
+ */
+public class DashboardAggregates {
+    private static final Logger logger = Logger.getLogger(DashboardAggregates.class.getName());
+    
+    private final StatsDAO statsDAO = new StatsDAO();
+    
+    private final Map<String, Integer> listingsByStatus = new HashMap<>();
+    private final Map<String, Integer> reservationsByStatus = new HashMap<>();
+    private long confirmedRevenueCents;
+    
+    // Shared by writers between their database write and their delta, exclusive while rebuilding
+    private final ReentrantReadWriteLock writes = new ReentrantReadWriteLock();
+    
+    /**
+     * Reload every total from the database; must not be called between beginWrite and endWrite
+     */
+    public void rebuild() throws SQLException {
+        writes.writeLock().lock();
+        try {
+            Map<String, Integer> listings = statsDAO.countListingsByStatus();
+            Map<String, Integer> reservations = statsDAO.countReservationsByStatus();
+            long revenue = toCents(statsDAO.sumConfirmedRevenue());
+            
+            synchronized (this) {
+                listingsByStatus.clear();
+                listingsByStatus.putAll(listings);
+                reservationsByStatus.clear();
+                reservationsByStatus.putAll(reservations);
+                confirmedRevenueCents = revenue;
+            }
+            logger.info("Dashboard aggregates built: " + listings + ", " + reservations);
+        } finally {
+            writes.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Call before a database write whose delta will be reported here; pair with {@link #endWrite()} in a finally
+     */
+    public void beginWrite() {
+        writes.readLock().lock();
+    }
+    
+    public void endWrite() {
+        writes.readLock().unlock();
+    }
+    
+    public synchronized void listingAdded(String status) {
+        listingsByStatus.merge(status, 1, Integer::sum);
+    }
+    
+    public synchronized void listingRemoved(String status) {
+        listingsByStatus.merge(status, -1, Integer::sum);
+    }
+    
+    public synchronized void listingStatusChanged(String oldStatus, String newStatus) {
+        listingRemoved(oldStatus);
+        listingAdded(newStatus);
+    }
+    
+    public synchronized void reservationAdded(String status, BigDecimal totalPrice) {
+        reservationsByStatus.merge(status, 1, Integer::sum);
+        if ("confirmed".equals(status)) {
+            confirmedRevenueCents += toCents(totalPrice);
+        }
+    }
+    
+    public synchronized void reservationRemoved(String status, BigDecimal totalPrice) {
+        reservationsByStatus.merge(status, -1, Integer::sum);
+        if ("confirmed".equals(status)) {
+            confirmedRevenueCents -= toCents(totalPrice);
+        }
+    }
+    
+    public synchronized void reservationStatusChanged(String oldStatus, String newStatus, BigDecimal totalPrice) {
+        reservationRemoved(oldStatus, totalPrice);
+        reservationAdded(newStatus, totalPrice);
+    }
+    
+    public synchronized DashboardStats snapshot() {
+        return toStats(listingsByStatus, reservationsByStatus, confirmedRevenueCents);
+    }
+    
+    /**
+     * Totals straight from the database, for instances sharing it with others whose deltas this one never sees
+     */
+    public DashboardStats load() throws SQLException {
+        return toStats(statsDAO.countListingsByStatus(), statsDAO.countReservationsByStatus(),
+                toCents(statsDAO.sumConfirmedRevenue()));
+    }
+    
+    private static DashboardStats toStats(Map<String, Integer> listings, Map<String, Integer> reservations, long revenueCents) {
+        DashboardStats stats = new DashboardStats();
+        stats.setListingsByStatus(new HashMap<>(listings));
+        stats.setTotalListings(sum(listings));
+        stats.setReservationsByStatus(new HashMap<>(reservations));
+        stats.setTotalReservations(sum(reservations));
+        stats.setTotalRevenue(BigDecimal.valueOf(revenueCents, 2));
+        return stats;
+    }
+    
+    private static int sum(Map<String, Integer> counts) {
+        int total = 0;
+        for (int count : counts.values()) {
+            total += count;
+        }
+        return total;
+    }
+    
+    private static long toCents(BigDecimal amount) {
+        if (amount == null) {
+            return 0;
+        }
+        return amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+}
@@ -0,0 +1,69 @@
+package com.hotel.rmi.util;
+
+import com.hotel.shared.exception.ValidationException;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.Base64;
+
+/**
+ * Opaque page cursor holding the sort key of the last row returned:
+ * (createdAt, id) for newest-first tables, or just the id.
+ */
+public final class KeysetCursor {
+    private final Timestamp createdAt;
+    private final int id;
+    
+    private KeysetCursor(Timestamp createdAt, int id) {
+        this.createdAt = createdAt;
+        this.id = id;
+    }
+    
+    public Timestamp getCreatedAt() { return createdAt; }
+    public int getId() { return id; }
+    
+    public static String encode(Timestamp createdAt, int id) {
+        return encodeRaw(createdAt.getTime() + ":" + id);
+    }
+    
+    public static String encode(int id) {
+        return encodeRaw(Integer.toString(id));
+    }
+    
+    /**
+     * Parse a cursor from {@link #encode(Timestamp, int)}, or null for the first page
+     */
+    public static KeysetCursor decodeTimestamped(String cursor) throws ValidationException {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        try {
+            String[] parts = decodeRaw(cursor).split(":");
+            return new KeysetCursor(new Timestamp(Long.parseLong(parts[0])), Integer.parseInt(parts[1]));
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            throw new ValidationException("Invalid cursor");
+        }
+    }
+    
+    /**
+     * Parse a cursor from {@link #encode(int)}, or null for the first page
+     */
+    public static KeysetCursor decodeId(String cursor) throws ValidationException {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        try {
+            return new KeysetCursor(null, Integer.parseInt(decodeRaw(cursor)));
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException("Invalid cursor");
+        }
+    }
+    
+    private static String encodeRaw(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    private static String decodeRaw(String cursor) {
+        return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+    }
+}
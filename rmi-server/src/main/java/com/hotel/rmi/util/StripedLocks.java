@@ -0,0 +1,29 @@
+package com.hotel.rmi.util;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fixed set of locks shared by key hash.
+ *
+ * Callers working on the same key always get the same lock, so per-key
+ * critical sections are serialized in-process without allocating a lock
+ * per key. Different keys may share a stripe, which only costs some
+ * unnecessary waiting, never correctness.
+ */
+public class StripedLocks {
+    private final ReentrantLock[] stripes;
+    
+    public StripedLocks(int stripeCount) {
+        // Round up to a power of two so the stripe can be picked with a mask
+        int size = Integer.highestOneBit(Math.max(1, stripeCount - 1)) << 1;
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+    
+    public ReentrantLock get(int key) {
+        int h = key * 0x9E3779B9;
+        return stripes[(h ^ (h >>> 16)) & (stripes.length - 1)];
+    }
+}
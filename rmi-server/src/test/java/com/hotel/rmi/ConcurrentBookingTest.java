@@ -0,0 +1,147 @@
+package com.hotel.rmi;
+
+import com.hotel.rmi.calendar.OccupancyCalendar;
+import com.hotel.rmi.dao.ReservationDAO;
+import com.hotel.rmi.database.DBConnection;
+import com.hotel.rmi.stats.DashboardAggregates;
+import com.hotel.shared.exception.ConflictException;
+import com.hotel.shared.model.BookedRange;
+import com.hotel.shared.model.Reservation;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * Hundreds of overlapping bookings of one listing fired at once; exactly one may win.
+ *
+ * Runs against the in-memory H2 database from {@link TestDatabase}, through
+ * the same DBConnection pool the server uses.
+ */
+class ConcurrentBookingTest {
+    
+    private static final int BOOKINGS = 300;
+    private static final int THREADS = 64;
+    private static final LocalDate FIRST_NIGHT = LocalDate.of(2030, 6, 1);
+    
+    @BeforeAll
+    static void createSchema() throws SQLException {
+        TestDatabase.init();
+    }
+    
+    @Test
+    void createIfAvailableLetsOneOverlappingBookingWin() throws Exception {
+        ReservationDAO dao = new ReservationDAO();
+        int winners = race(i -> dao.createIfAvailable(booking(1, i)) != null);
+    
+        assertEquals(1, winners);
+        assertEquals(1, activeReservations(1));
+    }
+    
+    @Test
+    void createReservationLetsOneOverlappingBookingWin() throws Exception {
+        ReservationServiceImpl service = new ReservationServiceImpl(new OccupancyCalendar(), new DashboardAggregates(), false);
+        int winners = race(i -> {
+            try {
+                assertNotNull(service.createReservation(booking(2, i)));
+                return true;
+            } catch (ConflictException e) {
+                return false;
+            }
+        });
+        
+        assertEquals(1, winners);
+        assertEquals(1, activeReservations(2));
+        assertEquals(1, service.getBookedRanges(2, Date.valueOf(FIRST_NIGHT.minusDays(7)),
+                Date.valueOf(FIRST_NIGHT.plusDays(14))).size());
+        
+        // An instance sharing the database reads the same ranges from it
+        ReservationServiceImpl other = new ReservationServiceImpl(new OccupancyCalendar(), new DashboardAggregates(), true);
+        assertEquals(days(service.getBookedRanges(2, null, null)), days(other.getBookedRanges(2, null, null)));
+    }
+    
+    private interface Attempt {
+        boolean book(int i) throws Exception;
+    }
+    
+    /**
+     * Release every attempt at once and count the ones that booked
+     */
+    private static int race(Attempt attempt) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < BOOKINGS; i++) {
+                int n = i;
+                Callable<Boolean> task = () -> {
+                    start.await();
+                    return attempt.book(n);
+                };
+                results.add(pool.submit(task));
+            }
+            start.countDown();
+            int winners = 0;
+            for (Future<Boolean> result : results) {
+                if (result.get(60, TimeUnit.SECONDS)) {
+                    winners++;
+                }
+            }
+            return winners;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+    
+    /**
+     * Stays of 1 to 5 nights starting on or before FIRST_NIGHT, so every pair shares that night
+     */
+    private static Reservation booking(int listingId, int i) {
+        LocalDate checkIn = FIRST_NIGHT.minusDays(i % 3);
+        Reservation r = new Reservation();
+        r.setListingId(listingId);
+        r.setUserId(2);
+        r.setCheckIn(Date.valueOf(checkIn));
+        r.setCheckOut(Date.valueOf(FIRST_NIGHT.plusDays(1 + i % 3)));
+        r.setTotalPrice(new BigDecimal("100.00"));
+        r.setStatus("pending");
+        return r;
+    }
+    
+    private static List<String> days(List<BookedRange> ranges) {
+        List<String> days = new ArrayList<>();
+        for (BookedRange range : ranges) {
+            days.add(range.getCheckIn() + "/" + range.getCheckOut());
+        }
+        return days;
+    }
+    
+    private static int activeReservations(int listingId) throws SQLException {
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(
+                     "SELECT COUNT(*) FROM reservations WHERE listing_id = ? AND status IN ('pending', 'confirmed')")) {
+            stmt.setInt(1, listingId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                rs.next();
+                return rs.getInt(1);
+            }
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.hotel.rmi;
+
+import com.hotel.rmi.calendar.OccupancyCalendar;
+import com.hotel.rmi.stats.DashboardAggregates;
+import com.hotel.shared.model.DashboardStats;
+import com.hotel.shared.model.Reservation;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Bookings, confirmations and cancellations racing repeated rebuilds must leave
+ * the running totals equal to what the database holds.
+ */
+class DashboardAggregatesTest {
+    
+    private static final int LISTING_ID = 3;
+    private static final int HOST_ID = 1;
+    private static final int GUEST_ID = 2;
+    private static final int WRITERS = 8;
+    private static final int BOOKINGS_PER_WRITER = 100;
+    private static final LocalDate FIRST_NIGHT = LocalDate.of(2031, 1, 1);
+    
+    @BeforeAll
+    static void createSchema() throws SQLException {
+        TestDatabase.init();
+    }
+    
+    @Test
+    void totalsMatchDatabaseAfterWritesDuringRebuilds() throws Exception {
+        DashboardAggregates aggregates = new DashboardAggregates();
+        aggregates.rebuild();
+        ReservationServiceImpl service = new ReservationServiceImpl(new OccupancyCalendar(), aggregates, false);
+        
+        ExecutorService pool = Executors.newFixedThreadPool(WRITERS + 1);
+        AtomicBoolean writing = new AtomicBoolean(true);
+        try {
+            Future<Integer> rebuilds = pool.submit(() -> {
+                int n = 0;
+                while (writing.get()) {
+                    aggregates.rebuild();
+                    n++;
+                }
+                return n;
+            });
+            
+            List<Future<?>> writers = new ArrayList<>();
+            for (int w = 0; w < WRITERS; w++) {
+                int writer = w;
+                writers.add(pool.submit(() -> {
+                    for (int i = 0; i < BOOKINGS_PER_WRITER; i++) {
+                        Reservation created = service.createReservation(booking(writer * BOOKINGS_PER_WRITER + i));
+                        service.updateReservationStatus(created.getId(), "confirmed", HOST_ID);
+                        if (i % 3 == 0) {
+                            service.cancelGuestReservation(created.getId(), GUEST_ID);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> writer : writers) {
+                writer.get(120, TimeUnit.SECONDS);
+            }
+            writing.set(false);
+            assertTrue(rebuilds.get(60, TimeUnit.SECONDS) > 0);
+        } finally {
+            writing.set(false);
+            pool.shutdownNow();
+        }
+        
+        DashboardStats running = aggregates.snapshot();
+        DashboardStats stored = aggregates.load();
+        assertEquals(nonZero(stored.getListingsByStatus()), nonZero(running.getListingsByStatus()));
+        assertEquals(nonZero(stored.getReservationsByStatus()), nonZero(running.getReservationsByStatus()));
+        assertEquals(stored.getTotalRevenue(), running.getTotalRevenue());
+    }
+    
+    /**
+     * Deltas leave a status at zero where a recount has no row for it at all
+     */
+    private static Map<String, Integer> nonZero(Map<String, Integer> counts) {
+        Map<String, Integer> result = new HashMap<>(counts);
+        result.values().removeIf(count -> count == 0);
+        return result;
+    }
+    
+    /**
+     * One night each, two days apart, so no two bookings overlap
+     */
+    private static Reservation booking(int i) {
+        LocalDate checkIn = FIRST_NIGHT.plusDays(2L * i);
+        Reservation r = new Reservation();
+        r.setListingId(LISTING_ID);
+        r.setUserId(GUEST_ID);
+        r.setCheckIn(Date.valueOf(checkIn));
+        r.setCheckOut(Date.valueOf(checkIn.plusDays(1)));
+        r.setTotalPrice(new BigDecimal("125.50"));
+        r.setStatus("pending");
+        return r;
+    }
+}
@@ -0,0 +1,60 @@
+package com.hotel.rmi;
+
+import com.hotel.rmi.database.DBConnection;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * One in-memory H2 database in MySQL mode, shared by every test in the JVM.
+ *
+ * DBConnection's pool is static, so the schema is created once and the pool is
+ * left open; each test works on its own listings.
+ */
+public final class TestDatabase {
+    
+    private static boolean created;
+    
+    private TestDatabase() {
+    }
+    
+    public static synchronized void init() throws SQLException {
+        if (created) {
+            return;
+        }
+        System.setProperty("db.url", "jdbc:h2:mem:hotel_test;MODE=MySQL;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=30000");
+        System.setProperty("db.user", "sa");
+        System.setProperty("db.password", "");
+        System.setProperty("db.pool.maxSize", "20");
+        System.setProperty("db.pool.borrowTimeoutMs", "30000");
+        System.setProperty("db.pool.statsLogIntervalMs", "0");
+        
+        try (Connection conn = DBConnection.getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE users (" +
+                         "id INT AUTO_INCREMENT PRIMARY KEY, name VARCHAR(100) NOT NULL, " +
+                         "email VARCHAR(150) NOT NULL, password VARCHAR(255) NOT NULL, " +
+                         "role VARCHAR(20) DEFAULT 'guest', created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP, version INT NOT NULL DEFAULT 0)");
+            stmt.execute("CREATE TABLE listings (" +
+                         "id INT AUTO_INCREMENT PRIMARY KEY, user_id INT NOT NULL, title VARCHAR(255) NOT NULL, " +
+                         "description TEXT, address VARCHAR(255), city VARCHAR(100), " +
+                         "price_per_night DECIMAL(10,2) NOT NULL, max_guests INT DEFAULT 1, beds INT DEFAULT 1, " +
+                         "bathrooms INT DEFAULT 1, status VARCHAR(20) DEFAULT 'approved', " +
+                         "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP, version INT NOT NULL DEFAULT 0)");
+            stmt.execute("CREATE TABLE listing_images (" +
+                         "id INT AUTO_INCREMENT PRIMARY KEY, listing_id INT NOT NULL, image_url VARCHAR(500) NOT NULL, " +
+                         "content_hash CHAR(64))");
+            stmt.execute("CREATE TABLE reservations (" +
+                         "id INT AUTO_INCREMENT PRIMARY KEY, listing_id INT NOT NULL, user_id INT NOT NULL, " +
+                         "guest_phone VARCHAR(20), check_in DATE NOT NULL, check_out DATE NOT NULL, " +
+                         "total_price DECIMAL(10,2) NOT NULL, status VARCHAR(20) DEFAULT 'pending', " +
+                         "guest_notes TEXT, created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP)");
+            stmt.execute("INSERT INTO users (name, email, password, role) VALUES " +
+                         "('Host', 'host@example.com', 'x', 'host'), ('Guest', 'guest@example.com', 'x', 'guest')");
+            stmt.execute("INSERT INTO listings (user_id, title, price_per_night) VALUES " +
+                         "(1, 'DAO listing', 100.00), (1, 'Service listing', 100.00), (1, 'Dashboard listing', 100.00)");
+        }
+        created = true;
+    }
+}
@@ -0,0 +1,45 @@
+package com.hotel.rmi.dao;
+
+import com.hotel.rmi.TestDatabase;
+import com.hotel.shared.model.User;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * findByIds over more IDs than fit in one IN (...) batch
+ */
+class UserDAOTest {
+    
+    @BeforeAll
+    static void createSchema() throws SQLException {
+        TestDatabase.init();
+    }
+    
+    @Test
+    void findByIdsSplitsLongIdListsIntoBatches() throws SQLException {
+        // Mostly unknown IDs, with the two users in different batches
+        List<Integer> ids = new ArrayList<>();
+        for (int id = 3; id <= 1200; id++) {
+            ids.add(id);
+        }
+        ids.add(2);
+        ids.add(600, 1);
+        
+        Set<Integer> found = new TreeSet<>();
+        for (User user : new UserDAO().findByIds(ids)) {
+            found.add(user.getId());
+            assertNull(user.getPassword());
+        }
+        
+        assertEquals(Set.of(1, 2), found);
+    }
+}
@@ -0,0 +1,75 @@
+package com.hotel.rmi.dispatch;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Guest and admin calls together must leave one worker for bookings.
+ */
+class RequestSchedulerTest {
+    
+    private static final int WORKERS = 4;
+    
+    @Test
+    void guestAndAdminTogetherLeaveOneWorkerForBookings() throws Exception {
+        RequestScheduler scheduler = new RequestScheduler(WORKERS, 100, 100, 100, 2, 60000L, false);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService callers = Executors.newCachedThreadPool();
+        try {
+            // Admin first, so it takes its two slots before guests fill the rest
+            for (int i = 0; i < 2; i++) {
+                submit(callers, scheduler, Lane.ADMIN, () -> release.await(30, TimeUnit.SECONDS));
+            }
+            awaitRunning(scheduler, Lane.ADMIN, 2);
+            for (int i = 0; i < WORKERS; i++) {
+                submit(callers, scheduler, Lane.GUEST, () -> release.await(30, TimeUnit.SECONDS));
+            }
+            awaitRunning(scheduler, Lane.GUEST, 1);
+            
+            Future<Object> booking = submit(callers, scheduler, Lane.BOOKING, () -> "booked");
+            assertEquals("booked", booking.get(5, TimeUnit.SECONDS));
+            assertEquals(WORKERS - 1, running(scheduler, Lane.GUEST) + running(scheduler, Lane.ADMIN));
+        } finally {
+            release.countDown();
+            callers.shutdownNow();
+        }
+    }
+    
+    private static Future<Object> submit(ExecutorService callers, RequestScheduler scheduler, Lane lane,
+                                         RequestScheduler.Call call) {
+        return callers.submit(() -> {
+            try {
+                return scheduler.execute(lane, call);
+            } catch (Exception | Error e) {
+                throw e;
+            } catch (Throwable t) {
+                throw new ExecutionException(t);
+            }
+        });
+    }
+    
+    private static void awaitRunning(RequestScheduler scheduler, Lane lane, int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (running(scheduler, lane) < expected && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(expected, running(scheduler, lane));
+    }
+    
+    private static int running(RequestScheduler scheduler, Lane lane) {
+        for (LaneStats stats : scheduler.getStats()) {
+            if (stats.getLane() == lane) {
+                return stats.getRunning();
+            }
+        }
+        throw new IllegalArgumentException(lane.name());
+    }
+}
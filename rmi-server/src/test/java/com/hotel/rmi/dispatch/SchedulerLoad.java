@@ -0,0 +1,101 @@
+package com.hotel.rmi.dispatch;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Many clients against one scheduler, with platform or virtual workers.
+ *
+ * Each client is a platform thread, like the connection thread RMI starts
+ * per client, and makes a series of calls. Each call stands in for a JDBC
+ * round trip: it sleeps for load.dbMillis, inside a per-worker monitor when
+ * load.pinned is true, the way MySQL Connector/J 8.0 holds its connection
+ * monitor while it waits on the socket. Not run by the test suite, e.g.
+ *
+ *   java -cp shared/target/classes:rmi-server/target/classes:rmi-server/target/test-classes \
+ *        -Dload.virtual=true com.hotel.rmi.dispatch.SchedulerLoad
+ *
+ * Settings: load.clients (1000), load.callsPerClient (20), load.workers (8),
+ * load.dbMillis (5), load.virtual (false), load.pinned (true).
+ */
+public class SchedulerLoad {
+    
+    public static void main(String[] args) throws Exception {
+        int clients = Integer.getInteger("load.clients", 1000);
+        int callsPerClient = Integer.getInteger("load.callsPerClient", 20);
+        int workers = Integer.getInteger("load.workers", 8);
+        long dbMillis = Long.getLong("load.dbMillis", 5L);
+        boolean virtual = Boolean.getBoolean("load.virtual");
+        boolean pinned = Boolean.parseBoolean(System.getProperty("load.pinned", "true"));
+        
+        // Queues sized so no call is turned away; this measures throughput and latency, not shedding
+        RequestScheduler scheduler = new RequestScheduler(workers, clients, clients, clients, 2, 600000L, virtual);
+        Object[] connectionMonitors = new Object[workers];
+        for (int i = 0; i < workers; i++) {
+            connectionMonitors[i] = new Object();
+        }
+        AtomicInteger nextMonitor = new AtomicInteger();
+        ThreadLocal<Object> connection = ThreadLocal.withInitial(
+                () -> connectionMonitors[nextMonitor.getAndIncrement() % workers]);
+        RequestScheduler.Call query = () -> {
+            if (pinned) {
+                synchronized (connection.get()) {
+                    Thread.sleep(dbMillis);
+                }
+            } else {
+                Thread.sleep(dbMillis);
+            }
+            return null;
+        };
+        
+        long[] latencies = new long[clients * callsPerClient];
+        AtomicInteger recorded = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(clients);
+        ExecutorService clientThreads = Executors.newFixedThreadPool(clients);
+        for (int c = 0; c < clients; c++) {
+            int client = c;
+            clientThreads.execute(() -> {
+                try {
+                    start.await();
+                    for (int i = 0; i < callsPerClient; i++) {
+                        // One call in ten is a booking, the rest guest reads
+                        Lane lane = (client + i) % 10 == 0 ? Lane.BOOKING : Lane.GUEST;
+                        long began = System.nanoTime();
+                        scheduler.execute(lane, query);
+                        latencies[recorded.getAndIncrement()] = System.nanoTime() - began;
+                    }
+                } catch (Throwable t) {
+                    t.printStackTrace();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        
+        long began = System.nanoTime();
+        start.countDown();
+        done.await();
+        long elapsed = System.nanoTime() - began;
+        clientThreads.shutdown();
+        
+        long[] sorted = Arrays.copyOf(latencies, recorded.get());
+        Arrays.sort(sorted);
+        System.out.printf("java=%s virtual=%s pinned=%s clients=%d workers=%d dbMillis=%d cpus=%d%n",
+                System.getProperty("java.version"), virtual, pinned, clients, workers, dbMillis,
+                Runtime.getRuntime().availableProcessors());
+        System.out.printf("calls=%d elapsed=%.2fs throughput=%.0f/s p50=%.1fms p99=%.1fms max=%.1fms peakThreads=%d%n",
+                sorted.length, elapsed / 1e9, sorted.length / (elapsed / 1e9),
+                percentile(sorted, 0.50), percentile(sorted, 0.99), sorted[sorted.length - 1] / 1e6,
+                ManagementFactory.getThreadMXBean().getPeakThreadCount());
+        System.out.println("lanes=" + scheduler.getStats());
+    }
+    
+    private static double percentile(long[] sorted, double p) {
+        return sorted[Math.min(sorted.length - 1, (int) (sorted.length * p))] / 1e6;
+    }
+}
@@ -0,0 +1,88 @@
+package com.hotel.rmi.search;
+
+import com.hotel.rmi.TestDatabase;
+import com.hotel.rmi.cache.LruCache;
+import com.hotel.rmi.database.DBConnection;
+import com.hotel.shared.model.Listing;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Listing writes made straight to the database, as another instance would,
+ * reach the index on the next refresh without a full reload.
+ */
+class ListingIndexRefresherTest {
+    
+    @BeforeAll
+    static void createSchema() throws SQLException {
+        TestDatabase.init();
+    }
+    
+    @Test
+    void refreshReindexesOnlyWhatChanged() throws SQLException {
+        ListingSearchIndex index = new ListingSearchIndex();
+        LruCache<Integer, Listing> cache = new LruCache<>(100, 60000L);
+        ListingIndexRefresher refresher = new ListingIndexRefresher(index, cache);
+        refresher.rebuild();
+        assertEquals(0, refresher.refresh());
+        
+        int lighthouse = insert("Lighthouse keeper cottage");
+        int barn = insert("Converted barn");
+        assertEquals(2, refresher.refresh());
+        assertEquals(Collections.singletonList(lighthouse), index.search("lighthouse", 10));
+        assertEquals(0, refresher.refresh());
+        
+        // Cached listings that did not change stay cached
+        Listing cachedBarn = new Listing();
+        cachedBarn.setId(barn);
+        cache.put(barn, cachedBarn, cache.generation());
+        Listing cachedLighthouse = new Listing();
+        cachedLighthouse.setId(lighthouse);
+        cache.put(lighthouse, cachedLighthouse, cache.generation());
+        
+        execute("UPDATE listings SET title = 'Windmill loft', version = version + 1 WHERE id = " + lighthouse);
+        assertEquals(1, refresher.refresh());
+        assertTrue(index.search("lighthouse", 10).isEmpty());
+        assertEquals(Collections.singletonList(lighthouse), index.search("windmill", 10));
+        assertNull(cache.get(lighthouse));
+        assertNotNull(cache.get(barn));
+        
+        execute("DELETE FROM listings WHERE id = " + barn);
+        assertEquals(1, refresher.refresh());
+        assertTrue(index.search("barn", 10).isEmpty());
+        assertNull(cache.get(barn));
+        
+        execute("DELETE FROM listings WHERE id = " + lighthouse);
+        assertEquals(1, refresher.refresh());
+    }
+    
+    private static int insert(String title) throws SQLException {
+        try (Connection conn = DBConnection.getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("INSERT INTO listings (user_id, title, price_per_night) VALUES (1, '" + title + "', 80.00)",
+                               Statement.RETURN_GENERATED_KEYS);
+            try (ResultSet keys = stmt.getGeneratedKeys()) {
+                keys.next();
+                return keys.getInt(1);
+            }
+        }
+    }
+    
+    private static void execute(String sql) throws SQLException {
+        try (Connection conn = DBConnection.getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate(sql);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.hotel.shared.exception;
+
+public class ConflictException extends Exception {
+    private static final long serialVersionUID = 1L;
+    
+    public ConflictException(String message) {
+        super(message);
+    }
+    
+    public ConflictException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,13 @@
+package com.hotel.shared.exception;
+
+public class ValidationException extends Exception {
+    private static final long serialVersionUID = 1L;
+    
+    public ValidationException(String message) {
+        super(message);
+    }
+    
+    public ValidationException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
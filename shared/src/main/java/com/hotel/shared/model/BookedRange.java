@@ -0,0 +1,27 @@
+package com.hotel.shared.model;
+
+import java.io.Serializable;
+import java.sql.Date;
+
+/**
+ * A booked stretch of a listing's calendar; check-out is exclusive
+ */
+public class BookedRange implements Serializable {
+    private static final long serialVersionUID = 1L;
+    
+    private Date checkIn;
+    private Date checkOut;
+    
+    public BookedRange() {}
+    
+    public BookedRange(Date checkIn, Date checkOut) {
+        this.checkIn = checkIn;
+        this.checkOut = checkOut;
+    }
+    
+    public Date getCheckIn() { return checkIn; }
+    public void setCheckIn(Date checkIn) { this.checkIn = checkIn; }
+    
+    public Date getCheckOut() { return checkOut; }
+    public void setCheckOut(Date checkOut) { this.checkOut = checkOut; }
+}
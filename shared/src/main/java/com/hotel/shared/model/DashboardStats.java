@@ -0,0 +1,44 @@
+package com.hotel.shared.model;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Admin dashboard totals, maintained incrementally by the RMI server
+ */
+public class DashboardStats implements Serializable {
+    private static final long serialVersionUID = 1L;
+    
+    private int totalListings;
+    private Map<String, Integer> listingsByStatus;
+    private int totalReservations;
+    private Map<String, Integer> reservationsByStatus;
+    private BigDecimal totalRevenue; // confirmed reservations only
+    
+    public DashboardStats() {
+        this.listingsByStatus = new HashMap<>();
+        this.reservationsByStatus = new HashMap<>();
+        this.totalRevenue = BigDecimal.ZERO;
+    }
+    
+    public int getTotalListings() { return totalListings; }
+    public void setTotalListings(int totalListings) { this.totalListings = totalListings; }
+    
+    public Map<String, Integer> getListingsByStatus() { return listingsByStatus; }
+    public void setListingsByStatus(Map<String, Integer> listingsByStatus) { this.listingsByStatus = listingsByStatus; }
+    
+    public int getTotalReservations() { return totalReservations; }
+    public void setTotalReservations(int totalReservations) { this.totalReservations = totalReservations; }
+    
+    public Map<String, Integer> getReservationsByStatus() { return reservationsByStatus; }
+    public void setReservationsByStatus(Map<String, Integer> reservationsByStatus) { this.reservationsByStatus = reservationsByStatus; }
+    
+    public BigDecimal getTotalRevenue() { return totalRevenue; }
+    public void setTotalRevenue(BigDecimal totalRevenue) { this.totalRevenue = totalRevenue; }
+    
+    public int getReservationCount(String status) {
+        return reservationsByStatus.getOrDefault(status, 0);
+    }
+}
@@ -1,10 +1,14 @@
 package com.hotel.shared.model;
 
-import java.io.Serializable;
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
 import java.sql.Timestamp;
 
-public class HostApplication implements Serializable {
+public class HostApplication implements Externalizable {
     private static final long serialVersionUID = 1L;
+    private static final int WIRE_VERSION = 1;
     
     private int id;
     private int userId;
@@ -66,4 +70,42 @@ public class HostApplication implements Serializable {
     
     public String getUserEmail() { return userEmail; }
     public void setUserEmail(String userEmail) { this.userEmail = userEmail; }
+    
+    @Override
+    public void writeExternal(ObjectOutput out) throws IOException {
+        WireFormat.writeVersion(out, WIRE_VERSION);
+        WireFormat.writeInt(out, id);
+        WireFormat.writeInt(out, userId);
+        WireFormat.writeString(out, phoneNumber);
+        WireFormat.writeString(out, address);
+        WireFormat.writeSharedString(out, city);
+        WireFormat.writeString(out, idCardNumber);
+        WireFormat.writeString(out, motivation);
+        WireFormat.writeString(out, experience);
+        WireFormat.writeStatus(out, status);
+        WireFormat.writeString(out, adminNotes);
+        WireFormat.writeTimestamp(out, createdAt);
+        WireFormat.writeTimestamp(out, updatedAt);
+        WireFormat.writeString(out, userName);
+        WireFormat.writeString(out, userEmail);
+    }
+    
+    @Override
+    public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+        WireFormat.readVersion(in, WIRE_VERSION, "HostApplication");
+        id = WireFormat.readInt(in);
+        userId = WireFormat.readInt(in);
+        phoneNumber = WireFormat.readString(in);
+        address = WireFormat.readString(in);
+        city = WireFormat.readSharedString(in);
+        idCardNumber = WireFormat.readString(in);
+        motivation = WireFormat.readString(in);
+        experience = WireFormat.readString(in);
+        status = WireFormat.readStatus(in);
+        adminNotes = WireFormat.readString(in);
+        createdAt = WireFormat.readTimestamp(in);
+        updatedAt = WireFormat.readTimestamp(in);
+        userName = WireFormat.readString(in);
+        userEmail = WireFormat.readString(in);
+    }
 }
@@ -1,13 +1,17 @@
 package com.hotel.shared.model;
 
-import java.io.Serializable;
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
 import java.math.BigDecimal;
 import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.List;
 
-public class Listing implements Serializable {
+public class Listing implements Externalizable {
     private static final long serialVersionUID = 1L;
+    private static final int WIRE_VERSION = 1;
     
     private int id;
     private int userId;
@@ -22,6 +26,7 @@ public class Listing implements Serializable {
     private String status; // pending, approved, rejected
     private Timestamp createdAt;
     private List<String> imageUrls;
+    private String thumbnailUrl; // filled in by the API for list responses, not sent over RMI
     
     public Listing() {
         this.imageUrls = new ArrayList<>();
@@ -81,9 +86,48 @@ public class Listing implements Serializable {
     public List<String> getImageUrls() { return imageUrls; }
     public void setImageUrls(List<String> imageUrls) { this.imageUrls = imageUrls; }
     
+    public String getThumbnailUrl() { return thumbnailUrl; }
+    public void setThumbnailUrl(String thumbnailUrl) { this.thumbnailUrl = thumbnailUrl; }
+    
     @Override
     public String toString() {
         return "Listing{id=" + id + ", userId=" + userId + ", title='" + title + 
                "', city='" + city + "', price=" + pricePerNight + "}";
     }
+    
+    @Override
+    public void writeExternal(ObjectOutput out) throws IOException {
+        WireFormat.writeVersion(out, WIRE_VERSION);
+        WireFormat.writeInt(out, id);
+        WireFormat.writeInt(out, userId);
+        WireFormat.writeString(out, title);
+        WireFormat.writeString(out, description);
+        WireFormat.writeString(out, address);
+        WireFormat.writeSharedString(out, city);
+        WireFormat.writeDecimal(out, pricePerNight);
+        WireFormat.writeInt(out, maxGuests);
+        WireFormat.writeInt(out, beds);
+        WireFormat.writeInt(out, bathrooms);
+        WireFormat.writeStatus(out, status);
+        WireFormat.writeTimestamp(out, createdAt);
+        WireFormat.writeStringList(out, imageUrls);
+    }
+    
+    @Override
+    public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+        WireFormat.readVersion(in, WIRE_VERSION, "Listing");
+        id = WireFormat.readInt(in);
+        userId = WireFormat.readInt(in);
+        title = WireFormat.readString(in);
+        description = WireFormat.readString(in);
+        address = WireFormat.readString(in);
+        city = WireFormat.readSharedString(in);
+        pricePerNight = WireFormat.readDecimal(in);
+        maxGuests = WireFormat.readInt(in);
+        beds = WireFormat.readInt(in);
+        bathrooms = WireFormat.readInt(in);
+        status = WireFormat.readStatus(in);
+        createdAt = WireFormat.readTimestamp(in);
+        imageUrls = WireFormat.readStringList(in);
+    }
 }
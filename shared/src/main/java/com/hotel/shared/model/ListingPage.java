@@ -0,0 +1,32 @@
+package com.hotel.shared.model;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One page of listings from a keyset-paginated query
+ */
+public class ListingPage implements Serializable {
+    private static final long serialVersionUID = 1L;
+    
+    private List<Listing> listings;
+    private String nextCursor; // null when there are no more pages
+    
+    public ListingPage() {
+        this.listings = new ArrayList<>();
+    }
+    
+    public ListingPage(List<Listing> listings, String nextCursor) {
+        this.listings = listings;
+        this.nextCursor = nextCursor;
+    }
+    
+    public List<Listing> getListings() { return listings; }
+    public void setListings(List<Listing> listings) { this.listings = listings; }
+    
+    public String getNextCursor() { return nextCursor; }
+    public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+    
+    public boolean isHasMore() { return nextCursor != null; }
+}
@@ -0,0 +1,61 @@
+package com.hotel.shared.model;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+
+/**
+ * Filters for a listing search. Null fields are not applied.
+ */
+public class ListingSearchCriteria implements Serializable {
+    private static final long serialVersionUID = 1L;
+    
+    public static final String SORT_NEWEST = "newest";
+    public static final String SORT_PRICE_ASC = "price_asc";
+    public static final String SORT_PRICE_DESC = "price_desc";
+    
+    private String city;          // prefix match, case-insensitive
+    private BigDecimal minPrice;
+    private BigDecimal maxPrice;
+    private Integer guests;       // minimum max_guests
+    private Integer beds;         // minimum beds
+    private Integer bathrooms;    // minimum bathrooms
+    private String status = "approved";
+    private String sort = SORT_NEWEST;
+    private int limit = 50;
+    
+    public ListingSearchCriteria() {}
+    
+    public String getCity() { return city; }
+    public void setCity(String city) { this.city = city; }
+    
+    public BigDecimal getMinPrice() { return minPrice; }
+    public void setMinPrice(BigDecimal minPrice) { this.minPrice = minPrice; }
+    
+    public BigDecimal getMaxPrice() { return maxPrice; }
+    public void setMaxPrice(BigDecimal maxPrice) { this.maxPrice = maxPrice; }
+    
+    public Integer getGuests() { return guests; }
+    public void setGuests(Integer guests) { this.guests = guests; }
+    
+    public Integer getBeds() { return beds; }
+    public void setBeds(Integer beds) { this.beds = beds; }
+    
+    public Integer getBathrooms() { return bathrooms; }
+    public void setBathrooms(Integer bathrooms) { this.bathrooms = bathrooms; }
+    
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+    
+    public String getSort() { return sort; }
+    public void setSort(String sort) { this.sort = sort; }
+    
+    public int getLimit() { return limit; }
+    public void setLimit(int limit) { this.limit = limit; }
+    
+    @Override
+    public String toString() {
+        return "ListingSearchCriteria{city='" + city + "', price=" + minPrice + ".." + maxPrice +
+               ", guests=" + guests + ", beds=" + beds + ", bathrooms=" + bathrooms +
+               ", status='" + status + "', sort='" + sort + "', limit=" + limit + "}";
+    }
+}
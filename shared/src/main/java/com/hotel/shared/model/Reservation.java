@@ -1,12 +1,16 @@
 package com.hotel.shared.model;
 
-import java.io.Serializable;
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
 import java.math.BigDecimal;
 import java.sql.Date;
 import java.sql.Timestamp;
 
-public class Reservation implements Serializable {
+public class Reservation implements Externalizable {
     private static final long serialVersionUID = 1L;
+    private static final int WIRE_VERSION = 1;
     
     private int id;
     private int listingId;
@@ -21,6 +25,8 @@ public class Reservation implements Serializable {
     
     // Additional fields for joined queries
     private String listingTitle;
+    private String listingCity;
+    private String listingAddress;
     private String guestName;
     private String guestEmail;
     
@@ -66,6 +72,12 @@ public class Reservation implements Serializable {
     public String getListingTitle() { return listingTitle; }
     public void setListingTitle(String listingTitle) { this.listingTitle = listingTitle; }
     
+    public String getListingCity() { return listingCity; }
+    public void setListingCity(String listingCity) { this.listingCity = listingCity; }
+    
+    public String getListingAddress() { return listingAddress; }
+    public void setListingAddress(String listingAddress) { this.listingAddress = listingAddress; }
+    
     public String getGuestName() { return guestName; }
     public void setGuestName(String guestName) { this.guestName = guestName; }
     
@@ -83,4 +95,44 @@ public class Reservation implements Serializable {
         return "Reservation{id=" + id + ", listingId=" + listingId + ", userId=" + userId + 
                ", checkIn=" + checkIn + ", checkOut=" + checkOut + ", status='" + status + "'}";
     }
+    
+    @Override
+    public void writeExternal(ObjectOutput out) throws IOException {
+        WireFormat.writeVersion(out, WIRE_VERSION);
+        WireFormat.writeInt(out, id);
+        WireFormat.writeInt(out, listingId);
+        WireFormat.writeInt(out, userId);
+        WireFormat.writeDate(out, checkIn);
+        WireFormat.writeDate(out, checkOut);
+        WireFormat.writeDecimal(out, totalPrice);
+        WireFormat.writeStatus(out, status);
+        WireFormat.writeTimestamp(out, createdAt);
+        WireFormat.writeString(out, guestPhone);
+        WireFormat.writeString(out, guestNotes);
+        WireFormat.writeSharedString(out, listingTitle);
+        WireFormat.writeSharedString(out, listingCity);
+        WireFormat.writeSharedString(out, listingAddress);
+        WireFormat.writeSharedString(out, guestName);
+        WireFormat.writeSharedString(out, guestEmail);
+    }
+    
+    @Override
+    public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+        WireFormat.readVersion(in, WIRE_VERSION, "Reservation");
+        id = WireFormat.readInt(in);
+        listingId = WireFormat.readInt(in);
+        userId = WireFormat.readInt(in);
+        checkIn = WireFormat.readDate(in);
+        checkOut = WireFormat.readDate(in);
+        totalPrice = WireFormat.readDecimal(in);
+        status = WireFormat.readStatus(in);
+        createdAt = WireFormat.readTimestamp(in);
+        guestPhone = WireFormat.readString(in);
+        guestNotes = WireFormat.readString(in);
+        listingTitle = WireFormat.readSharedString(in);
+        listingCity = WireFormat.readSharedString(in);
+        listingAddress = WireFormat.readSharedString(in);
+        guestName = WireFormat.readSharedString(in);
+        guestEmail = WireFormat.readSharedString(in);
+    }
 }
@@ -0,0 +1,32 @@
+package com.hotel.shared.model;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One page of reservations from a keyset-paginated query
+ */
+public class ReservationPage implements Serializable {
+    private static final long serialVersionUID = 1L;
+    
+    private List<Reservation> reservations;
+    private String nextCursor; // null when there are no more pages
+    
+    public ReservationPage() {
+        this.reservations = new ArrayList<>();
+    }
+    
+    public ReservationPage(List<Reservation> reservations, String nextCursor) {
+        this.reservations = reservations;
+        this.nextCursor = nextCursor;
+    }
+    
+    public List<Reservation> getReservations() { return reservations; }
+    public void setReservations(List<Reservation> reservations) { this.reservations = reservations; }
+    
+    public String getNextCursor() { return nextCursor; }
+    public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+    
+    public boolean isHasMore() { return nextCursor != null; }
+}
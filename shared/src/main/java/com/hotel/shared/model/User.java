@@ -1,10 +1,14 @@
 package com.hotel.shared.model;
 
-import java.io.Serializable;
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
 import java.sql.Timestamp;
 
-public class User implements Serializable {
+public class User implements Externalizable {
     private static final long serialVersionUID = 1L;
+    private static final int WIRE_VERSION = 1;
     
     private int id;
     private String name;
@@ -55,4 +59,26 @@ public class User implements Serializable {
     public String toString() {
         return "User{id=" + id + ", name='" + name + "', email='" + email + "', role='" + role + "'}";
     }
+    
+    @Override
+    public void writeExternal(ObjectOutput out) throws IOException {
+        WireFormat.writeVersion(out, WIRE_VERSION);
+        WireFormat.writeInt(out, id);
+        WireFormat.writeString(out, name);
+        WireFormat.writeString(out, email);
+        WireFormat.writeString(out, password);
+        WireFormat.writeStatus(out, role);
+        WireFormat.writeTimestamp(out, createdAt);
+    }
+    
+    @Override
+    public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+        WireFormat.readVersion(in, WIRE_VERSION, "User");
+        id = WireFormat.readInt(in);
+        name = WireFormat.readString(in);
+        email = WireFormat.readString(in);
+        password = WireFormat.readString(in);
+        role = WireFormat.readStatus(in);
+        createdAt = WireFormat.readTimestamp(in);
+    }
 }
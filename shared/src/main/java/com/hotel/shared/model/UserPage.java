@@ -0,0 +1,32 @@
+package com.hotel.shared.model;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One page of users from a keyset-paginated query
+ */
+public class UserPage implements Serializable {
+    private static final long serialVersionUID = 1L;
+    
+    private List<User> users;
+    private String nextCursor; // null when there are no more pages
+    
+    public UserPage() {
+        this.users = new ArrayList<>();
+    }
+    
+    public UserPage(List<User> users, String nextCursor) {
+        this.users = users;
+        this.nextCursor = nextCursor;
+    }
+    
+    public List<User> getUsers() { return users; }
+    public void setUsers(List<User> users) { this.users = users; }
+    
+    public String getNextCursor() { return nextCursor; }
+    public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+    
+    public boolean isHasMore() { return nextCursor != null; }
+}
@@ -0,0 +1,264 @@
+package com.hotel.shared.model;
+
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.lang.ref.WeakReference;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Compact encoding helpers for the Externalizable models.
+ *
+ * Each model writes a version byte, then its fields in a fixed order:
+ * ints as zig-zag varints, dates as epoch days, timestamps as epoch millis,
+ * prices as scale plus unscaled long, and known statuses/roles as one-byte
+ * codes. Low-cardinality strings (city, status fallbacks, joined names) are
+ * written with writeObject after mapping equal values to one instance per
+ * stream, so repeats within one RMI response become stream back-references
+ * instead of copies.
+ *
+ * To add a field: append it at the end, bump the model's version, and only
+ * read it when the incoming version is new enough.
+ */
+final class WireFormat {
+    
+    private static final String[] STATUS_CODES = {
+        "pending", "approved", "rejected", "confirmed", "cancelled", "guest", "host", "admin", "banned"
+    };
+    private static final int STATUS_NULL = 0;
+    private static final int STATUS_OTHER = 0xFF;
+    
+    private static final int DECIMAL_NULL = 0;
+    private static final int DECIMAL_LONG = 1;
+    private static final int DECIMAL_BIG = 2;
+    
+    // Bounds the per-stream string map; past it, values are still written, just not deduplicated
+    private static final int MAX_SHARED_STRINGS = 4096;
+    
+    // A stream is written by one thread at a time, so each thread keeps the map of the stream it is writing
+    private static final ThreadLocal<SharedStrings> SHARED_STRINGS = ThreadLocal.withInitial(SharedStrings::new);
+    
+    private static final class SharedStrings {
+        WeakReference<ObjectOutput> stream = new WeakReference<>(null);
+        final HashMap<String, String> values = new HashMap<>();
+    }
+    
+    private WireFormat() {}
+    
+    static void writeVersion(ObjectOutput out, int version) throws IOException {
+        out.writeByte(version);
+    }
+    
+    static int readVersion(ObjectInput in, int supported, String type) throws IOException {
+        int version = in.readUnsignedByte();
+        if (version < 1 || version > supported) {
+            throw new InvalidObjectException("Unsupported " + type + " wire version " + version);
+        }
+        return version;
+    }
+    
+    static void writeInt(ObjectOutput out, int value) throws IOException {
+        writeLong(out, value);
+    }
+    
+    static int readInt(ObjectInput in) throws IOException {
+        return (int) readLong(in);
+    }
+    
+    static void writeLong(ObjectOutput out, long value) throws IOException {
+        long v = (value << 1) ^ (value >> 63);
+        while ((v & ~0x7FL) != 0) {
+            out.writeByte((int) ((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        out.writeByte((int) v);
+    }
+    
+    static long readLong(ObjectInput in) throws IOException {
+        long v = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            v |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return (v >>> 1) ^ -(v & 1);
+            }
+        }
+        throw new InvalidObjectException("Malformed varint");
+    }
+    
+    /**
+     * Free text: length-prefixed UTF-8, no length limit (unlike writeUTF)
+     */
+    static void writeString(ObjectOutput out, String value) throws IOException {
+        if (value == null) {
+            writeInt(out, -1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeInt(out, bytes.length);
+        out.write(bytes);
+    }
+    
+    static String readString(ObjectInput in) throws IOException {
+        int length = readInt(in);
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+    
+    /**
+     * Repeated values: equal strings in one stream are written as the same instance, so they share one handle
+     */
+    static void writeSharedString(ObjectOutput out, String value) throws IOException {
+        if (value != null) {
+            SharedStrings shared = SHARED_STRINGS.get();
+            if (shared.stream.get() != out) {
+                shared.stream = new WeakReference<>(out);
+                shared.values.clear();
+            }
+            String first = shared.values.get(value);
+            if (first != null) {
+                value = first;
+            } else if (shared.values.size() < MAX_SHARED_STRINGS) {
+                shared.values.put(value, value);
+            }
+        }
+        out.writeObject(value);
+    }
+    
+    static String readSharedString(ObjectInput in) throws IOException, ClassNotFoundException {
+        return (String) in.readObject();
+    }
+    
+    static void writeStatus(ObjectOutput out, String status) throws IOException {
+        if (status == null) {
+            out.writeByte(STATUS_NULL);
+            return;
+        }
+        for (int i = 0; i < STATUS_CODES.length; i++) {
+            if (STATUS_CODES[i].equals(status)) {
+                out.writeByte(i + 1);
+                return;
+            }
+        }
+        out.writeByte(STATUS_OTHER);
+        writeSharedString(out, status);
+    }
+    
+    static String readStatus(ObjectInput in) throws IOException, ClassNotFoundException {
+        int code = in.readUnsignedByte();
+        if (code == STATUS_NULL) {
+            return null;
+        }
+        if (code == STATUS_OTHER) {
+            return readSharedString(in);
+        }
+        if (code > STATUS_CODES.length) {
+            throw new InvalidObjectException("Unknown status code " + code);
+        }
+        return STATUS_CODES[code - 1];
+    }
+    
+    static void writeDate(ObjectOutput out, Date date) throws IOException {
+        out.writeBoolean(date != null);
+        if (date != null) {
+            writeLong(out, date.toLocalDate().toEpochDay());
+        }
+    }
+    
+    static Date readDate(ObjectInput in) throws IOException {
+        return in.readBoolean() ? Date.valueOf(LocalDate.ofEpochDay(readLong(in))) : null;
+    }
+    
+    static void writeTimestamp(ObjectOutput out, Timestamp timestamp) throws IOException {
+        out.writeBoolean(timestamp != null);
+        if (timestamp != null) {
+            // Millis carry everything down to the millisecond; the remaining nanos are almost always zero
+            writeLong(out, timestamp.getTime());
+            writeInt(out, timestamp.getNanos() % 1_000_000);
+        }
+    }
+    
+    static Timestamp readTimestamp(ObjectInput in) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        Timestamp timestamp = new Timestamp(readLong(in));
+        timestamp.setNanos(timestamp.getNanos() + readInt(in));
+        return timestamp;
+    }
+    
+    static void writeDecimal(ObjectOutput out, BigDecimal value) throws IOException {
+        if (value == null) {
+            out.writeByte(DECIMAL_NULL);
+            return;
+        }
+        BigInteger unscaled = value.unscaledValue();
+        if (unscaled.bitLength() < 64) {
+            out.writeByte(DECIMAL_LONG);
+            writeInt(out, value.scale());
+            writeLong(out, unscaled.longValue());
+        } else {
+            out.writeByte(DECIMAL_BIG);
+            writeInt(out, value.scale());
+            byte[] bytes = unscaled.toByteArray();
+            writeInt(out, bytes.length);
+            out.write(bytes);
+        }
+    }
+    
+    static BigDecimal readDecimal(ObjectInput in) throws IOException {
+        int tag = in.readUnsignedByte();
+        switch (tag) {
+            case DECIMAL_NULL:
+                return null;
+            case DECIMAL_LONG: {
+                int scale = readInt(in);
+                return BigDecimal.valueOf(readLong(in), scale);
+            }
+            case DECIMAL_BIG: {
+                int scale = readInt(in);
+                byte[] bytes = new byte[readInt(in)];
+                in.readFully(bytes);
+                return new BigDecimal(new BigInteger(bytes), scale);
+            }
+            default:
+                throw new InvalidObjectException("Unknown decimal tag " + tag);
+        }
+    }
+    
+    static void writeStringList(ObjectOutput out, List<String> values) throws IOException {
+        if (values == null) {
+            writeInt(out, -1);
+            return;
+        }
+        writeInt(out, values.size());
+        for (String value : values) {
+            writeString(out, value);
+        }
+    }
+    
+    static List<String> readStringList(ObjectInput in) throws IOException {
+        int size = readInt(in);
+        if (size < 0) {
+            return null;
+        }
+        List<String> values = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            values.add(readString(in));
+        }
+        return values;
+    }
+}
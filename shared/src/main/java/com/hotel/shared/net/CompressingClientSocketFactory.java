@@ -0,0 +1,63 @@
+package com.hotel.shared.net;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.rmi.server.RMIClientSocketFactory;
+
+/**
+ * Client side of {@link CompressingServerSocketFactory}.
+ *
+ * Serialized into every stub the server exports, so the client picks up the
+ * server's settings; it must exist with the same package and
+ * serialVersionUID on both sides.
+ */
+public class CompressingClientSocketFactory implements RMIClientSocketFactory, Serializable {
+    private static final long serialVersionUID = 1L;
+    
+    private final int compressionThreshold;
+    private final int bufferSize;
+    private final int connectTimeoutMs;
+    
+    public CompressingClientSocketFactory(int compressionThreshold, int bufferSize, int connectTimeoutMs) {
+        this.compressionThreshold = compressionThreshold;
+        this.bufferSize = bufferSize;
+        this.connectTimeoutMs = connectTimeoutMs;
+    }
+    
+    @Override
+    public Socket createSocket(String host, int port) throws IOException {
+        FramedSocket socket = new FramedSocket(compressionThreshold);
+        try {
+            socket.tune(bufferSize);
+            socket.connect(new InetSocketAddress(host, port), connectTimeoutMs);
+            return socket;
+        } catch (IOException e) {
+            socket.close();
+            throw e;
+        }
+    }
+    
+    /**
+     * Payload bytes handed to framed sockets in this JVM, and bytes actually sent for them
+     */
+    public static long getBytesWritten() { return FramedSocket.bytesWritten.get(); }
+    public static long getBytesOnWire() { return FramedSocket.bytesOnWire.get(); }
+    
+    // RMI reuses connections per (endpoint, factory), so equal settings must compare equal
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        CompressingClientSocketFactory that = (CompressingClientSocketFactory) o;
+        return compressionThreshold == that.compressionThreshold
+                && bufferSize == that.bufferSize
+                && connectTimeoutMs == that.connectTimeoutMs;
+    }
+    
+    @Override
+    public int hashCode() {
+        return (compressionThreshold * 31 + bufferSize) * 31 + connectTimeoutMs;
+    }
+}
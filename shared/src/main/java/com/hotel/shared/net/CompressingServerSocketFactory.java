@@ -0,0 +1,59 @@
+package com.hotel.shared.net;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.rmi.server.RMIServerSocketFactory;
+
+/**
+ * Server sockets for exported services: TCP_NODELAY, keepalive, sized
+ * buffers and framed streams that deflate payloads above a size threshold.
+ */
+public class CompressingServerSocketFactory implements RMIServerSocketFactory {
+    
+    private final int compressionThreshold;
+    private final int bufferSize;
+    
+    public CompressingServerSocketFactory(int compressionThreshold, int bufferSize) {
+        this.compressionThreshold = compressionThreshold;
+        this.bufferSize = bufferSize;
+    }
+    
+    @Override
+    public ServerSocket createServerSocket(int port) throws IOException {
+        ServerSocket serverSocket = new ServerSocket() {
+            @Override
+            public Socket accept() throws IOException {
+                FramedSocket socket = new FramedSocket(compressionThreshold);
+                implAccept(socket);
+                socket.tune(bufferSize);
+                return socket;
+            }
+        };
+        try {
+            // Accepted sockets inherit the receive buffer, which must be set before bind
+            if (bufferSize > 0) {
+                serverSocket.setReceiveBufferSize(bufferSize);
+            }
+            serverSocket.bind(new InetSocketAddress(port));
+            return serverSocket;
+        } catch (IOException e) {
+            serverSocket.close();
+            throw e;
+        }
+    }
+    
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        CompressingServerSocketFactory that = (CompressingServerSocketFactory) o;
+        return compressionThreshold == that.compressionThreshold && bufferSize == that.bufferSize;
+    }
+    
+    @Override
+    public int hashCode() {
+        return compressionThreshold * 31 + bufferSize;
+    }
+}
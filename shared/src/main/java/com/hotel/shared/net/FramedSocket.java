@@ -0,0 +1,287 @@
+package com.hotel.shared.net;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Socket whose streams exchange length-prefixed frames, compressing large ones.
+ *
+ * Writes are buffered until flush() (RMI flushes after every call and
+ * return), and each flush becomes one frame. A frame at least
+ * compressionThreshold bytes long is deflated if that makes it smaller.
+ * A negative threshold disables compression but keeps the framing, so both
+ * ends always agree on the wire format.
+ *
+ * Frame: flag byte (0 = raw, 1 = deflated), payload length, [raw length], payload.
+ */
+class FramedSocket extends Socket {
+    private static final int MAX_FRAME = 1 << 20;
+    
+    static final AtomicLong bytesWritten = new AtomicLong();
+    static final AtomicLong bytesOnWire = new AtomicLong();
+    
+    private final int compressionThreshold;
+    private InputStream in;
+    private OutputStream out;
+    
+    FramedSocket(int compressionThreshold) {
+        this.compressionThreshold = compressionThreshold;
+    }
+    
+    /**
+     * Apply TCP options; buffer sizes must be set before connecting to take effect
+     */
+    void tune(int bufferSize) throws SocketException {
+        setTcpNoDelay(true);
+        setKeepAlive(true);
+        if (bufferSize > 0) {
+            setSendBufferSize(bufferSize);
+            setReceiveBufferSize(bufferSize);
+        }
+    }
+    
+    @Override
+    public synchronized InputStream getInputStream() throws IOException {
+        if (in == null) {
+            in = new FramedInputStream(super.getInputStream());
+        }
+        return in;
+    }
+    
+    @Override
+    public synchronized OutputStream getOutputStream() throws IOException {
+        if (out == null) {
+            out = new FramedOutputStream(super.getOutputStream(), compressionThreshold);
+        }
+        return out;
+    }
+    
+    private static final class FramedOutputStream extends FilterOutputStream {
+        private final DataOutputStream data;
+        private final int threshold;
+        private byte[] buffer = new byte[8192];
+        private int count;
+        private Deflater deflater;
+        private byte[] compressed;
+        
+        FramedOutputStream(OutputStream out, int threshold) {
+            super(out);
+            this.data = new DataOutputStream(out);
+            this.threshold = threshold;
+        }
+        
+        @Override
+        public void write(int b) throws IOException {
+            ensureRoom(1);
+            buffer[count++] = (byte) b;
+        }
+        
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            while (len > 0) {
+                ensureRoom(Math.min(len, MAX_FRAME));
+                int n = Math.min(len, buffer.length - count);
+                System.arraycopy(b, off, buffer, count, n);
+                count += n;
+                off += n;
+                len -= n;
+            }
+        }
+        
+        @Override
+        public void flush() throws IOException {
+            writeFrame();
+            data.flush();
+        }
+        
+        @Override
+        public void close() throws IOException {
+            try {
+                flush();
+            } finally {
+                if (deflater != null) {
+                    deflater.end();
+                }
+                data.close();
+            }
+        }
+        
+        private void ensureRoom(int needed) throws IOException {
+            if (count + needed <= buffer.length) {
+                return;
+            }
+            if (count + needed > MAX_FRAME) {
+                writeFrame();
+                if (needed <= buffer.length) {
+                    return;
+                }
+            }
+            int size = buffer.length;
+            while (size < count + needed) {
+                size *= 2;
+            }
+            byte[] grown = new byte[Math.min(size, MAX_FRAME)];
+            System.arraycopy(buffer, 0, grown, 0, count);
+            buffer = grown;
+        }
+        
+        private void writeFrame() throws IOException {
+            if (count == 0) {
+                return;
+            }
+            bytesWritten.addAndGet(count);
+            
+            if (threshold >= 0 && count >= threshold) {
+                if (deflater == null) {
+                    deflater = new Deflater(Deflater.BEST_SPEED);
+                }
+                if (compressed == null || compressed.length < count) {
+                    compressed = new byte[buffer.length];
+                }
+                deflater.reset();
+                deflater.setInput(buffer, 0, count);
+                deflater.finish();
+                int size = deflater.deflate(compressed, 0, count);
+                
+                // Only send compressed if it fit in fewer bytes than the raw payload
+                if (deflater.finished() && size < count) {
+                    data.writeByte(1);
+                    data.writeInt(size);
+                    data.writeInt(count);
+                    data.write(compressed, 0, size);
+                    bytesOnWire.addAndGet(9 + size);
+                    count = 0;
+                    return;
+                }
+            }
+            
+            data.writeByte(0);
+            data.writeInt(count);
+            data.write(buffer, 0, count);
+            bytesOnWire.addAndGet(5 + count);
+            count = 0;
+        }
+    }
+    
+    private static final class FramedInputStream extends InputStream {
+        private final DataInputStream data;
+        private byte[] buffer = new byte[8192];
+        private byte[] compressed;
+        private int pos;
+        private int limit;
+        private Inflater inflater;
+        
+        FramedInputStream(InputStream in) {
+            this.data = new DataInputStream(in);
+        }
+        
+        @Override
+        public int read() throws IOException {
+            if (pos == limit && !readFrame()) {
+                return -1;
+            }
+            return buffer[pos++] & 0xFF;
+        }
+        
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            if (pos == limit && !readFrame()) {
+                return -1;
+            }
+            int n = Math.min(len, limit - pos);
+            System.arraycopy(buffer, pos, b, off, n);
+            pos += n;
+            return n;
+        }
+        
+        @Override
+        public int available() {
+            return limit - pos;
+        }
+        
+        @Override
+        public void close() throws IOException {
+            if (inflater != null) {
+                inflater.end();
+            }
+            data.close();
+        }
+        
+        /**
+         * Read the next non-empty frame; false at end of stream
+         */
+        private boolean readFrame() throws IOException {
+            do {
+                int flag = data.read();
+                if (flag < 0) {
+                    return false;
+                }
+                int length = data.readInt();
+                if (length < 0 || length > MAX_FRAME) {
+                    throw new IOException("Invalid frame length: " + length);
+                }
+                
+                if (flag == 0) {
+                    buffer = ensure(buffer, length);
+                    data.readFully(buffer, 0, length);
+                    limit = length;
+                } else if (flag == 1) {
+                    int rawLength = data.readInt();
+                    if (rawLength < 0 || rawLength > MAX_FRAME) {
+                        throw new IOException("Invalid frame length: " + rawLength);
+                    }
+                    compressed = ensure(compressed, length);
+                    data.readFully(compressed, 0, length);
+                    buffer = ensure(buffer, rawLength);
+                    inflate(length, rawLength);
+                    limit = rawLength;
+                } else {
+                    throw new IOException("Invalid frame flag: " + flag);
+                }
+                pos = 0;
+            } while (limit == 0);
+            return true;
+        }
+        
+        private void inflate(int length, int rawLength) throws IOException {
+            if (inflater == null) {
+                inflater = new Inflater();
+            }
+            inflater.reset();
+            inflater.setInput(compressed, 0, length);
+            try {
+                int n = 0;
+                while (n < rawLength && !inflater.finished()) {
+                    int inflated = inflater.inflate(buffer, n, rawLength - n);
+                    if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                        break;
+                    }
+                    n += inflated;
+                }
+                if (n != rawLength) {
+                    throw new EOFException("Truncated compressed frame");
+                }
+            } catch (DataFormatException e) {
+                throw new IOException("Corrupt compressed frame", e);
+            }
+        }
+        
+        private static byte[] ensure(byte[] array, int size) {
+            return array != null && array.length >= size ? array : new byte[Math.max(size, 8192)];
+        }
+    }
+}
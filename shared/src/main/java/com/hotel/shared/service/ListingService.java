@@ -1,11 +1,15 @@
 package com.hotel.shared.service;
 
 import com.hotel.shared.model.Listing;
+import com.hotel.shared.model.ListingPage;
+import com.hotel.shared.model.ListingSearchCriteria;
 import com.hotel.shared.exception.AuthorizationException;
 import com.hotel.shared.exception.NotFoundException;
+import com.hotel.shared.exception.ValidationException;
 import java.rmi.Remote;
 import java.rmi.RemoteException;
 import java.util.List;
+import java.util.Map;
 
 public interface ListingService extends Remote {
     
@@ -63,6 +67,58 @@ public interface ListingService extends Remote {
      */
     List<Listing> getAllListings() throws RemoteException;
     
+    /**
+     * Get one page of listings, newest first (public access)
+     * @param cursor The nextCursor of the previous page, or null for the first page
+     * @param limit Maximum number of listings to return (capped by the server)
+     * @return The page with a cursor for the next one
+     * @throws RemoteException If RMI communication fails
+     * @throws ValidationException If the cursor is invalid
+     */
+    ListingPage getListingsPage(String cursor, int limit) throws RemoteException, ValidationException;
+    
+    /**
+     * Search listings by city, price range, capacity and sort order (public access)
+     * @param criteria The filters to apply; the result size is capped by the server
+     * @return Matching listings with images
+     * @throws RemoteException If RMI communication fails
+     */
+    List<Listing> searchListings(ListingSearchCriteria criteria) throws RemoteException;
+    
+    /**
+     * Full-text search over title, city and description of approved listings (public access).
+     * Query words also match words they are a prefix of; results are ranked by relevance.
+     * @param query Free-text query
+     * @param limit Maximum number of results (capped by the server)
+     * @return Matching listings, best match first
+     * @throws RemoteException If RMI communication fails
+     */
+    List<Listing> searchText(String query, int limit) throws RemoteException;
+    
+    /**
+     * Version of the public catalog; changes whenever any listing changes
+     * @return Opaque version, only compared for equality; the same on every instance sharing the database
+     * @throws RemoteException If RMI communication fails
+     */
+    long getCatalogVersion() throws RemoteException;
+    
+    /**
+     * Version of one listing, including its host's profile
+     * @param listingId The ID of the listing
+     * @return Opaque version, only compared for equality
+     * @throws RemoteException If RMI communication fails
+     * @throws NotFoundException If listing doesn't exist
+     */
+    long getListingVersion(int listingId) throws RemoteException, NotFoundException;
+    
+    /**
+     * Version of a host's profile and listings
+     * @param hostId The ID of the host
+     * @return Opaque version, only compared for equality
+     * @throws RemoteException If RMI communication fails
+     */
+    long getHostVersion(int hostId) throws RemoteException;
+    
     /**
      * Add an image to a listing (only owner can add)
      * @param listingId The ID of the listing
@@ -74,6 +130,14 @@ public interface ListingService extends Remote {
      */
     void addListingImage(int listingId, String imageUrl, int currentUserId) throws RemoteException, AuthorizationException, NotFoundException;
     
+    /**
+     * Count the listing images that use each content-addressed upload
+     * @param contentHashes SHA-256 hex digests of uploaded files
+     * @return Number of listing images per digest, 0 for digests no listing uses
+     * @throws RemoteException If RMI communication fails
+     */
+    Map<String, Integer> getImageReferenceCounts(List<String> contentHashes) throws RemoteException;
+    
     /**
      * Update listing status (admin only)
      * @param listingId The ID of the listing
@@ -1,10 +1,16 @@
 package com.hotel.shared.service;
 
+import com.hotel.shared.model.BookedRange;
+import com.hotel.shared.model.DashboardStats;
 import com.hotel.shared.model.Reservation;
+import com.hotel.shared.model.ReservationPage;
 import com.hotel.shared.exception.AuthorizationException;
+import com.hotel.shared.exception.ConflictException;
 import com.hotel.shared.exception.NotFoundException;
+import com.hotel.shared.exception.ValidationException;
 import java.rmi.Remote;
 import java.rmi.RemoteException;
+import java.sql.Date;
 import java.util.List;
 
 public interface ReservationService extends Remote {
@@ -17,6 +23,14 @@ public interface ReservationService extends Remote {
      */
     List<Reservation> getReservationsByHost(int hostId) throws RemoteException;
     
+    /**
+     * Get all reservations made by a guest, newest first, with listing title, city and address filled in
+     * @param userId The ID of the guest
+     * @return List of the guest's reservations
+     * @throws RemoteException If RMI communication fails
+     */
+    List<Reservation> getReservationsByGuest(int userId) throws RemoteException;
+    
     /**
      * Get all reservations in the system (admin only)
      * @return List of all reservations
@@ -24,6 +38,16 @@ public interface ReservationService extends Remote {
      */
     List<Reservation> getAllReservations() throws RemoteException;
     
+    /**
+     * Get one page of all reservations, newest first (admin only)
+     * @param cursor The nextCursor of the previous page, or null for the first page
+     * @param limit Maximum number of reservations to return (capped by the server)
+     * @return The page with a cursor for the next one
+     * @throws RemoteException If RMI communication fails
+     * @throws ValidationException If the cursor is invalid
+     */
+    ReservationPage getReservationsPage(String cursor, int limit) throws RemoteException, ValidationException;
+    
     /**
      * Get reservations for a specific listing (only owner can view)
      * @param listingId The ID of the listing
@@ -44,12 +68,46 @@ public interface ReservationService extends Remote {
     Reservation getReservationById(int reservationId) throws RemoteException, NotFoundException;
     
     /**
-     * Create a new reservation (guest creates)
+     * Create a new reservation (guest creates).
+     * The availability check and insert are atomic, so overlapping requests cannot both succeed.
      * @param reservation The reservation to create
      * @return The created reservation with generated ID
      * @throws RemoteException If RMI communication fails
+     * @throws ValidationException If the dates are missing or check-out is not after check-in
+     * @throws ConflictException If the dates are already booked
+     */
+    Reservation createReservation(Reservation reservation) throws RemoteException, ValidationException, ConflictException;
+    
+    /**
+     * Check whether a listing is free for the given stay
+     * @param listingId The ID of the listing
+     * @param checkIn The check-in date
+     * @param checkOut The check-out date (exclusive)
+     * @return true if no pending or confirmed reservation overlaps the stay
+     * @throws RemoteException If RMI communication fails
+     * @throws ValidationException If the dates are missing or check-out is not after check-in
+     */
+    boolean isAvailable(int listingId, Date checkIn, Date checkOut) throws RemoteException, ValidationException;
+    
+    /**
+     * Get the booked (pending or confirmed) date ranges of a listing, served from memory.
+     * Overlapping and back-to-back reservations are merged into one range.
+     * @param listingId The ID of the listing
+     * @param from Start of the window, or null for no lower bound
+     * @param to End of the window (exclusive), or null for no upper bound
+     * @return Booked ranges intersecting the window, in date order
+     * @throws RemoteException If RMI communication fails
+     * @throws ValidationException If the window ends before it starts
+     */
+    List<BookedRange> getBookedRanges(int listingId, Date from, Date to) throws RemoteException, ValidationException;
+    
+    /**
+     * Get admin dashboard totals (listing and reservation counts by status, confirmed revenue).
+     * Served from running aggregates, so the cost does not depend on table size.
+     * @return Current dashboard totals
+     * @throws RemoteException If RMI communication fails
      */
-    Reservation createReservation(Reservation reservation) throws RemoteException;
+    DashboardStats getDashboardStats() throws RemoteException;
     
     /**
      * Update reservation status (host can update status)
@@ -60,8 +118,9 @@ public interface ReservationService extends Remote {
      * @throws RemoteException If RMI communication fails
      * @throws AuthorizationException If user doesn't own the listing
      * @throws NotFoundException If reservation doesn't exist
+     * @throws ValidationException If the status is not pending, confirmed or cancelled
      */
-    boolean updateReservationStatus(int reservationId, String newStatus, int currentUserId) throws RemoteException, AuthorizationException, NotFoundException;
+    boolean updateReservationStatus(int reservationId, String newStatus, int currentUserId) throws RemoteException, AuthorizationException, NotFoundException, ValidationException;
     
     /**
      * Cancel (delete) a reservation (host can cancel)
@@ -1,16 +1,22 @@
 package com.hotel.shared.service;
 
+import com.hotel.shared.exception.ValidationException;
 import com.hotel.shared.model.User;
+import com.hotel.shared.model.UserPage;
 import java.rmi.Remote;
 import java.rmi.RemoteException;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 public interface UserService extends Remote {
     User register(User user) throws RemoteException;
     User login(String email, String password) throws RemoteException;
     User getUserById(int userId) throws RemoteException;
+    Map<Integer, User> getUsersByIds(Collection<Integer> userIds) throws RemoteException;
     User updateUserRole(int userId, String role) throws RemoteException;
     List<User> getAllUsers() throws RemoteException;
+    UserPage getUsersPage(String cursor, int limit) throws RemoteException, ValidationException;
     boolean banUser(int userId) throws RemoteException;
     User updateUserProfile(int userId, String name, String email) throws RemoteException;
     boolean changePassword(int userId, String currentPassword, String newPassword) throws RemoteException;
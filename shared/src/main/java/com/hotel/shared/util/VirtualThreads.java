@@ -0,0 +1,66 @@
+package com.hotel.shared.util;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Virtual-thread factories, looked up reflectively.
+ *
+ * The project compiles for Java 11, so Thread.ofVirtual() cannot be called
+ * directly. On a JDK 21+ runtime these helpers return virtual-thread
+ * factories and executors; on older runtimes {@link #isSupported()} is
+ * false and callers keep their platform threads. Used by spring-api's
+ * request and fan-out threads and by rmi-server's scheduler workers.
+ */
+public final class VirtualThreads {
+    
+    // Thread.ofVirtual() exists on 19 and 20 too, but only as a preview feature
+    private static final Method OF_VIRTUAL = Runtime.version().feature() >= 21 ? findMethod(Thread.class, "ofVirtual") : null;
+    
+    private VirtualThreads() {
+    }
+    
+    public static boolean isSupported() {
+        return OF_VIRTUAL != null;
+    }
+    
+    /**
+     * Factory for virtual threads named prefix0, prefix1, ...
+     * @throws IllegalStateException when the runtime has no virtual threads
+     */
+    public static ThreadFactory factory(String prefix) {
+        if (OF_VIRTUAL == null) {
+            throw new IllegalStateException("Virtual threads require Java 21+, running on " + System.getProperty("java.version"));
+        }
+        try {
+            Object builder = OF_VIRTUAL.invoke(null);
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, prefix, 0L);
+            return (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Could not create a virtual thread factory", e);
+        }
+    }
+    
+    /**
+     * Executor that starts one new virtual thread per task
+     */
+    public static ExecutorService perTaskExecutor(String prefix) {
+        try {
+            Method perTask = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+            return (ExecutorService) perTask.invoke(null, factory(prefix));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Could not create a virtual thread executor", e);
+        }
+    }
+    
+    private static Method findMethod(Class<?> type, String name) {
+        try {
+            return type.getMethod(name);
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.hotel.shared.model;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Size and speed of a List&lt;Listing&gt; through ObjectOutputStream, compact wire
+ * format against default serialization of the same fields.
+ *
+ * Not a JMH suite (the build has no JMH); it warms up for a few seconds,
+ * then reports the median of several timed rounds. Not run by the test suite, e.g.
+ *
+ *   java -cp shared/target/classes:shared/target/test-classes com.hotel.shared.model.WireFormatBenchmark
+ *
+ * Rows are synthetic: 20 cities, 3 statuses, a 160-character description
+ * and two image URLs per listing.
+ */
+public class WireFormatBenchmark {
+    
+    private static final String[] CITIES = {
+        "Marrakesh", "Casablanca", "Rabat", "Fes", "Tangier", "Agadir", "Essaouira", "Chefchaouen", "Meknes", "Ouarzazate",
+        "Lisbon", "Porto", "Seville", "Granada", "Valencia", "Barcelona", "Madrid", "Malaga", "Cadiz", "Cordoba"
+    };
+    private static final String[] STATUSES = {"approved", "pending", "rejected"};
+    private static final long WARMUP_NANOS = 3_000_000_000L;
+    private static final int TIMED_ROUNDS = 15;
+    
+    public static void main(String[] args) throws Exception {
+        System.out.println("java=" + System.getProperty("java.version"));
+        for (int rows : new int[] {1000, 10000}) {
+            List<Listing> compact = new ArrayList<>(rows);
+            List<LegacyListing> legacy = new ArrayList<>(rows);
+            for (int i = 0; i < rows; i++) {
+                Listing listing = listing(i);
+                compact.add(listing);
+                legacy.add(new LegacyListing(listing));
+            }
+            report(rows, "default", legacy);
+            report(rows, "compact", compact);
+        }
+    }
+    
+    private static void report(int rows, String format, Object payload) throws Exception {
+        byte[] bytes = serialize(payload);
+        long warmedUp = System.nanoTime() + WARMUP_NANOS;
+        while (System.nanoTime() < warmedUp) {
+            deserialize(serialize(payload));
+        }
+        long[] ser = new long[TIMED_ROUNDS];
+        long[] deser = new long[TIMED_ROUNDS];
+        for (int i = 0; i < TIMED_ROUNDS; i++) {
+            long start = System.nanoTime();
+            serialize(payload);
+            ser[i] = System.nanoTime() - start;
+            start = System.nanoTime();
+            deserialize(bytes);
+            deser[i] = System.nanoTime() - start;
+        }
+        System.out.printf("%6d rows %-8s %9.1f KB  ser %6.2f ms  deser %6.2f ms%n",
+                rows, format, bytes.length / 1024.0, median(ser) / 1e6, median(deser) / 1e6);
+    }
+    
+    private static byte[] serialize(Object payload) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(payload);
+        }
+        return bytes.toByteArray();
+    }
+    
+    private static Object deserialize(byte[] bytes) throws IOException, ClassNotFoundException {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            return in.readObject();
+        }
+    }
+    
+    private static long median(long[] values) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+    
+    public static Listing listing(int i) {
+        StringBuilder description = new StringBuilder();
+        while (description.length() < 160) {
+            description.append("Bright apartment ").append(i).append(" close to the old town, with a terrace. ");
+        }
+        Listing listing = new Listing(i + 1, 1 + i % 50, "Listing " + i + " with a view", description.substring(0, 160),
+                (i * 7 % 300) + " Main Street", new String(CITIES[i % CITIES.length]),
+                BigDecimal.valueOf(5000 + i * 37 % 20000, 2), 1 + i % 6, new Timestamp(1_700_000_000_000L + i * 60_000L));
+        listing.setBeds(1 + i % 4);
+        listing.setBathrooms(1 + i % 2);
+        listing.setStatus(new String(STATUSES[i % STATUSES.length]));
+        listing.setImageUrls(Arrays.asList("/uploads/images/ab/cd/" + i + "a.jpg", "/uploads/images/ef/01/" + i + "b.jpg"));
+        return listing;
+    }
+    
+    /**
+     * The same fields with default serialization, as Listing was sent before it was Externalizable
+     */
+    private static final class LegacyListing implements Serializable {
+        private static final long serialVersionUID = 1L;
+        
+        private final int id;
+        private final int userId;
+        private final String title;
+        private final String description;
+        private final String address;
+        private final String city;
+        private final BigDecimal pricePerNight;
+        private final int maxGuests;
+        private final int beds;
+        private final int bathrooms;
+        private final String status;
+        private final Timestamp createdAt;
+        private final List<String> imageUrls;
+        
+        LegacyListing(Listing listing) {
+            id = listing.getId();
+            userId = listing.getUserId();
+            title = listing.getTitle();
+            description = listing.getDescription();
+            address = listing.getAddress();
+            city = listing.getCity();
+            pricePerNight = listing.getPricePerNight();
+            maxGuests = listing.getMaxGuests();
+            beds = listing.getBeds();
+            bathrooms = listing.getBathrooms();
+            status = listing.getStatus();
+            createdAt = listing.getCreatedAt();
+            imageUrls = new ArrayList<>(listing.getImageUrls());
+        }
+    }
+}
@@ -0,0 +1,350 @@
+package com.hotel.shared.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInput;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutput;
+import java.io.ObjectOutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Round trips of every WireFormat encoding through real object streams.
+ */
+class WireFormatTest {
+    
+    private static final long[] LONGS = {
+        0, 1, -1, 63, 64, -64, -65, 8191, 8192, Integer.MAX_VALUE, Integer.MIN_VALUE,
+        Long.MAX_VALUE, Long.MIN_VALUE, Long.MAX_VALUE - 1, Long.MIN_VALUE + 1
+    };
+    
+    @Test
+    void varintsRoundTripAtTheExtremes() throws Exception {
+        byte[] bytes = write(out -> {
+            for (long value : LONGS) {
+                WireFormat.writeLong(out, value);
+            }
+            WireFormat.writeInt(out, Integer.MAX_VALUE);
+            WireFormat.writeInt(out, Integer.MIN_VALUE);
+        });
+        read(bytes, in -> {
+            for (long value : LONGS) {
+                assertEquals(value, WireFormat.readLong(in));
+            }
+            assertEquals(Integer.MAX_VALUE, WireFormat.readInt(in));
+            assertEquals(Integer.MIN_VALUE, WireFormat.readInt(in));
+            return null;
+        });
+    }
+    
+    @Test
+    void zigZagKeepsSmallMagnitudesShort() throws Exception {
+        assertEquals(1, varintSize(0));
+        assertEquals(1, varintSize(-1));
+        assertEquals(1, varintSize(63));
+        assertEquals(1, varintSize(-64));
+        assertEquals(2, varintSize(64));
+        assertEquals(5, varintSize(Integer.MIN_VALUE));
+        assertEquals(10, varintSize(Long.MIN_VALUE));
+        assertEquals(10, varintSize(Long.MAX_VALUE));
+    }
+    
+    @Test
+    void overlongVarintIsRejected() throws Exception {
+        byte[] bytes = write(out -> {
+            for (int i = 0; i < 10; i++) {
+                out.writeByte(0x80);
+            }
+        });
+        assertThrows(InvalidObjectException.class, () -> read(bytes, WireFormat::readLong));
+    }
+    
+    @Test
+    void decimalsRoundTripWithScale() throws Exception {
+        List<BigDecimal> values = Arrays.asList(
+                null,
+                new BigDecimal("0.00"),
+                new BigDecimal("149.99"),
+                new BigDecimal("-12.5"),
+                new BigDecimal("1E+3"),
+                new BigDecimal(BigInteger.valueOf(Long.MAX_VALUE), 2),
+                new BigDecimal(BigInteger.valueOf(Long.MIN_VALUE), 2),
+                // Unscaled values of 64 bits or more take the DECIMAL_BIG path
+                new BigDecimal(BigInteger.ONE.shiftLeft(63), 2),
+                new BigDecimal(BigInteger.ONE.shiftLeft(63).negate().subtract(BigInteger.ONE), 0),
+                new BigDecimal("123456789012345678901234567890.123456789"),
+                new BigDecimal("-98765432109876543210987654321E-40"));
+        byte[] bytes = write(out -> {
+            for (BigDecimal value : values) {
+                WireFormat.writeDecimal(out, value);
+            }
+        });
+        read(bytes, in -> {
+            for (BigDecimal value : values) {
+                BigDecimal decoded = WireFormat.readDecimal(in);
+                assertEquals(value, decoded);
+                if (value != null) {
+                    assertEquals(value.scale(), decoded.scale());
+                }
+            }
+            return null;
+        });
+    }
+    
+    @Test
+    void timestampsKeepSubMillisecondNanosAndPreEpochValues() throws Exception {
+        List<Timestamp> values = Arrays.asList(
+                null,
+                new Timestamp(0),
+                Timestamp.valueOf("2024-03-01 12:34:56.123456789"),
+                Timestamp.valueOf("2024-03-01 12:34:56.000000001"),
+                Timestamp.valueOf("2024-03-01 12:34:56.999999999"),
+                Timestamp.valueOf("1969-12-31 23:59:59.999999999"),
+                Timestamp.valueOf("1969-12-31 23:59:59.000000001"),
+                Timestamp.valueOf("1900-01-01 00:00:00.000500000"),
+                new Timestamp(-1));
+        byte[] bytes = write(out -> {
+            for (Timestamp value : values) {
+                WireFormat.writeTimestamp(out, value);
+            }
+        });
+        read(bytes, in -> {
+            for (Timestamp value : values) {
+                Timestamp decoded = WireFormat.readTimestamp(in);
+                assertEquals(value, decoded);
+                if (value != null) {
+                    assertEquals(value.getNanos(), decoded.getNanos());
+                    assertEquals(value.getTime(), decoded.getTime());
+                }
+            }
+            return null;
+        });
+    }
+    
+    @Test
+    void datesRoundTripBeforeAndAfterEpoch() throws Exception {
+        List<Date> values = Arrays.asList(null, Date.valueOf("1970-01-01"), Date.valueOf("1969-12-31"),
+                Date.valueOf("1899-07-14"), Date.valueOf("2099-12-31"));
+        byte[] bytes = write(out -> {
+            for (Date value : values) {
+                WireFormat.writeDate(out, value);
+            }
+        });
+        read(bytes, in -> {
+            for (Date value : values) {
+                assertEquals(value, WireFormat.readDate(in));
+            }
+            return null;
+        });
+    }
+    
+    @Test
+    void nullFieldsRoundTrip() throws Exception {
+        byte[] bytes = write(out -> {
+            WireFormat.writeString(out, null);
+            WireFormat.writeString(out, "");
+            WireFormat.writeSharedString(out, null);
+            WireFormat.writeStatus(out, null);
+            WireFormat.writeStringList(out, null);
+            WireFormat.writeStringList(out, new ArrayList<>());
+            WireFormat.writeStringList(out, Arrays.asList("a", null, "\u00fc\u20ac\uD834\uDD1E"));
+        });
+        read(bytes, in -> {
+            assertNull(WireFormat.readString(in));
+            assertEquals("", WireFormat.readString(in));
+            assertNull(WireFormat.readSharedString(in));
+            assertNull(WireFormat.readStatus(in));
+            assertNull(WireFormat.readStringList(in));
+            assertEquals(new ArrayList<>(), WireFormat.readStringList(in));
+            assertEquals(Arrays.asList("a", null, "\u00fc\u20ac\uD834\uDD1E"), WireFormat.readStringList(in));
+            return null;
+        });
+        
+        Listing empty = new Listing();
+        empty.setImageUrls(null);
+        Listing decoded = roundTrip(empty);
+        assertNull(decoded.getTitle());
+        assertNull(decoded.getCity());
+        assertNull(decoded.getPricePerNight());
+        assertNull(decoded.getStatus());
+        assertNull(decoded.getCreatedAt());
+        assertNull(decoded.getImageUrls());
+    }
+    
+    @Test
+    void statusesUseCodesAndFallBackToText() throws Exception {
+        List<String> values = Arrays.asList("pending", "approved", "banned", "archived", "Approved");
+        byte[] bytes = write(out -> {
+            for (String value : values) {
+                WireFormat.writeStatus(out, value);
+            }
+        });
+        read(bytes, in -> {
+            for (String value : values) {
+                assertEquals(value, WireFormat.readStatus(in));
+            }
+            return null;
+        });
+    }
+    
+    @Test
+    void sharedStringsAreWrittenOncePerStream() throws Exception {
+        int rows = 200;
+        byte[] shared = write(out -> {
+            for (int i = 0; i < rows; i++) {
+                // Distinct instances, as JDBC returns them
+                WireFormat.writeSharedString(out, new String("Marrakesh"));
+            }
+        });
+        byte[] plain = write(out -> {
+            for (int i = 0; i < rows; i++) {
+                out.writeObject(new String("Marrakesh"));
+            }
+        });
+        // A back-reference is 5 bytes against 12 for the string itself
+        assertTrue(shared.length * 2 < plain.length, shared.length + " vs " + plain.length);
+        
+        read(shared, in -> {
+            String first = WireFormat.readSharedString(in);
+            for (int i = 1; i < rows; i++) {
+                assertSame(first, WireFormat.readSharedString(in));
+            }
+            return null;
+        });
+    }
+    
+    @Test
+    void sharedStringsDoNotLeakAcrossStreams() throws Exception {
+        // Two streams written alternately on one thread, then a third after both are closed
+        ByteArrayOutputStream first = new ByteArrayOutputStream();
+        ByteArrayOutputStream second = new ByteArrayOutputStream();
+        List<String> expected = new ArrayList<>();
+        try (ObjectOutputStream a = new ObjectOutputStream(first);
+             ObjectOutputStream b = new ObjectOutputStream(second)) {
+            for (int i = 0; i < 60; i++) {
+                String value = "city-" + (i % 7);
+                expected.add(value);
+                WireFormat.writeSharedString(a, new String(value));
+                WireFormat.writeSharedString(b, new String(value));
+                WireFormat.writeSharedString(b, new String(value));
+            }
+        }
+        byte[] third = write(out -> {
+            for (String value : expected) {
+                WireFormat.writeSharedString(out, new String(value));
+            }
+        });
+        
+        read(first.toByteArray(), in -> {
+            for (String value : expected) {
+                assertEquals(value, WireFormat.readSharedString(in));
+            }
+            return null;
+        });
+        read(second.toByteArray(), in -> {
+            for (String value : expected) {
+                assertEquals(value, WireFormat.readSharedString(in));
+                assertEquals(value, WireFormat.readSharedString(in));
+            }
+            return null;
+        });
+        read(third, in -> {
+            List<String> decoded = new ArrayList<>();
+            for (String value : expected) {
+                decoded.add(WireFormat.readSharedString(in));
+            }
+            assertEquals(expected, decoded);
+            assertSame(decoded.get(0), decoded.get(7));
+            return null;
+        });
+    }
+    
+    @Test
+    void listingRoundTripsEveryField() throws Exception {
+        Listing listing = new Listing(42, 7, "Riad with pool", "Quiet courtyard\nand a long description",
+                "12 Derb Sidi", "Marrakesh", new BigDecimal("89.90"), 4, Timestamp.valueOf("2025-05-04 10:11:12.131415161"));
+        listing.setBeds(2);
+        listing.setBathrooms(1);
+        listing.setStatus("approved");
+        listing.setImageUrls(Arrays.asList("/uploads/images/ab/cd/x.jpg", "/uploads/images/ef/01/y.png"));
+        
+        Listing decoded = roundTrip(listing);
+        assertEquals(listing.getId(), decoded.getId());
+        assertEquals(listing.getUserId(), decoded.getUserId());
+        assertEquals(listing.getTitle(), decoded.getTitle());
+        assertEquals(listing.getDescription(), decoded.getDescription());
+        assertEquals(listing.getAddress(), decoded.getAddress());
+        assertEquals(listing.getCity(), decoded.getCity());
+        assertEquals(listing.getPricePerNight(), decoded.getPricePerNight());
+        assertEquals(listing.getMaxGuests(), decoded.getMaxGuests());
+        assertEquals(listing.getBeds(), decoded.getBeds());
+        assertEquals(listing.getBathrooms(), decoded.getBathrooms());
+        assertEquals(listing.getStatus(), decoded.getStatus());
+        assertEquals(listing.getCreatedAt(), decoded.getCreatedAt());
+        assertEquals(listing.getImageUrls(), decoded.getImageUrls());
+    }
+    
+    @Test
+    void newerWireVersionIsRejected() throws Exception {
+        byte[] newer = write(out -> WireFormat.writeVersion(out, 2));
+        assertThrows(InvalidObjectException.class, () -> read(newer, in -> {
+            new Listing().readExternal(in);
+            return null;
+        }));
+    }
+    
+    private interface Writer {
+        void write(ObjectOutput out) throws IOException;
+    }
+    
+    private interface Reader<T> {
+        T read(ObjectInput in) throws IOException, ClassNotFoundException;
+    }
+    
+    private static byte[] write(Writer writer) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            writer.write(out);
+        }
+        return bytes.toByteArray();
+    }
+    
+    private static <T> T read(byte[] bytes, Reader<T> reader) throws IOException, ClassNotFoundException {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            return reader.read(in);
+        }
+    }
+    
+    @SuppressWarnings("unchecked")
+    private static <T> T roundTrip(T value) throws IOException, ClassNotFoundException {
+        return (T) read(write(out -> out.writeObject(value)), ObjectInput::readObject);
+    }
+    
+    /**
+     * Encoded size of one varint: the stream's block-data framing is the same for any short block
+     */
+    private static int varintSize(long value) throws IOException {
+        byte[] empty = write(out -> out.writeByte(0));
+        byte[] encoded = write(out -> {
+            out.writeByte(0);
+            WireFormat.writeLong(out, value);
+        });
+        return encoded.length - empty.length;
+    }
+}
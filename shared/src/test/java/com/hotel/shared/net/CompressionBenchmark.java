@@ -0,0 +1,80 @@
+package com.hotel.shared.net;
+
+import com.hotel.shared.model.Listing;
+import com.hotel.shared.model.WireFormatBenchmark;
+
+import java.rmi.Remote;
+import java.rmi.RemoteException;
+import java.rmi.server.UnicastRemoteObject;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Bytes on the wire and call latency for a List&lt;Listing&gt; returned over RMI
+ * through the compressing socket factories, with compression on and off.
+ *
+ * Exports a stub service on loopback, so latency shows the CPU cost of
+ * deflate rather than any bandwidth saving. Not run by the test suite, e.g.
+ *
+ *   java -cp shared/target/classes:shared/target/test-classes com.hotel.shared.net.CompressionBenchmark
+ *
+ * Rows come from {@link WireFormatBenchmark#listing(int)}.
+ */
+public class CompressionBenchmark {
+    
+    private static final int WARMUP_CALLS = 200;
+    private static final int TIMED_CALLS = 31;
+    
+    public interface Catalog extends Remote {
+        List<Listing> listings(int rows) throws RemoteException;
+    }
+    
+    private static final class CatalogImpl implements Catalog {
+        @Override
+        public List<Listing> listings(int rows) {
+            List<Listing> listings = new ArrayList<>(rows);
+            for (int i = 0; i < rows; i++) {
+                listings.add(WireFormatBenchmark.listing(i));
+            }
+            return listings;
+        }
+    }
+    
+    public static void main(String[] args) throws Exception {
+        System.out.println("java=" + System.getProperty("java.version"));
+        for (int threshold : new int[] {4096, -1}) {
+            CatalogImpl impl = new CatalogImpl();
+            Catalog stub = (Catalog) UnicastRemoteObject.exportObject(impl, 0,
+                    new CompressingClientSocketFactory(threshold, 65536, 5000),
+                    new CompressingServerSocketFactory(threshold, 65536));
+            try {
+                for (int rows : new int[] {1000, 10000}) {
+                    for (int i = 0; i < WARMUP_CALLS * 1000 / rows; i++) {
+                        stub.listings(rows);
+                    }
+                    // The server thread counts a frame after its write returns, which can be after the call returns
+                    Thread.sleep(200);
+                    long written = FramedSocket.bytesWritten.get();
+                    long onWire = FramedSocket.bytesOnWire.get();
+                    stub.listings(rows);
+                    Thread.sleep(200);
+                    written = FramedSocket.bytesWritten.get() - written;
+                    onWire = FramedSocket.bytesOnWire.get() - onWire;
+                    
+                    long[] latencies = new long[TIMED_CALLS];
+                    for (int i = 0; i < TIMED_CALLS; i++) {
+                        long start = System.nanoTime();
+                        stub.listings(rows);
+                        latencies[i] = System.nanoTime() - start;
+                    }
+                    Arrays.sort(latencies);
+                    System.out.printf("threshold=%5d %6d rows  %8.1f KB raw -> %8.1f KB on wire  call %6.2f ms%n",
+                            threshold, rows, written / 1024.0, onWire / 1024.0, latencies[TIMED_CALLS / 2] / 1e6);
+                }
+            } finally {
+                UnicastRemoteObject.unexportObject(impl, true);
+            }
+        }
+    }
+}
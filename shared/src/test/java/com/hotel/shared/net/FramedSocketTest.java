@@ -0,0 +1,261 @@
+package com.hotel.shared.net;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Frames written by FramedSocket, inspected on the wire and read back, over loopback.
+ */
+class FramedSocketTest {
+    
+    private static final int MAX_FRAME = 1 << 20;
+    private static final int THRESHOLD = 4096;
+    
+    private static final ExecutorService peers = Executors.newCachedThreadPool();
+    
+    @AfterAll
+    static void stopPeers() {
+        peers.shutdownNow();
+    }
+    
+    @Test
+    void payloadLargerThanOneMiBIsSplitIntoFrames() throws Exception {
+        byte[] payload = text(3 * MAX_FRAME + 123);
+        for (int threshold : new int[] {THRESHOLD, -1}) {
+            byte[] wire = wireBytes(threshold, payload);
+            List<Frame> frames = frames(wire);
+            assertTrue(frames.size() >= 4, "frames: " + frames.size());
+            long raw = 0;
+            for (Frame frame : frames) {
+                assertTrue(frame.rawLength <= MAX_FRAME, "frame of " + frame.rawLength);
+                raw += frame.rawLength;
+            }
+            assertEquals(payload.length, raw);
+            assertArrayEquals(payload, readFramed(wire));
+        }
+    }
+    
+    @Test
+    void singleWriteOfExactlyOneMiBFitsOneFrame() throws Exception {
+        byte[] payload = text(MAX_FRAME);
+        byte[] wire = wireBytes(-1, payload);
+        assertEquals(1, frames(wire).size());
+        assertArrayEquals(payload, readFramed(wire));
+    }
+    
+    @Test
+    void compressionStartsAtTheThreshold() throws Exception {
+        byte[] below = new byte[999];
+        byte[] at = new byte[1000];
+        byte[] wire = wireBytes(1000, below, at);
+        List<Frame> frames = frames(wire);
+        assertEquals(2, frames.size());
+        assertEquals(0, frames.get(0).flag);
+        assertEquals(999, frames.get(0).length);
+        assertEquals(1, frames.get(1).flag);
+        assertEquals(1000, frames.get(1).rawLength);
+        assertTrue(frames.get(1).length < 1000);
+        
+        byte[] both = new byte[1999];
+        assertArrayEquals(both, readFramed(wire));
+    }
+    
+    @Test
+    void negativeThresholdNeverCompresses() throws Exception {
+        byte[] wire = wireBytes(-1, new byte[64 * 1024]);
+        for (Frame frame : frames(wire)) {
+            assertEquals(0, frame.flag);
+        }
+    }
+    
+    @Test
+    void incompressiblePayloadIsSentRaw() throws Exception {
+        byte[] payload = new byte[256 * 1024];
+        new Random(7).nextBytes(payload);
+        byte[] tiny = {42};
+        byte[] wire = wireBytes(0, payload, tiny);
+        List<Frame> frames = frames(wire);
+        assertEquals(2, frames.size());
+        for (Frame frame : frames) {
+            assertEquals(0, frame.flag);
+        }
+        assertEquals(payload.length, frames.get(0).length);
+        
+        byte[] expected = Arrays.copyOf(payload, payload.length + 1);
+        expected[payload.length] = 42;
+        assertArrayEquals(expected, readFramed(wire));
+    }
+    
+    @Test
+    void emptyFlushWritesNoFrame() throws Exception {
+        assertEquals(0, wireBytes(THRESHOLD, new byte[0], new byte[0]).length);
+    }
+    
+    @Test
+    void emptyFramesAreSkippedByTheReader() throws Exception {
+        byte[] wire = concat(rawFrame(0, new byte[0]), rawFrame(0, new byte[] {1, 2}), rawFrame(0, new byte[0]));
+        assertArrayEquals(new byte[] {1, 2}, readFramed(wire));
+    }
+    
+    @Test
+    void unknownFlagIsRejected() {
+        byte[] wire = concat(new byte[] {2}, intBytes(1), new byte[] {'x'});
+        IOException e = assertThrows(IOException.class, () -> readFramed(wire));
+        assertTrue(e.getMessage().contains("Invalid frame flag"), e.getMessage());
+    }
+    
+    @Test
+    void oversizedAndNegativeLengthsAreRejected() {
+        for (int length : new int[] {MAX_FRAME + 1, -1, Integer.MIN_VALUE}) {
+            byte[] raw = concat(new byte[] {0}, intBytes(length));
+            IOException e = assertThrows(IOException.class, () -> readFramed(raw));
+            assertTrue(e.getMessage().contains("Invalid frame length"), e.getMessage());
+        }
+        byte[] inflated = concat(new byte[] {1}, intBytes(4), intBytes(MAX_FRAME + 1), new byte[4]);
+        assertThrows(IOException.class, () -> readFramed(inflated));
+    }
+    
+    @Test
+    void corruptCompressedFrameIsRejected() {
+        byte[] garbage = new byte[64];
+        Arrays.fill(garbage, (byte) 0xFF);
+        byte[] wire = concat(new byte[] {1}, intBytes(garbage.length), intBytes(1000), garbage);
+        assertThrows(IOException.class, () -> readFramed(wire));
+    }
+    
+    @Test
+    void truncatedFramesAreRejected() throws Exception {
+        // Header cut short, then a raw payload cut short
+        assertThrows(EOFException.class, () -> readFramed(new byte[] {0, 0, 0}));
+        assertThrows(EOFException.class, () -> readFramed(concat(new byte[] {0}, intBytes(100), new byte[10])));
+        
+        // A compressed frame whose deflate stream stops early, and one claiming more raw bytes than it holds
+        byte[] wire = wireBytes(0, new byte[10000]);
+        Frame frame = frames(wire).get(0);
+        assertEquals(1, frame.flag);
+        byte[] deflated = Arrays.copyOfRange(wire, 9, 9 + frame.length);
+        byte[] cut = Arrays.copyOf(deflated, deflated.length / 2);
+        assertThrows(EOFException.class, () -> readFramed(concat(new byte[] {1}, intBytes(cut.length), intBytes(10000), cut)));
+        assertThrows(EOFException.class, () -> readFramed(concat(new byte[] {1}, intBytes(deflated.length), intBytes(10001), deflated)));
+    }
+    
+    /**
+     * Bytes a framed client puts on the wire, flushing after each chunk
+     */
+    private static byte[] wireBytes(int threshold, byte[]... flushes) throws Exception {
+        try (ServerSocket server = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            Future<byte[]> received = peers.submit(() -> {
+                try (Socket socket = server.accept()) {
+                    return socket.getInputStream().readAllBytes();
+                }
+            });
+            try (FramedSocket client = new FramedSocket(threshold)) {
+                client.connect(server.getLocalSocketAddress());
+                OutputStream out = client.getOutputStream();
+                for (byte[] chunk : flushes) {
+                    out.write(chunk);
+                    out.flush();
+                }
+            }
+            return received.get(30, TimeUnit.SECONDS);
+        }
+    }
+    
+    /**
+     * What a framed server socket reads when a plain client sends these bytes and closes
+     */
+    private static byte[] readFramed(byte[] wire) throws Exception {
+        try (ServerSocket server = new CompressingServerSocketFactory(THRESHOLD, 0).createServerSocket(0)) {
+            Future<?> sent = peers.submit(() -> {
+                try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getLocalPort())) {
+                    socket.getOutputStream().write(wire);
+                }
+                return null;
+            });
+            try (Socket accepted = server.accept()) {
+                return accepted.getInputStream().readAllBytes();
+            } finally {
+                sent.get(30, TimeUnit.SECONDS);
+            }
+        }
+    }
+    
+    private static final class Frame {
+        private final int flag;
+        private final int length;
+        private final int rawLength;
+        
+        Frame(int flag, int length, int rawLength) {
+            this.flag = flag;
+            this.length = length;
+            this.rawLength = rawLength;
+        }
+    }
+    
+    private static List<Frame> frames(byte[] wire) {
+        List<Frame> frames = new ArrayList<>();
+        ByteBuffer buffer = ByteBuffer.wrap(wire);
+        while (buffer.hasRemaining()) {
+            int flag = buffer.get();
+            int length = buffer.getInt();
+            int rawLength = flag == 1 ? buffer.getInt() : length;
+            buffer.position(buffer.position() + length);
+            frames.add(new Frame(flag, length, rawLength));
+        }
+        return frames;
+    }
+    
+    private static byte[] rawFrame(int flag, byte[] payload) {
+        return concat(new byte[] {(byte) flag}, intBytes(payload.length), payload);
+    }
+    
+    private static byte[] intBytes(int value) {
+        return ByteBuffer.allocate(4).putInt(value).array();
+    }
+    
+    private static byte[] concat(byte[]... parts) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        for (byte[] part : parts) {
+            bytes.writeBytes(part);
+        }
+        return bytes.toByteArray();
+    }
+    
+    /**
+     * Compressible but not trivially so: words drawn from a small vocabulary
+     */
+    private static byte[] text(int size) throws IOException {
+        String[] words = {"listing", "Marrakesh", "approved", "149.99", "terrace", "guest", "2030-06-01", "pool"};
+        Random random = new Random(11);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(size + 16);
+        DataOutputStream out = new DataOutputStream(bytes);
+        while (bytes.size() < size) {
+            out.writeBytes(words[random.nextInt(words.length)]);
+            out.writeByte(' ');
+        }
+        return Arrays.copyOf(bytes.toByteArray(), size);
+    }
+}
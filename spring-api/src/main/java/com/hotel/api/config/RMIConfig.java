@@ -1,5 +1,7 @@
 package com.hotel.api.config;
 
+import com.hotel.api.rmi.RmiServiceProxy;
+import com.hotel.api.rmi.RmiStubRegistry;
 import com.hotel.shared.service.ListingService;
 import com.hotel.shared.service.ReservationService;
 import com.hotel.shared.service.RoomService;
@@ -9,46 +11,51 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
-import java.rmi.Naming;
+import java.rmi.Remote;
 
+/**
+ * RMI service beans. Each bean is a proxy that balances calls over the
+ * configured rmi-server endpoints, resolving stubs lazily and re-resolving
+ * them after a restart (see RmiStubRegistry and RmiServiceProxy).
+ */
 @Configuration
 public class RMIConfig {
 
-    @Value("${rmi.host:127.0.0.1}")
-    private String rmiHost;
+    @Value("${rmi.retry.maxAttempts:3}")
+    private int maxAttempts;
+
+    @Value("${rmi.retry.backoffMs:200}")
+    private long retryBackoffMs;
+    
+    @Value("${rmi.hedge.delayMs:0}")
+    private long hedgeDelayMs;
 
     @Bean
-    public RoomService roomService() throws Exception {
-        String url = String.format("rmi://%s:1099/RoomService", rmiHost);
-        System.out.println("Looking up RMI service at: " + url);
-        return (RoomService) Naming.lookup(url);
+    public RoomService roomService(RmiStubRegistry registry) {
+        return proxy(RoomService.class, "RoomService", registry);
     }
     
     @Bean
-    public ListingService listingService() throws Exception {
-        String url = String.format("rmi://%s:1099/ListingService", rmiHost);
-        System.out.println("Looking up ListingService at: " + url);
-        return (ListingService) Naming.lookup(url);
+    public ListingService listingService(RmiStubRegistry registry) {
+        return proxy(ListingService.class, "ListingService", registry);
     }
     
     @Bean
-    public ReservationService reservationService() throws Exception {
-        String url = String.format("rmi://%s:1099/ReservationService", rmiHost);
-        System.out.println("Looking up ReservationService at: " + url);
-        return (ReservationService) Naming.lookup(url);
+    public ReservationService reservationService(RmiStubRegistry registry) {
+        return proxy(ReservationService.class, "ReservationService", registry);
     }
     
     @Bean
-    public UserService userService() throws Exception {
-        String url = String.format("rmi://%s:1099/UserService", rmiHost);
-        System.out.println("Looking up UserService at: " + url);
-        return (UserService) Naming.lookup(url);
+    public UserService userService(RmiStubRegistry registry) {
+        return proxy(UserService.class, "UserService", registry);
     }
     
     @Bean
-    public HostApplicationService hostApplicationService() throws Exception {
-        String url = String.format("rmi://%s:1099/HostApplicationService", rmiHost);
-        System.out.println("Looking up HostApplicationService at: " + url);
-        return (HostApplicationService) Naming.lookup(url);
+    public HostApplicationService hostApplicationService(RmiStubRegistry registry) {
+        return proxy(HostApplicationService.class, "HostApplicationService", registry);
+    }
+    
+    private <T extends Remote> T proxy(Class<T> type, String name, RmiStubRegistry registry) {
+        return RmiServiceProxy.create(type, name, registry, maxAttempts, retryBackoffMs, hedgeDelayMs);
     }
 }
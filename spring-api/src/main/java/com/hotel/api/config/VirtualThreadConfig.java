@@ -0,0 +1,31 @@
+package com.hotel.api.config;
+
+import com.hotel.shared.util.VirtualThreads;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Opt-in: handle HTTP requests on virtual threads (threads.virtual.enabled=true).
+ *
+ * Request threads spend most of their time blocked on RMI calls, so with one
+ * virtual thread per request a burst of slow calls no longer exhausts
+ * Tomcat's 200 worker threads. Needs a Java 21+ runtime; on older runtimes
+ * a warning is printed and Tomcat keeps its platform thread pool.
+ */
+@Configuration
+@ConditionalOnProperty(name = "threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadConfig {
+    
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandler() {
+        if (!VirtualThreads.isSupported()) {
+            System.err.println("threads.virtual.enabled is set but Java " + System.getProperty("java.version") +
+                    " has no virtual threads; using platform request threads");
+            return protocolHandler -> { };
+        }
+        System.out.println("Handling HTTP requests on virtual threads");
+        return protocolHandler -> protocolHandler.setExecutor(VirtualThreads.perTaskExecutor("http-vt-"));
+    }
+}
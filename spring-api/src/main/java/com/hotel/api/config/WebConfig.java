@@ -1,19 +0,0 @@
-package com.hotel.api.config;
-
-import org.springframework.context.annotation.Configuration;
-import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
-import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
-
-/**
- * Web configuration for serving static files
- */
-@Configuration
-public class WebConfig implements WebMvcConfigurer {
-    
-    @Override
-    public void addResourceHandlers(ResourceHandlerRegistry registry) {
-        // Serve uploaded images
-        registry.addResourceHandler("/uploads/images/**")
-                .addResourceLocations("file:uploads/images/");
-    }
-}
@@ -1,22 +1,36 @@
 package com.hotel.api.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hotel.api.images.ImageDerivatives;
+import com.hotel.api.rmi.FanOutExecutor;
+import com.hotel.shared.exception.ValidationException;
+import com.hotel.shared.model.DashboardStats;
 import com.hotel.shared.model.Listing;
+import com.hotel.shared.model.ListingPage;
 import com.hotel.shared.model.Reservation;
+import com.hotel.shared.model.ReservationPage;
 import com.hotel.shared.model.User;
+import com.hotel.shared.model.UserPage;
 import com.hotel.shared.service.ListingService;
 import com.hotel.shared.service.ReservationService;
 import com.hotel.shared.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.math.BigDecimal;
+import java.io.IOException;
 import java.rmi.RemoteException;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Future;
 
 /**
  * Controller for ADMIN role operations
@@ -27,6 +41,9 @@ import java.util.Map;
 @CrossOrigin(origins = "*")
 public class AdminController {
     
+    // Rows per RMI call when streaming whole tables (the RMI server caps listings at 100)
+    private static final int EXPORT_PAGE_SIZE = 500;
+    
     @Autowired
     private ListingService listingService;
     
@@ -36,6 +53,15 @@ public class AdminController {
     @Autowired
     private UserService userService;
     
+    @Autowired
+    private FanOutExecutor fanOut;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private ImageDerivatives imageDerivatives;
+    
     /**
      * Get dashboard statistics
      * GET /api/admin/stats
@@ -50,35 +76,15 @@ public class AdminController {
                         .body(createError("Admin access required"));
             }
             
-            List<Listing> allListings = listingService.getAllListings();
-            List<Reservation> allReservations = reservationService.getAllReservations();
-            
-            // Calculate stats
-            int totalListings = allListings.size();
-            int totalReservations = allReservations.size();
-            
-            // Count confirmed reservations
-            long confirmedReservations = allReservations.stream()
-                    .filter(r -> "confirmed".equalsIgnoreCase(r.getStatus()))
-                    .count();
-            
-            // Calculate total revenue from confirmed reservations
-            BigDecimal totalRevenue = allReservations.stream()
-                    .filter(r -> "confirmed".equalsIgnoreCase(r.getStatus()))
-                    .map(Reservation::getTotalPrice)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
-            
-            // Count pending reservations
-            long pendingReservations = allReservations.stream()
-                    .filter(r -> "pending".equalsIgnoreCase(r.getStatus()))
-                    .count();
+            // Running totals kept by the RMI tier
+            DashboardStats dashboard = reservationService.getDashboardStats();
             
             Map<String, Object> stats = new HashMap<>();
-            stats.put("totalListings", totalListings);
-            stats.put("totalReservations", totalReservations);
-            stats.put("confirmedReservations", confirmedReservations);
-            stats.put("pendingReservations", pendingReservations);
-            stats.put("totalRevenue", totalRevenue);
+            stats.put("totalListings", dashboard.getTotalListings());
+            stats.put("totalReservations", dashboard.getTotalReservations());
+            stats.put("confirmedReservations", dashboard.getReservationCount("confirmed"));
+            stats.put("pendingReservations", dashboard.getReservationCount("pending"));
+            stats.put("totalRevenue", dashboard.getTotalRevenue());
             
             return ResponseEntity.ok(stats);
             
@@ -92,89 +98,94 @@ public class AdminController {
     /**
      * Get all listings (admin view) with host information
      * GET /api/admin/listings
+     * 
+     * Streamed page by page; hosts are looked up once per page
      */
     @GetMapping("/listings")
-    public ResponseEntity<?> getAllListings(
+    public ResponseEntity<StreamingResponseBody> getAllListings(
             @RequestHeader(value = "X-User-Id", required = true) int userId,
             @RequestHeader(value = "X-User-Role", required = true) String role) {
         try {
             if (!"admin".equalsIgnoreCase(role)) {
-                return ResponseEntity.status(HttpStatus.FORBIDDEN)
-                        .body(createError("Admin access required"));
+                return streamError(HttpStatus.FORBIDDEN, "Admin access required");
             }
             
-            List<Listing> listings = listingService.getAllListings();
-            
-            // Enhance listings with host information
-            List<Map<String, Object>> enrichedListings = new ArrayList<>();
-            for (Listing listing : listings) {
-                Map<String, Object> enrichedListing = new HashMap<>();
-                enrichedListing.put("id", listing.getId());
-                enrichedListing.put("userId", listing.getUserId());
-                enrichedListing.put("title", listing.getTitle());
-                enrichedListing.put("description", listing.getDescription());
-                enrichedListing.put("city", listing.getCity());
-                enrichedListing.put("address", listing.getAddress());
-                enrichedListing.put("pricePerNight", listing.getPricePerNight());
-                enrichedListing.put("maxGuests", listing.getMaxGuests());
-                enrichedListing.put("beds", listing.getBeds());
-                enrichedListing.put("bathrooms", listing.getBathrooms());
-                enrichedListing.put("status", listing.getStatus());
-                
-                // Convert imageUrls to full URLs
-                List<String> fullImageUrls = new ArrayList<>();
-                if (listing.getImageUrls() != null && !listing.getImageUrls().isEmpty()) {
-                    for (String imageUrl : listing.getImageUrls()) {
-                        // If URL doesn't start with http, prepend server URL
-                        if (imageUrl != null && !imageUrl.startsWith("http")) {
-                            fullImageUrls.add("http://localhost:8080" + imageUrl);
-                        } else {
-                            fullImageUrls.add(imageUrl);
-                        }
-                    }
-                }
-                enrichedListing.put("imageUrls", fullImageUrls);
-                
-                // Add first image as imageUrl for compatibility
-                if (!fullImageUrls.isEmpty()) {
-                    enrichedListing.put("imageUrl", fullImageUrls.get(0));
-                } else {
-                    enrichedListing.put("imageUrl", null);
-                }
-                enrichedListing.put("createdAt", listing.getCreatedAt());
-                
-                // Fetch host information
-                try {
-                    User host = userService.getUserById(listing.getUserId());
-                    System.out.println("Fetched host for listing " + listing.getId() + ": " + 
-                        (host != null ? host.getName() + " (" + host.getEmail() + ")" : "null"));
-                    if (host != null) {
-                        Map<String, String> hostInfo = new HashMap<>();
-                        hostInfo.put("name", host.getName());
-                        hostInfo.put("email", host.getEmail());
-                        hostInfo.put("role", host.getRole());
-                        enrichedListing.put("host", hostInfo);
-                        System.out.println("Added host info: " + hostInfo);
+            ListingPage first = listingService.getListingsPage(null, EXPORT_PAGE_SIZE);
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(new PagedJsonArray<>(objectMapper, first, ListingPage::getNextCursor,
+                            cursor -> listingService.getListingsPage(cursor, EXPORT_PAGE_SIZE),
+                            this::writeListings));
+            
+        } catch (Exception e) {
+            e.printStackTrace();
+            return streamError(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to fetch listings: " + e.getMessage());
+        }
+    }
+    
+    private void writeListings(JsonGenerator json, ListingPage page) throws IOException {
+        // Fetch the hosts of this page in one call
+        Set<Integer> hostIds = new HashSet<>();
+        for (Listing listing : page.getListings()) {
+            hostIds.add(listing.getUserId());
+        }
+        Map<Integer, User> hosts = new HashMap<>();
+        try {
+            if (!hostIds.isEmpty()) {
+                hosts = userService.getUsersByIds(hostIds);
+            }
+        } catch (Exception e) {
+            // If hosts cannot be loaded, continue without host info
+            System.err.println("Error fetching hosts for listings: " + e.getMessage());
+        }
+        
+        for (Listing listing : page.getListings()) {
+            json.writeStartObject();
+            json.writeNumberField("id", listing.getId());
+            json.writeNumberField("userId", listing.getUserId());
+            json.writeStringField("title", listing.getTitle());
+            json.writeStringField("description", listing.getDescription());
+            json.writeStringField("city", listing.getCity());
+            json.writeStringField("address", listing.getAddress());
+            json.writeObjectField("pricePerNight", listing.getPricePerNight());
+            json.writeNumberField("maxGuests", listing.getMaxGuests());
+            json.writeNumberField("beds", listing.getBeds());
+            json.writeNumberField("bathrooms", listing.getBathrooms());
+            json.writeStringField("status", listing.getStatus());
+            
+            // Convert imageUrls to full URLs
+            List<String> fullImageUrls = new ArrayList<>();
+            if (listing.getImageUrls() != null && !listing.getImageUrls().isEmpty()) {
+                for (String imageUrl : listing.getImageUrls()) {
+                    // If URL doesn't start with http, prepend server URL
+                    if (imageUrl != null && !imageUrl.startsWith("http")) {
+                        fullImageUrls.add("http://localhost:8080" + imageUrl);
                     } else {
-                        System.out.println("Host is null for userId: " + listing.getUserId());
-                        enrichedListing.put("host", null);
+                        fullImageUrls.add(imageUrl);
                     }
-                } catch (Exception e) {
-                    // If host not found, continue without host info
-                    System.err.println("Error fetching host for listing " + listing.getId() + ": " + e.getMessage());
-                    e.printStackTrace();
-                    enrichedListing.put("host", null);
                 }
-                
-                enrichedListings.add(enrichedListing);
+            }
+            json.writeObjectField("imageUrls", fullImageUrls);
+            
+            // Add first image as imageUrl for compatibility
+            json.writeStringField("imageUrl", fullImageUrls.isEmpty() ? null : fullImageUrls.get(0));
+            json.writeStringField("thumbnailUrl", fullImageUrls.isEmpty() ? null : imageDerivatives.thumbnailUrl(fullImageUrls.get(0)));
+            json.writeObjectField("createdAt", listing.getCreatedAt());
+            
+            // Add host information
+            User host = hosts.get(listing.getUserId());
+            if (host != null) {
+                json.writeObjectFieldStart("host");
+                json.writeStringField("name", host.getName());
+                json.writeStringField("email", host.getEmail());
+                json.writeStringField("role", host.getRole());
+                json.writeEndObject();
+            } else {
+                // If host not found, continue without host info
+                json.writeNullField("host");
             }
             
-            return ResponseEntity.ok(enrichedListings);
-            
-        } catch (Exception e) {
-            e.printStackTrace();
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(createError("Failed to fetch listings: " + e.getMessage()));
+            json.writeEndObject();
         }
     }
     
@@ -213,22 +224,25 @@ public class AdminController {
      * GET /api/admin/reservations
      */
     @GetMapping("/reservations")
-    public ResponseEntity<?> getAllReservations(
+    public ResponseEntity<StreamingResponseBody> getAllReservations(
             @RequestHeader(value = "X-User-Id", required = true) int userId,
             @RequestHeader(value = "X-User-Role", required = true) String role) {
         try {
             if (!"admin".equalsIgnoreCase(role)) {
-                return ResponseEntity.status(HttpStatus.FORBIDDEN)
-                        .body(createError("Admin access required"));
+                return streamError(HttpStatus.FORBIDDEN, "Admin access required");
             }
             
-            List<Reservation> reservations = reservationService.getAllReservations();
-            return ResponseEntity.ok(reservations);
+            // Streamed page by page, newest first
+            ReservationPage first = reservationService.getReservationsPage(null, EXPORT_PAGE_SIZE);
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(new PagedJsonArray<>(objectMapper, first, ReservationPage::getNextCursor,
+                            cursor -> reservationService.getReservationsPage(cursor, EXPORT_PAGE_SIZE),
+                            (json, page) -> writeRows(json, page.getReservations())));
             
         } catch (Exception e) {
             e.printStackTrace();
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(createError("Failed to fetch reservations: " + e.getMessage()));
+            return streamError(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to fetch reservations: " + e.getMessage());
         }
     }
     
@@ -311,6 +325,9 @@ public class AdminController {
                         .body(createError("Failed to update reservation"));
             }
             
+        } catch (ValidationException e) {
+            return ResponseEntity.badRequest()
+                    .body(createError(e.getMessage()));
         } catch (Exception e) {
             e.printStackTrace();
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -431,22 +448,25 @@ public class AdminController {
      * GET /api/admin/users
      */
     @GetMapping("/users")
-    public ResponseEntity<?> getAllUsers(
+    public ResponseEntity<StreamingResponseBody> getAllUsers(
             @RequestHeader(value = "X-User-Id", required = true) int userId,
             @RequestHeader(value = "X-User-Role", required = true) String role) {
         try {
             if (!"admin".equalsIgnoreCase(role)) {
-                return ResponseEntity.status(HttpStatus.FORBIDDEN)
-                        .body(createError("Admin access required"));
+                return streamError(HttpStatus.FORBIDDEN, "Admin access required");
             }
             
-            List<User> users = userService.getAllUsers();
-            return ResponseEntity.ok(users);
+            // Streamed page by page, in id order
+            UserPage first = userService.getUsersPage(null, EXPORT_PAGE_SIZE);
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(new PagedJsonArray<>(objectMapper, first, UserPage::getNextCursor,
+                            cursor -> userService.getUsersPage(cursor, EXPORT_PAGE_SIZE),
+                            (json, page) -> writeRows(json, page.getUsers())));
             
         } catch (Exception e) {
             e.printStackTrace();
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(createError("Failed to fetch users: " + e.getMessage()));
+            return streamError(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to fetch users: " + e.getMessage());
         }
     }
     
@@ -465,7 +485,12 @@ public class AdminController {
                         .body(createError("Admin access required"));
             }
             
-            User user = userService.getUserById(id);
+            // The user, their reservations and their listings are independent lookups
+            Future<User> userCall = fanOut.submit(() -> userService.getUserById(id));
+            Future<List<Reservation>> reservationsCall = fanOut.submit(() -> reservationService.getReservationsByGuest(id));
+            Future<List<Listing>> listingsCall = fanOut.submit(() -> listingService.getListingsByHost(id));
+            
+            User user = fanOut.join(userCall);
             if (user == null) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND)
                         .body(createError("User not found"));
@@ -474,47 +499,34 @@ public class AdminController {
             Map<String, Object> userDetails = new HashMap<>();
             userDetails.put("user", user);
             
-            // Get user's reservations
-            List<Reservation> allReservations = reservationService.getAllReservations();
+            // Listing title and city are joined in by the RMI tier
+            List<Reservation> reservations = fanOut.joinOrDefault(reservationsCall, new ArrayList<>(), "reservations of user " + id);
             List<Map<String, Object>> userReservations = new ArrayList<>();
             
-            for (Reservation reservation : allReservations) {
-                if (reservation.getUserId() == id) {
-                    Map<String, Object> enrichedReservation = new HashMap<>();
-                    enrichedReservation.put("id", reservation.getId());
-                    enrichedReservation.put("listingId", reservation.getListingId());
-                    enrichedReservation.put("checkIn", reservation.getCheckIn() != null ? reservation.getCheckIn().toString() : "");
-                    enrichedReservation.put("checkOut", reservation.getCheckOut() != null ? reservation.getCheckOut().toString() : "");
-                    enrichedReservation.put("totalPrice", reservation.getTotalPrice());
-                    enrichedReservation.put("status", reservation.getStatus());
-                    enrichedReservation.put("createdAt", reservation.getCreatedAt());
-                    
-                    // Get listing info
-                    try {
-                        Listing listing = listingService.getListingById(reservation.getListingId());
-                        if (listing != null) {
-                            enrichedReservation.put("listingTitle", listing.getTitle());
-                            enrichedReservation.put("listingCity", listing.getCity());
-                        }
-                    } catch (Exception e) {
-                        // Continue without listing info
-                    }
-                    
-                    userReservations.add(enrichedReservation);
+            for (Reservation reservation : reservations) {
+                Map<String, Object> enrichedReservation = new HashMap<>();
+                enrichedReservation.put("id", reservation.getId());
+                enrichedReservation.put("listingId", reservation.getListingId());
+                enrichedReservation.put("checkIn", reservation.getCheckIn() != null ? reservation.getCheckIn().toString() : "");
+                enrichedReservation.put("checkOut", reservation.getCheckOut() != null ? reservation.getCheckOut().toString() : "");
+                enrichedReservation.put("totalPrice", reservation.getTotalPrice());
+                enrichedReservation.put("status", reservation.getStatus());
+                enrichedReservation.put("createdAt", reservation.getCreatedAt());
+                
+                if (reservation.getListingTitle() != null) {
+                    enrichedReservation.put("listingTitle", reservation.getListingTitle());
+                    enrichedReservation.put("listingCity", reservation.getListingCity());
                 }
+                
+                userReservations.add(enrichedReservation);
             }
             userDetails.put("reservations", userReservations);
             
-            // If user is a host, get their listings
+            // If user is a host, include their listings
             if ("host".equalsIgnoreCase(user.getRole())) {
-                List<Listing> allListings = listingService.getAllListings();
-                List<Listing> hostListings = new ArrayList<>();
-                for (Listing listing : allListings) {
-                    if (listing.getUserId() == id) {
-                        hostListings.add(listing);
-                    }
-                }
-                userDetails.put("listings", hostListings);
+                userDetails.put("listings", fanOut.joinOrDefault(listingsCall, new ArrayList<>(), "listings of host " + id));
+            } else {
+                listingsCall.cancel(false);
             }
             
             return ResponseEntity.ok(userDetails);
@@ -676,6 +688,22 @@ public class AdminController {
         }
     }
     
+    private static void writeRows(JsonGenerator json, List<?> rows) throws IOException {
+        for (Object row : rows) {
+            json.writeObject(row);
+        }
+    }
+    
+    /**
+     * Error for the streaming endpoints, same JSON shape as createError
+     */
+    private ResponseEntity<StreamingResponseBody> streamError(HttpStatus status, String message) {
+        Map<String, Object> error = createError(message);
+        return ResponseEntity.status(status)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(out -> objectMapper.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET).writeValue(out, error));
+    }
+    
     private Map<String, Object> createError(String message) {
         Map<String, Object> error = new HashMap<>();
         error.put("success", false);
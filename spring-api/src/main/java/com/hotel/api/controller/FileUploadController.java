@@ -1,19 +1,16 @@
 package com.hotel.api.controller;
 
+import com.hotel.api.images.ImageDerivatives;
+import com.hotel.api.images.ImageStore;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.UUID;
 
 /**
  * Controller for handling file uploads
@@ -23,15 +20,18 @@ import java.util.UUID;
 @CrossOrigin(origins = "*")
 public class FileUploadController {
     
-    // Directory where uploaded files will be stored
-    private static final String UPLOAD_DIR = "uploads/images/";
-    
     // Maximum file size: 5MB
     private static final long MAX_FILE_SIZE = 5 * 1024 * 1024;
     
     // Allowed file extensions
     private static final String[] ALLOWED_EXTENSIONS = {".jpg", ".jpeg", ".png", ".gif", ".webp"};
     
+    @Autowired
+    private ImageStore imageStore;
+    
+    @Autowired
+    private ImageDerivatives imageDerivatives;
+    
     /**
      * Upload an image file
      * POST /api/upload/image
@@ -74,27 +74,22 @@ public class FileUploadController {
                         .body(createError("Invalid file type. Allowed: JPG, JPEG, PNG, GIF, WEBP"));
             }
             
-            // Create upload directory if it doesn't exist
-            File uploadDir = new File(UPLOAD_DIR);
-            if (!uploadDir.exists()) {
-                uploadDir.mkdirs();
-            }
-            
-            // Generate unique filename
-            String uniqueFilename = UUID.randomUUID().toString() + fileExtension;
-            Path filePath = Paths.get(UPLOAD_DIR + uniqueFilename);
+            // Save file under the hash of its content; a repeated upload reuses the stored copy
+            ImageStore.StoredImage stored = imageStore.store(file.getInputStream(), fileExtension);
             
-            // Save file
-            Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
+            // Resized copies are made in the background; until they exist the original is used
+            imageDerivatives.submit(stored.getFile());
             
             // Return the file URL
-            String fileUrl = "/uploads/images/" + uniqueFilename;
+            String fileUrl = stored.getUrl();
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
             response.put("imageUrl", fileUrl);
-            response.put("filename", uniqueFilename);
+            response.put("filename", stored.getPath());
+            response.put("deduplicated", stored.isDeduplicated());
             response.put("originalFilename", originalFilename);
             response.put("size", file.getSize());
+            response.put("variants", imageDerivatives.variantUrls(fileUrl));
             
             return ResponseEntity.ok(response);
             
@@ -0,0 +1,51 @@
+package com.hotel.api.controller;
+
+import com.hotel.api.images.ImageDerivatives;
+import com.hotel.api.images.ImageStore;
+import com.hotel.api.rmi.FanOutExecutor;
+import com.hotel.api.rmi.RmiStubRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+/**
+ * Health endpoint for load balancers and monitoring
+ */
+@RestController
+@RequestMapping("/api/health")
+@CrossOrigin(origins = "*")
+public class HealthController {
+    
+    @Autowired
+    private RmiStubRegistry rmiStubRegistry;
+    
+    @Autowired
+    private FanOutExecutor fanOutExecutor;
+    
+    @Autowired
+    private ImageDerivatives imageDerivatives;
+    
+    @Autowired
+    private ImageStore imageStore;
+    
+    @Autowired
+    private ImageController imageController;
+    
+    /**
+     * Report whether the RMI server is reachable (503 when it is not)
+     * GET /api/health
+     */
+    @GetMapping
+    public ResponseEntity<?> health() {
+        Map<String, Object> health = rmiStubRegistry.health();
+        health.put("fanOut", fanOutExecutor.stats());
+        health.put("imageDerivatives", imageDerivatives.stats());
+        health.put("imageStore", imageStore.stats());
+        health.put("imageServing", imageController.stats());
+        HttpStatus status = rmiStubRegistry.isAvailable() ? HttpStatus.OK : HttpStatus.SERVICE_UNAVAILABLE;
+        return ResponseEntity.status(status).body(health);
+    }
+}
@@ -1,5 +1,10 @@
 package com.hotel.api.controller;
 
+import com.hotel.api.images.ImageDerivatives;
+import com.hotel.api.images.ImageStore;
+import com.hotel.shared.exception.AuthorizationException;
+import com.hotel.shared.exception.NotFoundException;
+import com.hotel.shared.exception.ValidationException;
 import com.hotel.shared.model.Listing;
 import com.hotel.shared.model.Reservation;
 import com.hotel.shared.service.ListingService;
@@ -28,6 +33,12 @@ public class HostController {
     @Autowired
     private ReservationService reservationService;
     
+    @Autowired
+    private ImageDerivatives imageDerivatives;
+    
+    @Autowired
+    private ImageStore imageStore;
+    
     /**
      * Create a new listing
      * POST /api/host/listings
@@ -118,7 +129,10 @@ public class HostController {
                         .body(createError("Only hosts can delete listings"));
             }
             
+            // Read the images first so their files can be released once nothing uses them
+            Listing existing = listingService.getListingById(id);
             listingService.deleteListing(id, userId);
+            imageStore.release(existing.getImageUrls());
             return ResponseEntity.ok(createSuccess("Listing deleted successfully"));
             
         } catch (Exception e) {
@@ -152,6 +166,7 @@ public class HostController {
             }
             
             List<Listing> listings = listingService.getListingsByHost(userId);
+            imageDerivatives.addThumbnails(listings);
             return ResponseEntity.ok(listings);
             
         } catch (Exception e) {
@@ -327,17 +342,18 @@ public class HostController {
                         .body(createError("Reservation not found"));
             }
             
+        } catch (ValidationException e) {
+            return ResponseEntity.badRequest()
+                    .body(createError(e.getMessage()));
+        } catch (AuthorizationException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(createError("You do not have permission to update this reservation"));
+        } catch (NotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(createError("Reservation not found"));
         } catch (Exception e) {
-            String message = e.getMessage();
-            if (message.contains("permission") || message.contains("Authorization")) {
-                return ResponseEntity.status(HttpStatus.FORBIDDEN)
-                        .body(createError("You do not have permission to update this reservation"));
-            } else if (message.contains("not found") || message.contains("NotFoundException")) {
-                return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                        .body(createError("Reservation not found"));
-            }
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(createError("Failed to update reservation: " + message));
+                    .body(createError("Failed to update reservation: " + e.getMessage()));
         }
     }
     
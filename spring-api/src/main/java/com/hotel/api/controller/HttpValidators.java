@@ -0,0 +1,65 @@
+package com.hotel.api.controller;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ETag and Cache-Control helpers for conditional GETs.
+ *
+ * Controllers build the ETag from a version number fetched before the
+ * payload, so when the client's copy is current the response is a 304 and
+ * the payload is never requested from the RMI server. Taking the version
+ * first means a write racing the read can only make the ETag older than the
+ * body, which costs one extra download rather than serving stale data.
+ */
+final class HttpValidators {
+    
+    private HttpValidators() {
+    }
+    
+    /**
+     * Weak ETag for a versioned resource, e.g. W/"listing-12-1a2b3c"; weak because the same version is
+     * sent both gzipped and plain, and so that Tomcat still compresses it
+     */
+    static String etag(String resource, long version) {
+        return "W/\"" + resource + "-" + Long.toHexString(version) + "\"";
+    }
+    
+    /**
+     * Whether an If-None-Match header matches the current ETag (weak comparison, as RFC 7232 requires)
+     */
+    static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        String current = opaqueTag(etag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = opaqueTag(candidate.trim());
+            if (tag.equals("*") || tag.equals(current)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private static String opaqueTag(String etag) {
+        return etag.startsWith("W/") ? etag.substring(2) : etag;
+    }
+    
+    /**
+     * public, max-age=N; with 0, caches may store the response but must revalidate every use
+     */
+    static CacheControl cacheFor(int maxAgeSeconds) {
+        if (maxAgeSeconds <= 0) {
+            return CacheControl.noCache().cachePublic();
+        }
+        return CacheControl.maxAge(maxAgeSeconds, TimeUnit.SECONDS).cachePublic();
+    }
+    
+    static ResponseEntity<?> notModified(String etag, CacheControl cacheControl) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(cacheControl).build();
+    }
+}
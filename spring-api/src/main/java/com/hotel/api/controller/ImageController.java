@@ -0,0 +1,290 @@
+package com.hotel.api.controller;
+
+import com.hotel.api.images.HotImageCache;
+import com.hotel.api.images.ImageDerivatives;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * Serves uploaded images and their variants from uploads/images/.
+ *
+ * Small files come from {@link HotImageCache}. Larger ones are handed to
+ * Tomcat's sendfile, so the kernel copies them to the socket and the worker
+ * thread is released before the transfer starts; without sendfile support
+ * they are streamed with FileChannel.transferTo. Every response carries an
+ * ETag and Last-Modified and answers If-None-Match / If-Modified-Since with a
+ * 304. A single byte Range (with If-Range) is answered with a 206; anything
+ * else is served in full. Content-addressed paths (ab/cd/{sha256}.{ext}) are
+ * cacheable for a year. A variant that has not been generated yet is queued
+ * and redirected, uncacheably, to its original.
+ */
+@Controller
+@CrossOrigin(origins = "*")
+public class ImageController {
+    
+    private static final String PREFIX = "/uploads/images/";
+    
+    // Only names the upload code produces; rules out "..", hidden temp files and anything odd
+    private static final Pattern SAFE_PATH = Pattern.compile(
+            "^(?:[0-9a-f]{2}/[0-9a-f]{2}/)?[A-Za-z0-9][A-Za-z0-9_-]*\\.(?:jpg|jpeg|png|gif|webp)$",
+            Pattern.CASE_INSENSITIVE);
+    private static final Pattern CONTENT_ADDRESSED = Pattern.compile("^[0-9a-f]{2}/[0-9a-f]{2}/");
+    private static final String IMMUTABLE = "public, max-age=31536000, immutable";
+    
+    // Request attributes of Tomcat's sendfile support
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+    
+    @Autowired
+    private HotImageCache hotImageCache;
+    
+    @Autowired
+    private ImageDerivatives imageDerivatives;
+    
+    private final Path root = Paths.get(ImageDerivatives.UPLOAD_DIR).toAbsolutePath().normalize();
+    
+    private final AtomicLong responses = new AtomicLong();
+    private final AtomicLong bytesServed = new AtomicLong();
+    private final AtomicLong cacheBytesServed = new AtomicLong();
+    private final AtomicLong sendfileResponses = new AtomicLong();
+    private final AtomicLong notModified = new AtomicLong();
+    private final AtomicLong partial = new AtomicLong();
+    private final AtomicLong notFound = new AtomicLong();
+    private final AtomicLong variantRedirects = new AtomicLong();
+    
+    /**
+     * Serve an uploaded image (GET and HEAD)
+     * GET /uploads/images/{file}
+     */
+    @GetMapping(PREFIX + "**")
+    public void serve(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String relative = request.getRequestURI().substring(request.getContextPath().length() + PREFIX.length());
+        if (!SAFE_PATH.matcher(relative).matches()) {
+            notFound(response);
+            return;
+        }
+        
+        Path file = root.resolve(relative);
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            hotImageCache.remove(file);
+            Path original = imageDerivatives.originalOf(file);
+            if (original != null) {
+                // Listing responses name the variant before it exists; send the original meanwhile
+                imageDerivatives.submit(original);
+                variantRedirects.incrementAndGet();
+                response.setHeader(HttpHeaders.CACHE_CONTROL, "no-store");
+                response.sendRedirect(request.getContextPath() + PREFIX
+                        + root.relativize(original).toString().replace('\\', '/'));
+                return;
+            }
+            notFound(response);
+            return;
+        }
+        if (!attributes.isRegularFile()) {
+            notFound(response);
+            return;
+        }
+        
+        long size = attributes.size();
+        long lastModified = attributes.lastModifiedTime().toMillis();
+        String etag = "\"" + Long.toHexString(size) + "-" + Long.toHexString(lastModified) + "\"";
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setDateHeader(HttpHeaders.LAST_MODIFIED, lastModified);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        if (CONTENT_ADDRESSED.matcher(relative).find()) {
+            response.setHeader(HttpHeaders.CACHE_CONTROL, IMMUTABLE);
+        }
+        
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        boolean fresh = ifNoneMatch != null
+                ? HttpValidators.matches(ifNoneMatch, etag)
+                : notModifiedSince(request, lastModified);
+        if (fresh) {
+            notModified.incrementAndGet();
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+        
+        long start = 0;
+        long end = size;
+        String range = request.getHeader(HttpHeaders.RANGE);
+        if (range != null && ifRangeMatches(request, etag, lastModified)) {
+            long[] bounds = parseRange(range, size);
+            if (bounds != null && bounds.length == 0) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+                response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            }
+            if (bounds != null) {
+                start = bounds[0];
+                end = bounds[1];
+                partial.incrementAndGet();
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + (end - 1) + "/" + size);
+            }
+        }
+        
+        response.setContentType(contentType(relative));
+        response.setContentLengthLong(end - start);
+        responses.incrementAndGet();
+        if ("HEAD".equals(request.getMethod())) {
+            return;
+        }
+        
+        if (hotImageCache.accepts(size)) {
+            ByteBuffer data = hotImageCache.get(file, size, lastModified);
+            data.limit((int) end).position((int) start);
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            while (data.hasRemaining()) {
+                out.write(data);
+            }
+            cacheBytesServed.addAndGet(end - start);
+        } else if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            // Tomcat writes the file after this method returns, without a worker thread
+            request.setAttribute(SENDFILE_FILENAME, file.toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end);
+            sendfileResponses.incrementAndGet();
+        } else {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+                long position = start;
+                while (position < end) {
+                    long sent = channel.transferTo(position, end - position, out);
+                    if (sent <= 0) {
+                        throw new IOException("File shrank while sending: " + relative);
+                    }
+                    position += sent;
+                }
+            }
+        }
+        bytesServed.addAndGet(end - start);
+    }
+    
+    /**
+     * Counters for the health endpoint
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("responses", responses.get());
+        stats.put("bytesServed", bytesServed.get());
+        stats.put("bytesFromCache", cacheBytesServed.get());
+        stats.put("sendfileResponses", sendfileResponses.get());
+        stats.put("notModified", notModified.get());
+        stats.put("partial", partial.get());
+        stats.put("notFound", notFound.get());
+        stats.put("variantRedirects", variantRedirects.get());
+        stats.put("cache", hotImageCache.stats());
+        return stats;
+    }
+    
+    private void notFound(HttpServletResponse response) throws IOException {
+        notFound.incrementAndGet();
+        response.sendError(HttpServletResponse.SC_NOT_FOUND);
+    }
+    
+    private static boolean notModifiedSince(HttpServletRequest request, long lastModified) {
+        try {
+            long since = request.getDateHeader(HttpHeaders.IF_MODIFIED_SINCE);
+            // HTTP dates have whole seconds
+            return since >= 0 && lastModified / 1000 <= since / 1000;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+    
+    /**
+     * No If-Range, or one naming the current version (strong ETag or exact date)
+     */
+    private static boolean ifRangeMatches(HttpServletRequest request, String etag, long lastModified) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            return ifRange.equals(etag);
+        }
+        try {
+            return request.getDateHeader(HttpHeaders.IF_RANGE) / 1000 == lastModified / 1000;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+    
+    /**
+     * Parse a single "bytes=" range into {start, end exclusive}
+     * @return the bounds; an empty array if unsatisfiable; null to ignore the header and send everything
+     */
+    private static long[] parseRange(String header, long size) {
+        if (!header.startsWith("bytes=") || header.indexOf(',') >= 0) {
+            // Multiple ranges are rare for images; a full response is allowed instead
+            return null;
+        }
+        String spec = header.substring("bytes=".length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return null;
+        }
+        try {
+            String first = spec.substring(0, dash).trim();
+            String last = spec.substring(dash + 1).trim();
+            if (first.isEmpty()) {
+                // Suffix range: the last N bytes
+                long length = Long.parseLong(last);
+                if (length <= 0 || size == 0) {
+                    return new long[0];
+                }
+                return new long[] { Math.max(0, size - length), size };
+            }
+            long start = Long.parseLong(first);
+            long end = last.isEmpty() ? size : Long.parseLong(last) + 1;
+            if (start >= size) {
+                return new long[0];
+            }
+            if (end <= start) {
+                return null;
+            }
+            return new long[] { start, Math.min(end, size) };
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+    
+    private static String contentType(String path) {
+        String lower = path.toLowerCase();
+        if (lower.endsWith(".png")) {
+            return "image/png";
+        } else if (lower.endsWith(".gif")) {
+            return "image/gif";
+        } else if (lower.endsWith(".webp")) {
+            return "image/webp";
+        }
+        return "image/jpeg";
+    }
+}
@@ -1,29 +1,47 @@
 package com.hotel.api.controller;
 
+import com.hotel.api.images.ImageDerivatives;
+import com.hotel.api.rmi.FanOutExecutor;
+import com.hotel.shared.exception.ValidationException;
+import com.hotel.shared.model.BookedRange;
 import com.hotel.shared.model.Listing;
-import com.hotel.shared.model.Reservation;
+import com.hotel.shared.model.ListingPage;
+import com.hotel.shared.model.ListingSearchCriteria;
 import com.hotel.shared.model.User;
 import com.hotel.shared.service.ListingService;
 import com.hotel.shared.service.ReservationService;
 import com.hotel.shared.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.math.BigDecimal;
+import java.sql.Date;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Future;
 
 /**
  * Public controller for viewing listings (guest access)
+ *
+ * The catalog, listing and host profile responses carry an ETag built from
+ * the version columns of the listings and users tables, so every RMI server
+ * instance hands out the same one; a matching If-None-Match gets a 304
+ * before any listing data is fetched.
  */
 @RestController
 @RequestMapping("/api/listings")
 @CrossOrigin(origins = "*")
 public class ListingController {
     
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    
     @Autowired
     private ListingService listingService;
     
@@ -33,15 +51,52 @@ public class ListingController {
     @Autowired
     private UserService userService;
     
+    @Autowired
+    private FanOutExecutor fanOut;
+    
+    @Autowired
+    private ImageDerivatives imageDerivatives;
+    
+    @Value("${http.cache.catalog.maxAgeSeconds:10}")
+    private int catalogMaxAgeSeconds;
+    
+    @Value("${http.cache.listing.maxAgeSeconds:0}")
+    private int listingMaxAgeSeconds;
+    
+    @Value("${http.cache.host.maxAgeSeconds:30}")
+    private int hostMaxAgeSeconds;
+    
     /**
      * Get all listings (public access)
      * GET /api/listings
+     * 
+     * With limit and/or cursor, returns one keyset page instead of the whole catalog:
+     * GET /api/listings?limit=20&cursor={nextCursor}
      */
     @GetMapping
-    public ResponseEntity<?> getAllListings() {
+    public ResponseEntity<?> getAllListings(
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         try {
+            String etag = HttpValidators.etag("catalog", listingService.getCatalogVersion());
+            CacheControl cacheControl = HttpValidators.cacheFor(catalogMaxAgeSeconds);
+            if (HttpValidators.matches(ifNoneMatch, etag)) {
+                return HttpValidators.notModified(etag, cacheControl);
+            }
+            
+            if (limit != null || cursor != null) {
+                ListingPage page = listingService.getListingsPage(cursor, limit != null ? limit : DEFAULT_PAGE_SIZE);
+                imageDerivatives.addThumbnails(page.getListings());
+                return ResponseEntity.ok().eTag(etag).cacheControl(cacheControl).body(page);
+            }
+            
             List<Listing> listings = listingService.getAllListings();
-            return ResponseEntity.ok(listings);
+            imageDerivatives.addThumbnails(listings);
+            return ResponseEntity.ok().eTag(etag).cacheControl(cacheControl).body(listings);
+        } catch (ValidationException e) {
+            return ResponseEntity.badRequest()
+                    .body(createError(e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(createError("Failed to fetch listings: " + e.getMessage()));
@@ -53,8 +108,17 @@ public class ListingController {
      * GET /api/listings/{id}
      */
     @GetMapping("/{id}")
-    public ResponseEntity<?> getListingById(@PathVariable int id) {
+    public ResponseEntity<?> getListingById(
+            @PathVariable int id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         try {
+            // Covers the host fields too, so a host profile edit changes it
+            String etag = HttpValidators.etag("listing-" + id, listingService.getListingVersion(id));
+            CacheControl cacheControl = HttpValidators.cacheFor(listingMaxAgeSeconds);
+            if (HttpValidators.matches(ifNoneMatch, etag)) {
+                return HttpValidators.notModified(etag, cacheControl);
+            }
+            
             Listing listing = listingService.getListingById(id);
             
             // Create enriched response with host information
@@ -85,10 +149,12 @@ public class ListingController {
                     response.put("host", hostInfo);
                 }
             } catch (Exception e) {
+                // Partial response: don't let caches keep it under the listing's ETag
                 response.put("host", null);
+                return ResponseEntity.ok().cacheControl(CacheControl.noStore()).body(response);
             }
             
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok().eTag(etag).cacheControl(cacheControl).body(response);
         } catch (Exception e) {
             String message = e.getMessage();
             if (message.contains("not found") || message.contains("NotFoundException")) {
@@ -101,24 +167,52 @@ public class ListingController {
     }
     
     /**
-     * Search listings by city (public access)
-     * GET /api/listings/search?city={city}
+     * Search approved listings (public access)
+     * GET /api/listings/search?city={city}&minPrice=&maxPrice=&guests=&beds=&bathrooms=&sort=&limit=
+     * sort: newest (default), price_asc, price_desc
      */
     @GetMapping("/search")
-    public ResponseEntity<?> searchListings(@RequestParam(required = false) String city) {
+    public ResponseEntity<?> searchListings(
+            @RequestParam(required = false) String city,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(required = false) Integer guests,
+            @RequestParam(required = false) Integer beds,
+            @RequestParam(required = false) Integer bathrooms,
+            @RequestParam(required = false, defaultValue = ListingSearchCriteria.SORT_NEWEST) String sort,
+            @RequestParam(required = false, defaultValue = "50") int limit) {
         try {
-            List<Listing> allListings = listingService.getAllListings();
+            ListingSearchCriteria criteria = new ListingSearchCriteria();
+            criteria.setCity(city);
+            criteria.setMinPrice(minPrice);
+            criteria.setMaxPrice(maxPrice);
+            criteria.setGuests(guests);
+            criteria.setBeds(beds);
+            criteria.setBathrooms(bathrooms);
+            criteria.setSort(sort);
+            criteria.setLimit(limit);
             
-            // Filter by city if provided
-            if (city != null && !city.isEmpty()) {
-                List<Listing> filtered = allListings.stream()
-                        .filter(l -> l.getCity() != null && 
-                                l.getCity().toLowerCase().contains(city.toLowerCase()))
-                        .toList();
-                return ResponseEntity.ok(filtered);
-            }
-            
-            return ResponseEntity.ok(allListings);
+            List<Listing> results = listingService.searchListings(criteria);
+            imageDerivatives.addThumbnails(results);
+            return ResponseEntity.ok(results);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(createError("Failed to search listings: " + e.getMessage()));
+        }
+    }
+    
+    /**
+     * Full-text search over title, city and description (public access)
+     * GET /api/listings/search/text?q={query}&limit=20
+     */
+    @GetMapping("/search/text")
+    public ResponseEntity<?> searchText(
+            @RequestParam("q") String query,
+            @RequestParam(required = false, defaultValue = "20") int limit) {
+        try {
+            List<Listing> results = listingService.searchText(query, limit);
+            imageDerivatives.addThumbnails(results);
+            return ResponseEntity.ok(results);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(createError("Failed to search listings: " + e.getMessage()));
@@ -127,27 +221,29 @@ public class ListingController {
     
     /**
      * Get booked dates for a listing (public access)
-     * GET /api/listings/{id}/booked-dates
+     * GET /api/listings/{id}/booked-dates?from=2024-01-01&to=2024-03-01 (both optional)
      */
     @GetMapping("/{id}/booked-dates")
-    public ResponseEntity<?> getBookedDates(@PathVariable int id) {
+    public ResponseEntity<?> getBookedDates(
+            @PathVariable int id,
+            @RequestParam(required = false) Date from,
+            @RequestParam(required = false) Date to) {
         try {
-            List<Reservation> allReservations = reservationService.getAllReservations();
+            // Pending and confirmed reservations, merged into ranges by the RMI tier
+            List<BookedRange> ranges = reservationService.getBookedRanges(id, from, to);
             
-            // Filter both pending and confirmed reservations for this listing to prevent double-booking
-            List<Map<String, String>> bookedDates = new ArrayList<>();
-            for (Reservation reservation : allReservations) {
-                if (reservation.getListingId() == id && 
-                    ("confirmed".equalsIgnoreCase(reservation.getStatus()) ||
-                     "pending".equalsIgnoreCase(reservation.getStatus()))) {
-                    Map<String, String> dateRange = new HashMap<>();
-                    dateRange.put("checkIn", reservation.getCheckIn() != null ? reservation.getCheckIn().toString() : "");
-                    dateRange.put("checkOut", reservation.getCheckOut() != null ? reservation.getCheckOut().toString() : "");
-                    bookedDates.add(dateRange);
-                }
+            List<Map<String, String>> bookedDates = new ArrayList<>(ranges.size());
+            for (BookedRange range : ranges) {
+                Map<String, String> dateRange = new HashMap<>();
+                dateRange.put("checkIn", range.getCheckIn().toString());
+                dateRange.put("checkOut", range.getCheckOut().toString());
+                bookedDates.add(dateRange);
             }
             
             return ResponseEntity.ok(bookedDates);
+        } catch (ValidationException e) {
+            return ResponseEntity.badRequest()
+                    .body(createError("'to' must be after 'from'"));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(createError("Failed to fetch booked dates: " + e.getMessage()));
@@ -159,17 +255,30 @@ public class ListingController {
      * GET /api/listings/host/{hostId}
      */
     @GetMapping("/host/{hostId}")
-    public ResponseEntity<?> getHostProfile(@PathVariable int hostId) {
+    public ResponseEntity<?> getHostProfile(
+            @PathVariable int hostId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         try {
+            String etag = HttpValidators.etag("host-" + hostId, listingService.getHostVersion(hostId));
+            CacheControl cacheControl = HttpValidators.cacheFor(hostMaxAgeSeconds);
+            if (HttpValidators.matches(ifNoneMatch, etag)) {
+                return HttpValidators.notModified(etag, cacheControl);
+            }
+            
+            // Host and listings are fetched concurrently
+            Future<User> hostCall = fanOut.submit(() -> userService.getUserById(hostId));
+            Future<List<Listing>> listingsCall = fanOut.submit(() -> listingService.getListingsByHost(hostId));
+            
             // Get host information
-            User host = userService.getUserById(hostId);
+            User host = fanOut.join(hostCall);
             if (host == null) {
+                listingsCall.cancel(false);
                 return ResponseEntity.status(HttpStatus.NOT_FOUND)
                         .body(createError("Host not found"));
             }
             
             // Get all listings by this host
-            List<Listing> allListings = listingService.getAllListings();
+            List<Listing> allListings = fanOut.join(listingsCall);
             List<Listing> hostListings = new ArrayList<>();
             for (Listing listing : allListings) {
                 if (listing.getUserId() == hostId && "approved".equalsIgnoreCase(listing.getStatus())) {
@@ -186,10 +295,11 @@ public class ListingController {
             hostInfo.put("createdAt", host.getCreatedAt());
             
             response.put("host", hostInfo);
+            imageDerivatives.addThumbnails(hostListings);
             response.put("listings", hostListings);
             response.put("listingCount", hostListings.size());
             
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok().eTag(etag).cacheControl(cacheControl).body(response);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(createError("Failed to fetch host profile: " + e.getMessage()));
@@ -0,0 +1,73 @@
+package com.hotel.api.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.function.Function;
+
+/**
+ * Response body that writes a JSON array page by page as the pages arrive
+ * from the RMI server, instead of building the whole result in memory first.
+ *
+ * Only one page is held at a time and each is flushed to the client once
+ * written, so memory stays flat and the first bytes go out after the first
+ * page regardless of the total row count. The first page is fetched by the
+ * controller before streaming starts, so a failing RMI server still gets a
+ * proper error status; a failure on a later page can only abort the response.
+ */
+final class PagedJsonArray<P> implements StreamingResponseBody {
+    
+    interface PageFetcher<P> {
+        P fetch(String cursor) throws Exception;
+    }
+    
+    interface PageWriter<P> {
+        void write(JsonGenerator json, P page) throws IOException;
+    }
+    
+    private final ObjectMapper mapper;
+    private final P firstPage;
+    private final Function<P, String> nextCursor;
+    private final PageFetcher<P> fetcher;
+    private final PageWriter<P> writer;
+    
+    PagedJsonArray(ObjectMapper mapper, P firstPage, Function<P, String> nextCursor,
+                   PageFetcher<P> fetcher, PageWriter<P> writer) {
+        this.mapper = mapper;
+        this.firstPage = firstPage;
+        this.nextCursor = nextCursor;
+        this.fetcher = fetcher;
+        this.writer = writer;
+    }
+    
+    @Override
+    public void writeTo(OutputStream out) throws IOException {
+        JsonGenerator json = mapper.createGenerator(out);
+        json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        json.writeStartArray();
+        
+        P page = firstPage;
+        while (true) {
+            writer.write(json, page);
+            json.flush();
+            
+            String cursor = nextCursor.apply(page);
+            if (cursor == null) {
+                break;
+            }
+            try {
+                page = fetcher.fetch(cursor);
+            } catch (Exception e) {
+                // Status and headers are already sent; dropping the connection is the only signal left
+                System.err.println("Aborting streamed response: " + e.getMessage());
+                throw new IOException("Failed to fetch next page", e);
+            }
+        }
+        
+        json.writeEndArray();
+        json.close();
+    }
+}
@@ -1,8 +1,8 @@
 package com.hotel.api.controller;
 
-import com.hotel.shared.model.Listing;
+import com.hotel.shared.exception.ConflictException;
+import com.hotel.shared.exception.ValidationException;
 import com.hotel.shared.model.Reservation;
-import com.hotel.shared.service.ListingService;
 import com.hotel.shared.service.ReservationService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -25,9 +25,6 @@ public class ReservationController {
     @Autowired
     private ReservationService reservationService;
     
-    @Autowired
-    private ListingService listingService;
-    
     /**
      * Create a new reservation (guest creates)
      * POST /api/reservations
@@ -48,35 +45,23 @@ public class ReservationController {
                 reservation.setStatus("pending");
             }
             
-            // Check for date conflicts with confirmed reservations
-            List<Reservation> allReservations = reservationService.getAllReservations();
-            String newCheckIn = reservation.getCheckIn() != null ? reservation.getCheckIn().toString() : "";
-            String newCheckOut = reservation.getCheckOut() != null ? reservation.getCheckOut().toString() : "";
-            
-            for (Reservation existingReservation : allReservations) {
-                // Check both pending and confirmed reservations for the same listing to prevent double-booking
-                if (existingReservation.getListingId() == reservation.getListingId() &&
-                    ("confirmed".equalsIgnoreCase(existingReservation.getStatus()) ||
-                     "pending".equalsIgnoreCase(existingReservation.getStatus()))) {
-                    
-                    String existingCheckIn = existingReservation.getCheckIn() != null ? existingReservation.getCheckIn().toString() : "";
-                    String existingCheckOut = existingReservation.getCheckOut() != null ? existingReservation.getCheckOut().toString() : "";
-                    
-                    // Check if dates overlap
-                    // New reservation starts before existing ends AND new reservation ends after existing starts
-                    if (newCheckIn.compareTo(existingCheckOut) < 0 && 
-                        newCheckOut.compareTo(existingCheckIn) > 0) {
-                        return ResponseEntity.status(HttpStatus.CONFLICT)
-                                .body(createError("These dates are already booked. Please select different dates."));
-                    }
-                }
+            if (reservation.getCheckIn() == null || reservation.getCheckOut() == null) {
+                return ResponseEntity.badRequest()
+                        .body(createError("Check-in and check-out dates are required"));
             }
             
+            // The RMI tier checks for overlapping pending/confirmed reservations and inserts atomically
             Reservation created = reservationService.createReservation(reservation);
             return ResponseEntity.status(HttpStatus.CREATED).body(created);
         } catch (NumberFormatException e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                     .body(createError("Invalid user ID format"));
+        } catch (ValidationException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(createError(e.getMessage()));
+        } catch (ConflictException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(createError(e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(createError("Failed to create reservation: " + e.getMessage()));
@@ -92,14 +77,9 @@ public class ReservationController {
             @RequestHeader(value = "X-User-Id", required = true) String userId) {
         try {
             int userIdInt = Integer.parseInt(userId);
-            List<Reservation> allReservations = reservationService.getAllReservations();
-            
-            // Filter to show only this user's reservations
-            List<Reservation> myReservations = allReservations.stream()
-                    .filter(r -> r.getUserId() == userIdInt)
-                    .toList();
+            // Listing title, city and address are joined in by the RMI tier
+            List<Reservation> myReservations = reservationService.getReservationsByGuest(userIdInt);
             
-            // Enhance reservations with listing details
             List<Map<String, Object>> enrichedReservations = new ArrayList<>();
             for (Reservation reservation : myReservations) {
                 Map<String, Object> enrichedReservation = new HashMap<>();
@@ -112,16 +92,10 @@ public class ReservationController {
                 enrichedReservation.put("status", reservation.getStatus());
                 enrichedReservation.put("createdAt", reservation.getCreatedAt());
                 
-                // Fetch listing information
-                try {
-                    Listing listing = listingService.getListingById(reservation.getListingId());
-                    if (listing != null) {
-                        enrichedReservation.put("listingTitle", listing.getTitle());
-                        enrichedReservation.put("listingCity", listing.getCity());
-                        enrichedReservation.put("listingAddress", listing.getAddress());
-                    }
-                } catch (Exception e) {
-                    // Continue without listing info if not found
+                if (reservation.getListingTitle() != null) {
+                    enrichedReservation.put("listingTitle", reservation.getListingTitle());
+                    enrichedReservation.put("listingCity", reservation.getListingCity());
+                    enrichedReservation.put("listingAddress", reservation.getListingAddress());
                 }
                 
                 enrichedReservations.add(enrichedReservation);
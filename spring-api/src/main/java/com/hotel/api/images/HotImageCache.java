@@ -0,0 +1,130 @@
+package com.hotel.api.images;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Small, frequently requested image files held in direct (off-heap) buffers.
+ *
+ * Listing pages request the same few thumbnails over and over; serving them
+ * from memory skips the open/read/close per request and keeps the bytes out
+ * of the Java heap. Entries are evicted least recently used once the total
+ * exceeds images.serve.cacheBytes, and files over images.serve.cacheMaxFileBytes
+ * are never cached (they are sent with sendfile instead). An entry is only
+ * used while the file's size and modification time still match, so a
+ * regenerated variant or a deleted upload is never served from here.
+ */
+@Component
+public class HotImageCache {
+    
+    @Value("${images.serve.cacheBytes:67108864}")
+    private long maxBytes;
+    
+    @Value("${images.serve.cacheMaxFileBytes:131072}")
+    private long maxFileBytes;
+    
+    private final LinkedHashMap<Path, Entry> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private long bytes;
+    
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    
+    private static final class Entry {
+        final ByteBuffer data;
+        final long lastModified;
+        
+        Entry(ByteBuffer data, long lastModified) {
+            this.data = data;
+            this.lastModified = lastModified;
+        }
+    }
+    
+    /**
+     * Whether a file of this size is served from the cache
+     */
+    public boolean accepts(long size) {
+        return maxBytes > 0 && size <= maxFileBytes;
+    }
+    
+    /**
+     * Read-only view of the file's bytes, loading it on a miss
+     * @param size Current size of the file
+     * @param lastModified Current modification time of the file
+     */
+    public ByteBuffer get(Path file, long size, long lastModified) throws IOException {
+        synchronized (this) {
+            Entry entry = entries.get(file);
+            if (entry != null && entry.data.capacity() == size && entry.lastModified == lastModified) {
+                hits.incrementAndGet();
+                return entry.data.duplicate();
+            }
+        }
+        misses.incrementAndGet();
+        
+        // Read outside the lock; two threads loading the same file only waste one read
+        ByteBuffer data = ByteBuffer.allocateDirect((int) size);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            while (data.hasRemaining() && channel.read(data) >= 0) {
+                // keep reading
+            }
+        }
+        if (data.hasRemaining()) {
+            throw new IOException("File changed while reading: " + file);
+        }
+        data.flip();
+        ByteBuffer readOnly = data.asReadOnlyBuffer();
+        
+        synchronized (this) {
+            Entry previous = entries.put(file, new Entry(readOnly, lastModified));
+            if (previous != null) {
+                bytes -= previous.data.capacity();
+            }
+            bytes += size;
+            Iterator<Entry> eldest = entries.values().iterator();
+            while (bytes > maxBytes && eldest.hasNext()) {
+                bytes -= eldest.next().data.capacity();
+                eldest.remove();
+                evictions.incrementAndGet();
+            }
+        }
+        return readOnly.duplicate();
+    }
+    
+    /**
+     * Drop a file that no longer exists
+     */
+    public synchronized void remove(Path file) {
+        Entry entry = entries.remove(file);
+        if (entry != null) {
+            bytes -= entry.data.capacity();
+        }
+    }
+    
+    /**
+     * Counters for the health endpoint
+     */
+    public synchronized Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        long hitCount = hits.get();
+        long lookups = hitCount + misses.get();
+        stats.put("entries", entries.size());
+        stats.put("bytes", bytes);
+        stats.put("maxBytes", maxBytes);
+        stats.put("hits", hitCount);
+        stats.put("misses", misses.get());
+        stats.put("hitRate", lookups == 0 ? 0.0 : (double) hitCount / lookups);
+        stats.put("evictions", evictions.get());
+        return stats;
+    }
+}
@@ -0,0 +1,368 @@
+package com.hotel.api.images;
+
+import com.hotel.shared.model.Listing;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Resized copies of uploaded images: thumb (320px), medium (800px) and large (1600px).
+ *
+ * Each variant is stored next to the original as {name}_{variant}.{ext}, so
+ * its URL follows from the original's URL without a database change. The
+ * original is decoded once and every variant is scaled from the next larger
+ * one on a bounded worker pool (images.derivatives.*), after the upload has
+ * already returned. Variants are re-encoded from pixels only, which drops
+ * EXIF and other metadata (camera, GPS) from everything but the original.
+ *
+ * A listing's thumbnailUrl is the variant's URL whether or not it has been
+ * written yet, so list responses do not change under their ETag as variants
+ * appear. Uploads from before this existed, or whose job was dropped because
+ * the queue was full, are queued the first time one of their variants is
+ * requested; until then ImageController redirects variant requests to the
+ * original. Building a listing response never touches the filesystem.
+ */
+@Component
+public class ImageDerivatives {
+    
+    public static final String UPLOAD_DIR = "uploads/images/";
+    
+    // Stored image URLs end in /uploads/images/{uuid}.{ext} or, stored by content, /uploads/images/ab/cd/{sha256}.{ext},
+    // possibly behind a host prefix
+    private static final Pattern LOCAL_IMAGE = Pattern.compile(
+            "^(.*/uploads/images/)((?:[0-9a-f]{2}/[0-9a-f]{2}/)?[A-Za-z0-9-]+)(\\.(?:jpg|jpeg|png|gif|webp))$",
+            Pattern.CASE_INSENSITIVE);
+    
+    // {name}_{variant}.{ext} as written by variantName
+    private static final Pattern VARIANT_NAME = Pattern.compile("^(.+)_(?:thumb|medium|large)\\.(jpg|png)$");
+    
+    // Refuse to decode images that would need more than ~160MB of pixels
+    private static final long MAX_PIXELS = 40_000_000L;
+    
+    public enum Variant {
+        THUMB("thumb", 320), MEDIUM("medium", 800), LARGE("large", 1600);
+        
+        private final String suffix;
+        private final int maxSize;
+        
+        Variant(String suffix, int maxSize) {
+            this.suffix = suffix;
+            this.maxSize = maxSize;
+        }
+        
+        public String getSuffix() { return suffix; }
+        public int getMaxSize() { return maxSize; }
+    }
+    
+    @Value("${images.derivatives.threads:2}")
+    private int threads;
+    
+    @Value("${images.derivatives.queueSize:100}")
+    private int queueSize;
+    
+    @Value("${images.derivatives.jpegQuality:0.82}")
+    private float jpegQuality;
+    
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+    private final AtomicLong generated = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong bytesIn = new AtomicLong();
+    private final AtomicLong thumbBytesOut = new AtomicLong();
+    
+    private ThreadPoolExecutor pool;
+    
+    @PostConstruct
+    public void start() {
+        AtomicInteger counter = new AtomicInteger();
+        pool = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(queueSize), r -> {
+            Thread t = new Thread(r, "image-derivatives-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            t.setPriority(Thread.NORM_PRIORITY - 1);
+            return t;
+        });
+        pool.allowCoreThreadTimeOut(true);
+    }
+    
+    @PreDestroy
+    public void stop() {
+        if (pool != null) {
+            pool.shutdownNow();
+        }
+    }
+    
+    /**
+     * URLs the variants of a stored image will have, or an empty map for images not uploaded here
+     */
+    public Map<String, String> variantUrls(String imageUrl) {
+        Map<String, String> urls = new LinkedHashMap<>();
+        Matcher m = imageUrl != null ? LOCAL_IMAGE.matcher(imageUrl) : null;
+        if (m != null && m.matches() && canDecode(m.group(3))) {
+            for (Variant variant : Variant.values()) {
+                urls.put(variant.getSuffix(), m.group(1) + variantName(m.group(2), m.group(3), variant));
+            }
+        }
+        return urls;
+    }
+    
+    /**
+     * Thumbnail URL of a stored image, or null for images not uploaded here. Only the URL is built;
+     * a thumbnail that does not exist yet is queued when it is first requested.
+     */
+    public String thumbnailUrl(String imageUrl) {
+        Matcher m = imageUrl != null ? LOCAL_IMAGE.matcher(imageUrl) : null;
+        if (m == null || !m.matches() || !canDecode(m.group(3))) {
+            return null;
+        }
+        return m.group(1) + variantName(m.group(2), m.group(3), Variant.THUMB);
+    }
+    
+    /**
+     * The stored original a variant file is made from, or null if the path is not a variant or the original is gone
+     */
+    public Path originalOf(Path variant) {
+        Matcher m = VARIANT_NAME.matcher(variant.getFileName().toString());
+        if (!m.matches()) {
+            return null;
+        }
+        // PNG variants come from PNG or GIF originals, JPEG ones from everything else
+        String[] extensions = "png".equals(m.group(2))
+                ? new String[] { ".png", ".gif", ".PNG", ".GIF" }
+                : new String[] { ".jpg", ".jpeg", ".JPG", ".JPEG" };
+        for (String ext : extensions) {
+            Path original = variant.resolveSibling(m.group(1) + ext);
+            if (Files.isRegularFile(original)) {
+                return original;
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * Set the thumbnail of each listing's first image, for list responses
+     */
+    public void addThumbnails(List<Listing> listings) {
+        for (Listing listing : listings) {
+            List<String> imageUrls = listing.getImageUrls();
+            if (imageUrls != null && !imageUrls.isEmpty()) {
+                listing.setThumbnailUrl(thumbnailUrl(imageUrls.get(0)));
+            }
+        }
+    }
+    
+    /**
+     * Files the variants of a stored original are (or will be) written to
+     */
+    public List<Path> variantPaths(Path original) {
+        String fileName = original.getFileName().toString();
+        String ext = extension(fileName);
+        List<Path> paths = new ArrayList<>();
+        if (canDecode(ext)) {
+            String base = fileName.substring(0, fileName.length() - ext.length());
+            for (Variant variant : Variant.values()) {
+                paths.add(original.resolveSibling(variantName(base, ext, variant)));
+            }
+        }
+        return paths;
+    }
+    
+    /**
+     * Queue variant generation for a stored original; a full queue only delays it to the next lookup
+     */
+    public void submit(Path original) {
+        String key = original.toString();
+        if (!canDecode(extension(original.getFileName().toString())) || !pending.add(key)) {
+            return;
+        }
+        try {
+            pool.execute(() -> {
+                try {
+                    generate(original);
+                    generated.incrementAndGet();
+                } catch (Exception | OutOfMemoryError e) {
+                    failed.incrementAndGet();
+                    System.err.println("Could not create variants of " + key + ": " + e.getMessage());
+                } finally {
+                    pending.remove(key);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            pending.remove(key);
+            dropped.incrementAndGet();
+        }
+    }
+    
+    /**
+     * Counters for the health endpoint
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("threads", threads);
+        stats.put("active", pool.getActiveCount());
+        stats.put("queued", pool.getQueue().size());
+        stats.put("generated", generated.get());
+        stats.put("failed", failed.get());
+        stats.put("dropped", dropped.get());
+        stats.put("originalBytes", bytesIn.get());
+        stats.put("thumbBytes", thumbBytesOut.get());
+        return stats;
+    }
+    
+    private void generate(Path original) throws IOException {
+        String fileName = original.getFileName().toString();
+        String ext = extension(fileName);
+        String base = fileName.substring(0, fileName.length() - ext.length());
+        
+        BufferedImage image = decode(original);
+        bytesIn.addAndGet(Files.size(original));
+        
+        // Largest first, each from the previous one: cheaper and sharper than scaling the original three times
+        Variant[] variants = Variant.values();
+        for (int i = variants.length - 1; i >= 0; i--) {
+            image = scaleToFit(image, variants[i].getMaxSize());
+            Path target = original.resolveSibling(variantName(base, ext, variants[i]));
+            write(image, target);
+            if (variants[i] == Variant.THUMB) {
+                thumbBytesOut.addAndGet(Files.size(target));
+            }
+        }
+    }
+    
+    private BufferedImage decode(Path original) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(original.toFile())) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) {
+                throw new IOException("Unsupported image format");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                long pixels = (long) reader.getWidth(0) * reader.getHeight(0);
+                if (pixels > MAX_PIXELS) {
+                    throw new IOException("Image too large to resize (" + pixels + " pixels)");
+                }
+                return reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+    
+    /**
+     * Downscale so neither side exceeds maxSize, halving first so bilinear filtering stays smooth; never upscales
+     */
+    private static BufferedImage scaleToFit(BufferedImage source, int maxSize) {
+        int width = source.getWidth();
+        int height = source.getHeight();
+        double scale = Math.min(1.0, (double) maxSize / Math.max(width, height));
+        int targetWidth = Math.max(1, (int) Math.round(width * scale));
+        int targetHeight = Math.max(1, (int) Math.round(height * scale));
+        
+        BufferedImage current = source;
+        while (current.getWidth() != targetWidth || current.getHeight() != targetHeight) {
+            int w = Math.max(targetWidth, current.getWidth() / 2);
+            int h = Math.max(targetHeight, current.getHeight() / 2);
+            current = draw(current, w, h);
+        }
+        if (current == source && source.getType() != BufferedImage.TYPE_INT_RGB && source.getType() != BufferedImage.TYPE_INT_ARGB) {
+            // Normalize palette and other exotic types so the encoders accept them
+            current = draw(source, width, height);
+        }
+        return current;
+    }
+    
+    private static BufferedImage draw(BufferedImage source, int width, int height) {
+        int type = source.getColorModel().hasAlpha() ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        BufferedImage scaled = new BufferedImage(width, height, type);
+        Graphics2D g = scaled.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            g.dispose();
+        }
+        return scaled;
+    }
+    
+    /**
+     * Encode to a temporary file and move it into place, so a half-written variant is never served
+     */
+    private void write(BufferedImage image, Path target) throws IOException {
+        // Jobs are deduplicated per original, so one fixed temp name per variant is enough;
+        // unlike createTempFile it keeps the usual permissions, like the original upload
+        Path temp = target.resolveSibling("." + target.getFileName() + ".tmp");
+        try {
+            String format = target.toString().endsWith(".png") ? "png" : "jpg";
+            ImageWriter writer = ImageIO.getImageWritersByFormatName(format).next();
+            try (ImageOutputStream out = ImageIO.createImageOutputStream(temp.toFile())) {
+                writer.setOutput(out);
+                ImageWriteParam param = writer.getDefaultWriteParam();
+                if ("jpg".equals(format)) {
+                    param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                    param.setCompressionQuality(jpegQuality);
+                    param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+                }
+                writer.write(null, new IIOImage(image, null, null), param);
+            } finally {
+                writer.dispose();
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+    
+    /**
+     * PNG and GIF keep transparency as PNG; everything else becomes JPEG
+     */
+    private static String variantName(String base, String ext, Variant variant) {
+        String lower = ext.toLowerCase();
+        String variantExt = ".png".equals(lower) || ".gif".equals(lower) ? ".png" : ".jpg";
+        return base + "_" + variant.getSuffix() + variantExt;
+    }
+    
+    /**
+     * The JDK has no WebP decoder, so WebP uploads are only ever served as-is
+     */
+    private static boolean canDecode(String ext) {
+        return !".webp".equalsIgnoreCase(ext) && !ext.isEmpty();
+    }
+    
+    private static String extension(String fileName) {
+        int dot = fileName.lastIndexOf('.');
+        return dot < 0 ? "" : fileName.substring(dot);
+    }
+}
@@ -0,0 +1,305 @@
+package com.hotel.api.images;
+
+import com.hotel.shared.service.ListingService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Uploaded images stored by content: uploads/images/ab/cd/{sha256}.{ext}.
+ *
+ * The SHA-256 is computed while the upload streams to a temporary file, so
+ * the same photo uploaded twice is kept once and a URL always names the same
+ * bytes, which lets browsers cache it for a year without revalidating.
+ *
+ * Files are reference-counted against listing_images (content_hash) through
+ * the RMI server. When a listing is deleted its images are released, and a
+ * periodic sweep (images.store.*) deletes stored files, with their variants,
+ * that no listing uses. Both leave alone anything written or re-uploaded
+ * within the grace period, since an upload is saved before the listing that
+ * will use it.
+ */
+@Component
+public class ImageStore {
+    
+    // Stored by content: .../uploads/images/ab/cd/{sha256}.{ext}
+    private static final Pattern STORED_URL = Pattern.compile(
+            "/uploads/images/([0-9a-f]{2}/[0-9a-f]{2}/([0-9a-f]{64})\\.[a-z]+)$");
+    private static final Pattern STORED_NAME = Pattern.compile("^([0-9a-f]{64})\\.(?:jpg|png|gif|webp)$");
+    private static final Pattern SHARD = Pattern.compile("^[0-9a-f]{2}$");
+    
+    // Hashes per reference-count call
+    private static final int SWEEP_BATCH_SIZE = 500;
+    
+    /**
+     * Result of storing an upload
+     */
+    public static final class StoredImage {
+        private final String path;
+        private final boolean deduplicated;
+        
+        StoredImage(String path, boolean deduplicated) {
+            this.path = path;
+            this.deduplicated = deduplicated;
+        }
+        
+        /** Path below uploads/images/, e.g. ab/cd/{sha256}.jpg */
+        public String getPath() { return path; }
+        
+        /** The same content was already stored */
+        public boolean isDeduplicated() { return deduplicated; }
+        
+        public Path getFile() { return Paths.get(ImageDerivatives.UPLOAD_DIR, path); }
+        
+        public String getUrl() { return "/uploads/images/" + path; }
+    }
+    
+    @Autowired
+    private ListingService listingService;
+    
+    @Autowired
+    private ImageDerivatives imageDerivatives;
+    
+    @Value("${images.store.orphanGraceHours:24}")
+    private long orphanGraceHours;
+    
+    @Value("${images.store.sweepIntervalMinutes:60}")
+    private long sweepIntervalMinutes;
+    
+    private final AtomicLong stored = new AtomicLong();
+    private final AtomicLong deduplicated = new AtomicLong();
+    private final AtomicLong bytesSaved = new AtomicLong();
+    private final AtomicLong deleted = new AtomicLong();
+    private final AtomicLong sweeps = new AtomicLong();
+    private volatile String lastSweepError;
+    
+    // Held by store() from its exists check to its touch or move, and by the sweep from its
+    // last mtime check to its delete, so a deduplicated upload never returns a deleted file
+    private final Object fileLock = new Object();
+    
+    private ScheduledExecutorService sweeper;
+    
+    @PostConstruct
+    public void start() {
+        sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "image-store-sweeper");
+            t.setDaemon(true);
+            return t;
+        });
+        if (sweepIntervalMinutes > 0) {
+            sweeper.scheduleWithFixedDelay(this::sweep, sweepIntervalMinutes, sweepIntervalMinutes, TimeUnit.MINUTES);
+        }
+    }
+    
+    @PreDestroy
+    public void stop() {
+        if (sweeper != null) {
+            sweeper.shutdownNow();
+        }
+    }
+    
+    /**
+     * Stream an upload to disk under the SHA-256 of its content
+     * @param in The upload
+     * @param extension Lower-case extension including the dot
+     */
+    public StoredImage store(InputStream in, String extension) throws IOException {
+        Path root = Paths.get(ImageDerivatives.UPLOAD_DIR);
+        Files.createDirectories(root);
+        Path temp = root.resolve(".upload-" + UUID.randomUUID() + ".tmp");
+        try {
+            MessageDigest digest = sha256();
+            long size;
+            try (DigestInputStream digesting = new DigestInputStream(in, digest)) {
+                size = Files.copy(digesting, temp);
+            }
+            String hash = toHex(digest.digest());
+            // .jpeg and .jpg are the same format; one name keeps them one file
+            String ext = ".jpeg".equals(extension) ? ".jpg" : extension;
+            String path = hash.substring(0, 2) + "/" + hash.substring(2, 4) + "/" + hash + ext;
+            
+            Path target = root.resolve(path);
+            synchronized (fileLock) {
+                if (Files.exists(target)) {
+                    // Restart the grace period so a sweep does not take it before the listing is saved
+                    Files.setLastModifiedTime(target, FileTime.fromMillis(System.currentTimeMillis()));
+                    deduplicated.incrementAndGet();
+                    bytesSaved.addAndGet(size);
+                    return new StoredImage(path, true);
+                }
+                Files.createDirectories(target.getParent());
+                // Two identical uploads racing here write the same bytes, so replacing is harmless
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
+            stored.incrementAndGet();
+            return new StoredImage(path, false);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+    
+    /**
+     * Delete the stored files among these image URLs that no listing uses any more; runs in the background
+     */
+    public void release(Collection<String> imageUrls) {
+        if (imageUrls == null) {
+            return;
+        }
+        Map<String, Path> files = new LinkedHashMap<>();
+        for (String url : imageUrls) {
+            Matcher m = url != null ? STORED_URL.matcher(url) : null;
+            if (m != null && m.find()) {
+                files.put(m.group(2), Paths.get(ImageDerivatives.UPLOAD_DIR, m.group(1)));
+            }
+        }
+        if (files.isEmpty()) {
+            return;
+        }
+        try {
+            sweeper.execute(() -> {
+                try {
+                    deleteUnreferenced(files);
+                } catch (Exception e) {
+                    // The periodic sweep gets them later
+                    System.err.println("Could not release images: " + e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Shutting down
+        }
+    }
+    
+    /**
+     * Delete every stored file older than the grace period that no listing uses
+     */
+    void sweep() {
+        try {
+            long cutoff = System.currentTimeMillis() - TimeUnit.HOURS.toMillis(orphanGraceHours);
+            Map<String, Path> batch = new LinkedHashMap<>();
+            for (Path first : shards(Paths.get(ImageDerivatives.UPLOAD_DIR))) {
+                for (Path second : shards(first)) {
+                    try (DirectoryStream<Path> files = Files.newDirectoryStream(second)) {
+                        for (Path file : files) {
+                            Matcher m = STORED_NAME.matcher(file.getFileName().toString());
+                            if (m.matches() && Files.getLastModifiedTime(file).toMillis() < cutoff) {
+                                batch.put(m.group(1), file);
+                                if (batch.size() >= SWEEP_BATCH_SIZE) {
+                                    deleteUnreferenced(batch);
+                                    batch.clear();
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+            deleteUnreferenced(batch);
+            sweeps.incrementAndGet();
+            lastSweepError = null;
+        } catch (Exception e) {
+            // Never let the scheduled sweep die
+            lastSweepError = e.toString();
+            System.err.println("Image sweep failed: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Counters for the health endpoint
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("stored", stored.get());
+        stats.put("deduplicated", deduplicated.get());
+        stats.put("bytesSaved", bytesSaved.get());
+        stats.put("deleted", deleted.get());
+        stats.put("sweeps", sweeps.get());
+        stats.put("lastSweepError", lastSweepError);
+        return stats;
+    }
+    
+    private void deleteUnreferenced(Map<String, Path> files) throws IOException {
+        if (files.isEmpty()) {
+            return;
+        }
+        // The reference counts are fetched outside the lock; uploads only wait for the deletes
+        Map<String, Integer> counts = listingService.getImageReferenceCounts(new ArrayList<>(files.keySet()));
+        long cutoff = System.currentTimeMillis() - TimeUnit.HOURS.toMillis(orphanGraceHours);
+        for (Map.Entry<String, Path> entry : files.entrySet()) {
+            Integer refs = counts.get(entry.getKey());
+            Path file = entry.getValue();
+            // Only an explicit 0 counts
+            if (refs == null || refs != 0) {
+                continue;
+            }
+            synchronized (fileLock) {
+                // Re-checked under the lock: a file re-uploaded since it was listed is in its grace period again
+                if (!Files.exists(file) || Files.getLastModifiedTime(file).toMillis() >= cutoff) {
+                    continue;
+                }
+                for (Path variant : imageDerivatives.variantPaths(file)) {
+                    Files.deleteIfExists(variant);
+                }
+                if (Files.deleteIfExists(file)) {
+                    deleted.incrementAndGet();
+                }
+            }
+        }
+    }
+    
+    private static List<Path> shards(Path dir) throws IOException {
+        List<Path> shards = new ArrayList<>();
+        if (!Files.isDirectory(dir)) {
+            return shards;
+        }
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(dir)) {
+            for (Path entry : entries) {
+                if (Files.isDirectory(entry) && SHARD.matcher(entry.getFileName().toString()).matches()) {
+                    shards.add(entry);
+                }
+            }
+        }
+        return shards;
+    }
+    
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+    
+    private static String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+        }
+        return hex.toString();
+    }
+}
@@ -0,0 +1,159 @@
+package com.hotel.api.rmi;
+
+import com.hotel.shared.util.VirtualThreads;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs independent RMI calls of one request concurrently.
+ *
+ * Controllers {@link #submit} every call that does not depend on another and
+ * then {@link #join} each result, so the request waits roughly as long as the
+ * slowest call instead of the sum of all of them. The pool and its queue are
+ * bounded (rmi.fanout.threads, rmi.fanout.queueSize); when both are full the
+ * call runs on the request thread instead of being rejected.
+ *
+ * Each join waits at most rmi.fanout.callTimeoutMs. A timed-out call is
+ * cancelled, but a blocked RMI read does not react to interrupts, so the
+ * worker is only freed once the remote side answers or the socket times out.
+ * {@link #joinOrDefault} is for optional enrichment: a failure or timeout is
+ * logged and counted and the fallback is used, so one slow call degrades the
+ * response instead of failing it.
+ */
+@Component
+public class FanOutExecutor {
+    
+    @Value("${rmi.fanout.threads:16}")
+    private int threads;
+    
+    @Value("${rmi.fanout.queueSize:200}")
+    private int queueSize;
+    
+    @Value("${rmi.fanout.callTimeoutMs:5000}")
+    private long callTimeoutMs;
+    
+    @Value("${threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+    
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong timedOut = new AtomicLong();
+    private final AtomicLong ranInline = new AtomicLong();
+    private final AtomicLong degraded = new AtomicLong();
+    
+    private ThreadPoolExecutor pool;
+    
+    @PostConstruct
+    public void start() {
+        AtomicInteger counter = new AtomicInteger();
+        ThreadFactory threadFactory = r -> {
+            Thread t = new Thread(r, "rmi-fanout-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+        if (virtualThreads && VirtualThreads.isSupported()) {
+            // Still bounded by the pool size, only the carrier of each call changes
+            threadFactory = VirtualThreads.factory("rmi-fanout-vt-");
+        }
+        RejectedExecutionHandler runInline = (task, executor) -> {
+            ranInline.incrementAndGet();
+            if (!executor.isShutdown()) {
+                task.run();
+            }
+        };
+        pool = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueSize), threadFactory, runInline);
+        pool.allowCoreThreadTimeOut(true);
+    }
+    
+    @PreDestroy
+    public void stop() {
+        if (pool != null) {
+            pool.shutdownNow();
+        }
+    }
+    
+    /**
+     * Start a call without waiting for it
+     */
+    public <T> Future<T> submit(Callable<T> call) {
+        submitted.incrementAndGet();
+        return pool.submit(call);
+    }
+    
+    /**
+     * Wait for a submitted call and return its result, rethrowing what it threw
+     */
+    public <T> T join(Future<T> future) throws Exception {
+        try {
+            return future.get(callTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            timedOut.incrementAndGet();
+            future.cancel(true);
+            throw new TimeoutException("RMI call timed out after " + callTimeoutMs + "ms");
+        } catch (ExecutionException e) {
+            failed.incrementAndGet();
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            throw e;
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw e;
+        } catch (CancellationException e) {
+            failed.incrementAndGet();
+            throw e;
+        }
+    }
+    
+    /**
+     * Like {@link #join}, but an optional result falls back instead of failing the request
+     */
+    public <T> T joinOrDefault(Future<T> future, T fallback, String what) {
+        try {
+            return join(future);
+        } catch (InterruptedException e) {
+            return fallback;
+        } catch (Exception e) {
+            degraded.incrementAndGet();
+            System.err.println("Continuing without " + what + ": " + e.getMessage());
+            return fallback;
+        }
+    }
+    
+    /**
+     * Pool and call counters for the health endpoint
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("threads", threads);
+        stats.put("active", pool.getActiveCount());
+        stats.put("queued", pool.getQueue().size());
+        stats.put("largestPoolSize", pool.getLargestPoolSize());
+        stats.put("submitted", submitted.get());
+        stats.put("failed", failed.get());
+        stats.put("timedOut", timedOut.get());
+        stats.put("ranInline", ranInline.get());
+        stats.put("degraded", degraded.get());
+        return stats;
+    }
+}
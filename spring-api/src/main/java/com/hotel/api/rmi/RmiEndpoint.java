@@ -0,0 +1,200 @@
+package com.hotel.api.rmi;
+
+import java.rmi.NotBoundException;
+import java.rmi.Remote;
+import java.rmi.RemoteException;
+import java.rmi.registry.LocateRegistry;
+import java.rmi.registry.Registry;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * One rmi-server instance as seen by the load balancer: its cached stubs,
+ * the number of calls currently in flight, and whether it is healthy.
+ *
+ * An endpoint is taken out of rotation when its registry probe fails, or for
+ * rmi.lb.ejectionMs after rmi.lb.ejectAfterFailures consecutive connection
+ * failures. The failure count is only reset by a successful call, so once an
+ * ejection expires a single further failure ejects the endpoint again.
+ */
+public final class RmiEndpoint {
+    
+    private final String host;
+    private final int port;
+    private final Map<String, Remote> stubs = new ConcurrentHashMap<>();
+    private final Map<String, Boolean> bound = new ConcurrentHashMap<>();
+    private final AtomicInteger outstanding = new AtomicInteger();
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicLong calls = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong ejections = new AtomicLong();
+    private final AtomicLong lookups = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+    private final AtomicLong probeFailures = new AtomicLong();
+    
+    private volatile Boolean available; // null until the first probe
+    private volatile long ejectedUntil;
+    private volatile long lastProbeAt;
+    private volatile String lastError;
+    
+    RmiEndpoint(String host, int port) {
+        this.host = host;
+        this.port = port;
+    }
+    
+    /**
+     * Parse "host:port", defaulting the port when it is omitted
+     */
+    static RmiEndpoint parse(String address, int defaultPort) {
+        String trimmed = address.trim();
+        int colon = trimmed.lastIndexOf(':');
+        if (colon < 0) {
+            return new RmiEndpoint(trimmed, defaultPort);
+        }
+        return new RmiEndpoint(trimmed.substring(0, colon), Integer.parseInt(trimmed.substring(colon + 1)));
+    }
+    
+    public String getAddress() {
+        return host + ":" + port;
+    }
+    
+    /**
+     * Cached stub for a binding name, looked up on first use
+     */
+    Remote get(String name) throws RemoteException {
+        Remote stub = stubs.get(name);
+        if (stub != null) {
+            return stub;
+        }
+        stub = lookup(name);
+        Remote existing = stubs.putIfAbsent(name, stub);
+        return existing != null ? existing : stub;
+    }
+    
+    /**
+     * Forget a stub that failed, unless another thread already replaced it
+     */
+    void invalidate(String name, Remote stale) {
+        if (stubs.remove(name, stale)) {
+            invalidations.incrementAndGet();
+            System.out.println("Dropped stale RMI stub for " + name + " on " + getAddress());
+        }
+    }
+    
+    /**
+     * Not known to be down and not ejected
+     */
+    boolean isUsable(long now) {
+        return !Boolean.FALSE.equals(available) && now >= ejectedUntil;
+    }
+    
+    boolean isAvailable() {
+        return Boolean.TRUE.equals(available);
+    }
+    
+    int outstanding() {
+        return outstanding.get();
+    }
+    
+    void callStarted() {
+        calls.incrementAndGet();
+        outstanding.incrementAndGet();
+    }
+    
+    void callFinished() {
+        outstanding.decrementAndGet();
+    }
+    
+    void recordSuccess() {
+        consecutiveFailures.set(0);
+    }
+    
+    void recordFailure(int ejectAfterFailures, long ejectionMs) {
+        failures.incrementAndGet();
+        if (consecutiveFailures.incrementAndGet() >= ejectAfterFailures) {
+            ejectedUntil = System.currentTimeMillis() + ejectionMs;
+            ejections.incrementAndGet();
+            System.out.println("Ejected RMI endpoint " + getAddress() + " for " + ejectionMs + "ms");
+        }
+    }
+    
+    /**
+     * Re-read this endpoint's registry and refresh stubs that changed (server restarted)
+     * @return whether the registry was reachable
+     */
+    boolean probe() {
+        Boolean previous = available;
+        try {
+            Registry registry = LocateRegistry.getRegistry(host, port);
+            Map<String, Boolean> names = new LinkedHashMap<>();
+            for (String name : registry.list()) {
+                names.put(name, Boolean.TRUE);
+            }
+            
+            for (Map.Entry<String, Remote> entry : stubs.entrySet()) {
+                String name = entry.getKey();
+                if (!names.containsKey(name)) {
+                    invalidate(name, entry.getValue());
+                    continue;
+                }
+                Remote fresh = registry.lookup(name);
+                if (!fresh.equals(entry.getValue()) && stubs.replace(name, entry.getValue(), fresh)) {
+                    invalidations.incrementAndGet();
+                    System.out.println("Refreshed RMI stub for " + name + " on " + getAddress());
+                }
+            }
+            
+            bound.keySet().retainAll(names.keySet());
+            bound.putAll(names);
+            lastError = null;
+            available = true;
+        } catch (RemoteException | NotBoundException e) {
+            probeFailures.incrementAndGet();
+            lastError = e.getClass().getSimpleName() + ": " + e.getMessage();
+            bound.replaceAll((name, up) -> Boolean.FALSE);
+            available = false;
+        } catch (RuntimeException e) {
+            // Never let the scheduled probe die
+            probeFailures.incrementAndGet();
+            lastError = e.toString();
+        } finally {
+            lastProbeAt = System.currentTimeMillis();
+        }
+        if (previous == null || previous != isAvailable()) {
+            System.out.println("RMI server " + getAddress() + (isAvailable() ? " is reachable" : " is unreachable"));
+        }
+        return isAvailable();
+    }
+    
+    Map<String, Object> health() {
+        Map<String, Object> health = new LinkedHashMap<>();
+        health.put("address", getAddress());
+        health.put("status", isAvailable() ? "UP" : "DOWN");
+        health.put("ejected", System.currentTimeMillis() < ejectedUntil);
+        health.put("services", new LinkedHashMap<>(bound));
+        health.put("outstanding", outstanding.get());
+        health.put("calls", calls.get());
+        health.put("failures", failures.get());
+        health.put("ejections", ejections.get());
+        health.put("lastProbeAt", lastProbeAt);
+        health.put("lastError", lastError);
+        health.put("lookups", lookups.get());
+        health.put("staleStubsDropped", invalidations.get());
+        health.put("probeFailures", probeFailures.get());
+        return health;
+    }
+    
+    private Remote lookup(String name) throws RemoteException {
+        lookups.incrementAndGet();
+        try {
+            Registry registry = LocateRegistry.getRegistry(host, port);
+            System.out.println("Looking up " + name + " at rmi://" + getAddress());
+            return registry.lookup(name);
+        } catch (NotBoundException e) {
+            throw new RemoteException("RMI service not bound: " + name, e);
+        }
+    }
+}
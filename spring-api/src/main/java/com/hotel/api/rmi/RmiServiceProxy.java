@@ -0,0 +1,205 @@
+package com.hotel.api.rmi;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.rmi.ConnectException;
+import java.rmi.ConnectIOException;
+import java.rmi.NoSuchObjectException;
+import java.rmi.Remote;
+import java.rmi.RemoteException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Client-side proxy for an RMI service interface, balanced over the
+ * rmi-server endpoints of {@link RmiStubRegistry}.
+ *
+ * Each call goes to the endpoint the registry picks. If the call fails in a
+ * way that guarantees the server never ran it (the remote object is gone, or
+ * the connection could not be opened), the stub is dropped, the failure
+ * counts towards ejecting that endpoint, and the call is retried on another
+ * one. Other failures are passed through untouched, since the server may
+ * already have applied them.
+ *
+ * Reads (methods named get*, is* or search*) can be hedged: when
+ * rmi.hedge.delayMs is set and the first endpoint has not answered by then,
+ * the same call is sent to a second endpoint and whichever answers first wins.
+ */
+public final class RmiServiceProxy implements InvocationHandler {
+    
+    private final String name;
+    private final RmiStubRegistry registry;
+    private final int maxAttempts;
+    private final long retryBackoffMs;
+    private final long hedgeDelayMs;
+    
+    private RmiServiceProxy(String name, RmiStubRegistry registry, int maxAttempts, long retryBackoffMs,
+                            long hedgeDelayMs) {
+        this.name = name;
+        this.registry = registry;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.retryBackoffMs = retryBackoffMs;
+        this.hedgeDelayMs = hedgeDelayMs;
+    }
+    
+    public static <T extends Remote> T create(Class<T> type, String name, RmiStubRegistry registry,
+                                              int maxAttempts, long retryBackoffMs, long hedgeDelayMs) {
+        Object proxy = Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type },
+                new RmiServiceProxy(name, registry, maxAttempts, retryBackoffMs, hedgeDelayMs));
+        return type.cast(proxy);
+    }
+    
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        if (method.getDeclaringClass() == Object.class) {
+            switch (method.getName()) {
+                case "equals": return proxy == args[0];
+                case "hashCode": return System.identityHashCode(proxy);
+                default: return "RmiServiceProxy[" + name + "]";
+            }
+        }
+        
+        RmiEndpoint endpoint = registry.choose(null);
+        if (hedgeDelayMs > 0 && isRead(method) && registry.usableCount() > 1) {
+            return invokeHedged(method, args, endpoint);
+        }
+        return invokeWithRetry(method, args, endpoint);
+    }
+    
+    private Object invokeWithRetry(Method method, Object[] args, RmiEndpoint endpoint) throws Throwable {
+        for (int attempt = 1; ; attempt++) {
+            RmiEndpoint current = endpoint;
+            Remote stub;
+            try {
+                stub = current.get(name);
+            } catch (RemoteException e) {
+                // Registry unreachable: only worth retrying if there is another endpoint
+                registry.recordFailure(current);
+                endpoint = registry.choose(current);
+                if (endpoint == current || attempt >= maxAttempts) {
+                    throw e;
+                }
+                continue;
+            }
+            
+            current.callStarted();
+            try {
+                Object result = method.invoke(stub, args);
+                current.recordSuccess();
+                return result;
+            } catch (InvocationTargetException e) {
+                Throwable cause = e.getCause();
+                if (!isStale(cause)) {
+                    // The server answered, so the endpoint itself is fine
+                    current.recordSuccess();
+                    throw cause;
+                }
+                current.invalidate(name, stub);
+                registry.recordFailure(current);
+                if (attempt >= maxAttempts) {
+                    throw cause;
+                }
+                endpoint = registry.choose(current);
+            } finally {
+                current.callFinished();
+            }
+            if (retryBackoffMs > 0 && endpoint == current) {
+                Thread.sleep(retryBackoffMs * attempt);
+            }
+        }
+    }
+    
+    private Object invokeHedged(Method method, Object[] args, RmiEndpoint primary) throws Throwable {
+        Race race = new Race();
+        if (!race.launch(registry, () -> invokeWithRetry(method, args, primary), false)) {
+            // Hedge pool saturated: just make the call
+            return invokeWithRetry(method, args, primary);
+        }
+        
+        try {
+            return race.result.get(hedgeDelayMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            RmiEndpoint backup = registry.choose(primary);
+            if (backup != primary) {
+                race.launch(registry, () -> invokeWithRetry(method, args, backup), true);
+            }
+        } catch (ExecutionException e) {
+            throw e.getCause();
+        }
+        
+        try {
+            return race.result.get();
+        } catch (ExecutionException e) {
+            throw e.getCause();
+        }
+    }
+    
+    /**
+     * Methods that only read, so running them twice is harmless
+     */
+    private static boolean isRead(Method method) {
+        String methodName = method.getName();
+        return methodName.startsWith("get") || methodName.startsWith("is") || methodName.startsWith("search");
+    }
+    
+    /**
+     * Failures after which the call certainly did not run on the server
+     */
+    private static boolean isStale(Throwable t) {
+        return t instanceof NoSuchObjectException
+                || t instanceof ConnectException
+                || t instanceof ConnectIOException;
+    }
+    
+    private interface Call {
+        Object run() throws Throwable;
+    }
+    
+    /**
+     * First successful leg wins; fails only once every launched leg has failed
+     */
+    private static final class Race {
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+        private int running;
+        private Throwable firstError;
+        
+        boolean launch(RmiStubRegistry registry, Call call, boolean hedge) {
+            synchronized (this) {
+                running++;
+            }
+            try {
+                registry.hedgePool().execute(() -> {
+                    try {
+                        boolean won = result.complete(call.run());
+                        if (hedge) {
+                            registry.recordHedge(won);
+                        }
+                    } catch (Throwable t) {
+                        if (hedge) {
+                            registry.recordHedge(false);
+                        }
+                        failed(t);
+                    }
+                });
+                return true;
+            } catch (RejectedExecutionException e) {
+                failed(null);
+                return false;
+            }
+        }
+        
+        private synchronized void failed(Throwable t) {
+            if (firstError == null) {
+                firstError = t;
+            }
+            if (--running == 0 && firstError != null) {
+                result.completeExceptionally(firstError);
+            }
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package com.hotel.api.rmi;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The set of rmi-server instances (rmi.endpoints) and the balancing between them.
+ *
+ * Stubs are looked up per endpoint on first use instead of at startup, so the
+ * API boots even when every rmi-server is down. Each call goes to the less
+ * loaded of two randomly picked usable endpoints (power of two choices on
+ * outstanding calls), which spreads load without a shared counter and keeps
+ * a slow instance from piling up work. A background probe re-reads every
+ * registry each rmi.health.intervalMs: stubs whose remote reference changed
+ * (rmi-server restarted) are replaced before anyone hits them, unreachable
+ * endpoints leave the rotation, and the application readiness state follows
+ * whether at least one endpoint is reachable.
+ */
+@Component
+public class RmiStubRegistry {
+    
+    @Value("${rmi.host:127.0.0.1}")
+    private String rmiHost;
+    
+    @Value("${rmi.port:1099}")
+    private int rmiPort;
+    
+    @Value("${rmi.endpoints:}")
+    private String endpointList;
+    
+    @Value("${rmi.health.intervalMs:5000}")
+    private long healthIntervalMs;
+    
+    @Value("${rmi.lb.ejectAfterFailures:3}")
+    private int ejectAfterFailures;
+    
+    @Value("${rmi.lb.ejectionMs:10000}")
+    private long ejectionMs;
+    
+    @Value("${rmi.hedge.maxThreads:64}")
+    private int hedgeMaxThreads;
+    
+    private final ApplicationEventPublisher publisher;
+    private final AtomicLong hedges = new AtomicLong();
+    private final AtomicLong hedgeWins = new AtomicLong();
+    
+    private List<RmiEndpoint> endpoints;
+    private volatile Boolean available; // null until the first probe
+    private ScheduledExecutorService prober;
+    private ThreadPoolExecutor hedgePool;
+    
+    public RmiStubRegistry(ApplicationEventPublisher publisher) {
+        this.publisher = publisher;
+    }
+    
+    @PostConstruct
+    public void start() {
+        List<RmiEndpoint> parsed = new ArrayList<>();
+        if (endpointList == null || endpointList.trim().isEmpty()) {
+            parsed.add(new RmiEndpoint(rmiHost, rmiPort));
+        } else {
+            for (String address : endpointList.split(",")) {
+                if (!address.trim().isEmpty()) {
+                    parsed.add(RmiEndpoint.parse(address, rmiPort));
+                }
+            }
+        }
+        endpoints = Collections.unmodifiableList(parsed);
+        System.out.println("RMI endpoints: " + addresses());
+        
+        AtomicInteger hedgeThreads = new AtomicInteger();
+        hedgePool = new ThreadPoolExecutor(0, hedgeMaxThreads, 60, TimeUnit.SECONDS, new SynchronousQueue<>(), r -> {
+            Thread t = new Thread(r, "rmi-hedge-" + hedgeThreads.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        
+        prober = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "rmi-health-probe");
+            t.setDaemon(true);
+            return t;
+        });
+        prober.scheduleWithFixedDelay(this::probe, 0, healthIntervalMs, TimeUnit.MILLISECONDS);
+    }
+    
+    @PreDestroy
+    public void stop() {
+        if (prober != null) {
+            prober.shutdownNow();
+        }
+        if (hedgePool != null) {
+            hedgePool.shutdownNow();
+        }
+    }
+    
+    /**
+     * Pick an endpoint for the next call, avoiding the one that just failed when there is a choice
+     */
+    public RmiEndpoint choose(RmiEndpoint avoid) {
+        long now = System.currentTimeMillis();
+        List<RmiEndpoint> candidates = new ArrayList<>(endpoints.size());
+        for (RmiEndpoint endpoint : endpoints) {
+            if (endpoint != avoid && endpoint.isUsable(now)) {
+                candidates.add(endpoint);
+            }
+        }
+        if (candidates.isEmpty()) {
+            // Nothing known to be healthy: try the others anyway rather than fail without a call
+            for (RmiEndpoint endpoint : endpoints) {
+                if (endpoint != avoid) {
+                    candidates.add(endpoint);
+                }
+            }
+            if (candidates.isEmpty()) {
+                return avoid;
+            }
+        }
+        if (candidates.size() == 1) {
+            return candidates.get(0);
+        }
+        
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int a = random.nextInt(candidates.size());
+        int b = random.nextInt(candidates.size() - 1);
+        if (b >= a) {
+            b++;
+        }
+        RmiEndpoint first = candidates.get(a);
+        RmiEndpoint second = candidates.get(b);
+        return first.outstanding() <= second.outstanding() ? first : second;
+    }
+    
+    /**
+     * Number of endpoints currently in rotation
+     */
+    public int usableCount() {
+        long now = System.currentTimeMillis();
+        int usable = 0;
+        for (RmiEndpoint endpoint : endpoints) {
+            if (endpoint.isUsable(now)) {
+                usable++;
+            }
+        }
+        return usable;
+    }
+    
+    void recordFailure(RmiEndpoint endpoint) {
+        endpoint.recordFailure(ejectAfterFailures, ejectionMs);
+    }
+    
+    ExecutorService hedgePool() {
+        return hedgePool;
+    }
+    
+    void recordHedge(boolean won) {
+        hedges.incrementAndGet();
+        if (won) {
+            hedgeWins.incrementAndGet();
+        }
+    }
+    
+    public boolean isAvailable() {
+        return Boolean.TRUE.equals(available);
+    }
+    
+    /**
+     * Connection state for the health endpoint
+     */
+    public Map<String, Object> health() {
+        Map<String, Object> health = new LinkedHashMap<>();
+        health.put("status", isAvailable() ? "UP" : "DOWN");
+        List<Map<String, Object>> nodes = new ArrayList<>();
+        for (RmiEndpoint endpoint : endpoints) {
+            nodes.add(endpoint.health());
+        }
+        health.put("endpoints", nodes);
+        health.put("hedgedCalls", hedges.get());
+        health.put("hedgeWins", hedgeWins.get());
+        return health;
+    }
+    
+    void probe() {
+        boolean anyUp = false;
+        for (RmiEndpoint endpoint : endpoints) {
+            anyUp |= endpoint.probe();
+        }
+        setAvailable(anyUp);
+    }
+    
+    private List<String> addresses() {
+        List<String> addresses = new ArrayList<>();
+        for (RmiEndpoint endpoint : endpoints) {
+            addresses.add(endpoint.getAddress());
+        }
+        return addresses;
+    }
+    
+    private void setAvailable(boolean up) {
+        Boolean previous = available;
+        available = up;
+        if (previous == null || previous != up) {
+            System.out.println(up ? "RMI servers reachable" : "No RMI server of " + addresses() + " is reachable");
+            AvailabilityChangeEvent.publish(publisher, this,
+                    up ? ReadinessState.ACCEPTING_TRAFFIC : ReadinessState.REFUSING_TRAFFIC);
+        }
+    }
+}
@@ -1,69 +0,0 @@
-package com.hotel.shared.model;
-
-import java.io.Serializable;
-import java.sql.Timestamp;
-
-public class HostApplication implements Serializable {
-    private static final long serialVersionUID = 1L;
-    
-    private int id;
-    private int userId;
-    private String phoneNumber;
-    private String address;
-    private String city;
-    private String idCardNumber;
-    private String motivation;
-    private String experience;
-    private String status; // pending, approved, rejected
-    private String adminNotes;
-    private Timestamp createdAt;
-    private Timestamp updatedAt;
-    
-    // User information (for display purposes)
-    private String userName;
-    private String userEmail;
-    
-    public HostApplication() {}
-    
-    public int getId() { return id; }
-    public void setId(int id) { this.id = id; }
-    
-    public int getUserId() { return userId; }
-    public void setUserId(int userId) { this.userId = userId; }
-    
-    public String getPhoneNumber() { return phoneNumber; }
-    public void setPhoneNumber(String phoneNumber) { this.phoneNumber = phoneNumber; }
-    
-    public String getAddress() { return address; }
-    public void setAddress(String address) { this.address = address; }
-    
-    public String getCity() { return city; }
-    public void setCity(String city) { this.city = city; }
-    
-    public String getIdCardNumber() { return idCardNumber; }
-    public void setIdCardNumber(String idCardNumber) { this.idCardNumber = idCardNumber; }
-    
-    public String getMotivation() { return motivation; }
-    public void setMotivation(String motivation) { this.motivation = motivation; }
-    
-    public String getExperience() { return experience; }
-    public void setExperience(String experience) { this.experience = experience; }
-    
-    public String getStatus() { return status; }
-    public void setStatus(String status) { this.status = status; }
-    
-    public String getAdminNotes() { return adminNotes; }
-    public void setAdminNotes(String adminNotes) { this.adminNotes = adminNotes; }
-    
-    public Timestamp getCreatedAt() { return createdAt; }
-    public void setCreatedAt(Timestamp createdAt) { this.createdAt = createdAt; }
-    
-    public Timestamp getUpdatedAt() { return updatedAt; }
-    public void setUpdatedAt(Timestamp updatedAt) { this.updatedAt = updatedAt; }
-    
-    public String getUserName() { return userName; }
-    public void setUserName(String userName) { this.userName = userName; }
-    
-    public String getUserEmail() { return userEmail; }
-    public void setUserEmail(String userEmail) { this.userEmail = userEmail; }
-}
@@ -1,68 +0,0 @@
-package com.hotel.shared.model;
-
-import java.io.Serializable;
-import java.math.BigDecimal;
-import java.sql.Timestamp;
-import java.util.ArrayList;
-import java.util.List;
-
-public class Listing implements Serializable {
-    private static final long serialVersionUID = 1L;
-    
-    private int id;
-    private int userId;
-    private String title;
-    private String description;
-    private String address;
-    private String city;
-    private BigDecimal pricePerNight;
-    private int maxGuests;
-    private int beds;
-    private int bathrooms;
-    private String status; // pending, approved, rejected
-    private Timestamp createdAt;
-    private List<String> imageUrls;
-    
-    public Listing() {
-        this.imageUrls = new ArrayList<>();
-    }
-    
-    public int getId() { return id; }
-    public void setId(int id) { this.id = id; }
-    
-    public int getUserId() { return userId; }
-    public void setUserId(int userId) { this.userId = userId; }
-    
-    public String getTitle() { return title; }
-    public void setTitle(String title) { this.title = title; }
-    
-    public String getDescription() { return description; }
-    public void setDescription(String description) { this.description = description; }
-    
-    public String getAddress() { return address; }
-    public void setAddress(String address) { this.address = address; }
-    
-    public String getCity() { return city; }
-    public void setCity(String city) { this.city = city; }
-    
-    public BigDecimal getPricePerNight() { return pricePerNight; }
-    public void setPricePerNight(BigDecimal pricePerNight) { this.pricePerNight = pricePerNight; }
-    
-    public int getMaxGuests() { return maxGuests; }
-    public void setMaxGuests(int maxGuests) { this.maxGuests = maxGuests; }
-    
-    public int getBeds() { return beds; }
-    public void setBeds(int beds) { this.beds = beds; }
-    
-    public int getBathrooms() { return bathrooms; }
-    public void setBathrooms(int bathrooms) { this.bathrooms = bathrooms; }
-    
-    public String getStatus() { return status; }
-    public void setStatus(String status) { this.status = status; }
-    
-    public Timestamp getCreatedAt() { return createdAt; }
-    public void setCreatedAt(Timestamp createdAt) { this.createdAt = createdAt; }
-    
-    public List<String> getImageUrls() { return imageUrls; }
-    public void setImageUrls(List<String> imageUrls) { this.imageUrls = imageUrls; }
-}
@@ -1,32 +0,0 @@
-package com.hotel.shared.model;
-
-import java.io.Serializable;
-
-public class Room implements Serializable {
-    private static final long serialVersionUID = 1L;
-    private int id;
-    private String type;
-    private double price;
-
-    public Room() {}
-
-    public Room(int id, String type, double price) {
-        this.id = id;
-        this.type = type;
-        this.price = price;
-    }
-
-    public int getId() { return id; }
-    public void setId(int id) { this.id = id; }
-
-    public String getType() { return type; }
-    public void setType(String type) { this.type = type; }
-
-    public double getPrice() { return price; }
-    public void setPrice(double price) { this.price = price; }
-
-    @Override
-    public String toString() {
-        return "Room{id=" + id + ", type='" + type + "', price=" + price + "}";
-    }
-}
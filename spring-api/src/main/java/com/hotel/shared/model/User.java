@@ -1,47 +0,0 @@
-package com.hotel.shared.model;
-
-import java.io.Serializable;
-import java.sql.Timestamp;
-
-public class User implements Serializable {
-    private static final long serialVersionUID = 1L;
-    
-    private int id;
-    private String name;
-    private String email;
-    private String password;
-    private String role;
-    private Timestamp createdAt;
-    
-    public User() {}
-    
-    public User(int id, String name, String email, String password, String role, Timestamp createdAt) {
-        this.id = id;
-        this.name = name;
-        this.email = email;
-        this.password = password;
-        this.role = role;
-        this.createdAt = createdAt;
-    }
-    
-    public int getId() { return id; }
-    public void setId(int id) { this.id = id; }
-    
-    public String getName() { return name; }
-    public void setName(String name) { this.name = name; }
-    
-    public String getEmail() { return email; }
-    public void setEmail(String email) { this.email = email; }
-    
-    public String getPassword() { return password; }
-    public void setPassword(String password) { this.password = password; }
-    
-    public String getRole() { return role; }
-    public void setRole(String role) { this.role = role; }
-    
-    public Timestamp getCreatedAt() { return createdAt; }
-    public void setCreatedAt(Timestamp createdAt) { this.createdAt = createdAt; }
-    
-    public boolean isHost() { return "host".equalsIgnoreCase(role); }
-    public boolean isAdmin() { return "admin".equalsIgnoreCase(role); }
-}